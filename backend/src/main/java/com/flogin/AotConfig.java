@@ -0,0 +1,127 @@
+package com.flogin;
+
+import com.flogin.audit.AuditEvent;
+import com.flogin.audit.AuditLog;
+import com.flogin.catalog.InMemoryProductCatalog;
+import com.flogin.dto.auth.LoginRequest;
+import com.flogin.dto.auth.RegisterRequest;
+import com.flogin.dto.product.CatalogStatistics;
+import com.flogin.dto.product.CatalogVersion;
+import com.flogin.dto.product.CategoryAggregate;
+import com.flogin.dto.product.ProductFilter;
+import com.flogin.dto.product.ProductRequest;
+import com.flogin.dto.product.ProductResponse;
+import com.flogin.dto.product.ProductSuggestion;
+import com.flogin.entity.PooledSequenceGenerator;
+import com.flogin.entity.product.Category;
+import com.flogin.event.AuthEvent;
+import com.flogin.event.ProductChangeEvent;
+import org.springframework.aot.AotDetector;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.core.env.Environment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runtime hints cho build AOT / native image (mvn -Pnative).
+ *
+ * Entity của hai persistence unit đã được Spring xử lý qua PersistenceManagedTypes
+ * (AuthDataSourceConfig, ProductDataSourceConfig). Ở đây bổ sung những gì chỉ được dùng qua reflection:
+ * - DTO request/response (Lombok), event SSE / audit: Jackson serialize / data binding, condition SpEL của listener
+ * - Projection JPQL "SELECT new ..." (CatalogVersion, CategoryAggregate): Hibernate gọi constructor
+ * - Category: Enum.valueOf khi đọc cột category và khi bind ProductFilter;
+ *   ProductChangeEvent.Type: khi đọc cột event_type của product_outbox
+ * - PooledSequenceGenerator: Hibernate khởi tạo qua @IdGeneratorType
+ * - Migration của Flyway (resource)
+ *
+ * @ConditionalOnProperty được quyết định lúc build AOT (process-aot), không phải lúc chạy:
+ * app.catalog.mode (InMemoryProductCatalog) và app.audit.enabled (AuditLog) bị cố định theo giá trị khi build.
+ * BuildTimeConditionCheck dừng khởi động nếu giá trị lúc chạy khác, thay vì âm thầm chạy sai chế độ.
+ */
+@Configuration
+@ImportRuntimeHints(AotConfig.ApplicationRuntimeHints.class)
+public class AotConfig {
+
+    @Bean
+    static BuildTimeConditionCheck buildTimeConditionCheck() {
+        return new BuildTimeConditionCheck();
+    }
+
+    static class ApplicationRuntimeHints implements RuntimeHintsRegistrar {
+
+        private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            bindingRegistrar.registerReflectionHints(hints.reflection(),
+                    LoginRequest.class, RegisterRequest.class,
+                    ProductRequest.class, ProductResponse.class, ProductFilter.class,
+                    CatalogStatistics.class, ProductChangeEvent.class, AuthEvent.class, AuditEvent.class,
+                    ProductSuggestion.class);
+            hints.reflection()
+                    .registerType(CatalogVersion.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)
+                    .registerType(CategoryAggregate.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)
+                    .registerType(Category.class, MemberCategory.INVOKE_PUBLIC_METHODS)
+                    .registerType(ProductChangeEvent.Type.class, MemberCategory.INVOKE_PUBLIC_METHODS)
+                    .registerType(PooledSequenceGenerator.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+            hints.resources().registerPattern(SchemaMigrations.MIGRATIONS_PATTERN);
+        }
+    }
+
+    /**
+     * Chỉ chạy với artifact AOT (spring.aot.enabled=true / native image): so các property điều kiện với bean
+     * đã được đăng ký lúc build, trước khi bean nào được khởi tạo
+     */
+    static class BuildTimeConditionCheck implements BeanFactoryPostProcessor, EnvironmentAware {
+
+        private Environment environment;
+
+        @Override
+        public void setEnvironment(Environment environment) {
+            this.environment = environment;
+        }
+
+        @Override
+        public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+            if (AotDetector.useGeneratedArtifacts()) {
+                verify(environment, beanFactory);
+            }
+        }
+
+        static void verify(Environment environment, ListableBeanFactory beanFactory) {
+            List<String> mismatches = new ArrayList<>();
+            check(mismatches, "app.catalog.mode",
+                    "memory".equals(environment.getProperty("app.catalog.mode")),
+                    registered(beanFactory, InMemoryProductCatalog.class));
+            check(mismatches, "app.audit.enabled",
+                    "true".equals(environment.getProperty("app.audit.enabled", "true")),
+                    registered(beanFactory, AuditLog.class));
+            if (!mismatches.isEmpty()) {
+                throw new IllegalStateException("AOT build was processed with different values for "
+                        + String.join(", ", mismatches)
+                        + "; rebuild with mvn -Pnative using the runtime values");
+            }
+        }
+
+        private static void check(List<String> mismatches, String property, boolean expected, boolean registered) {
+            if (expected != registered) {
+                mismatches.add(property);
+            }
+        }
+
+        private static boolean registered(ListableBeanFactory beanFactory, Class<?> type) {
+            return beanFactory.getBeanNamesForType(type, true, false).length > 0;
+        }
+    }
+}
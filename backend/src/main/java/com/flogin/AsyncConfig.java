@@ -0,0 +1,21 @@
+package com.flogin;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * Bật xử lý @Async.
+ *
+ * Không khai báo executor riêng: Spring Boot tạo bean "applicationTaskExecutor" theo
+ * spring.threads.virtual.enabled - ThreadPoolTaskExecutor (platform threads) khi tắt,
+ * SimpleAsyncTaskExecutor chạy trên virtual threads khi bật. Nhờ vậy request handling
+ * (Tomcat) và @Async luôn dùng cùng một execution mode.
+ *
+ * Lưu ý pinning: HikariCP, pgjdbc (42.6+) và ojdbc11 (23.x) đều dùng ReentrantLock thay vì
+ * synchronized trên đường I/O, nên virtual thread được unmount khi chờ DB. Có thể kiểm tra
+ * bằng -Djdk.tracePinnedThreads=short (JAVA_OPTS trong Dockerfile).
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+}
@@ -0,0 +1,32 @@
+package com.flogin;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Encoding nhị phân cho REST API bên cạnh JSON, chọn theo Accept / Content-Type:
+ * - CBOR: application/cbor
+ * - Smile: application/x-jackson-smile
+ *
+ * Mapper được tạo từ Jackson2ObjectMapperBuilder của Spring Boot (spring.jackson.*, JavaTimeModule)
+ * nên ngày giờ / BigDecimal được ghi giống hệt bản JSON, chỉ khác định dạng byte.
+ * Spring Boot dùng hai converter bean này thay cho converter CBOR / Smile mặc định.
+ */
+@Configuration
+public class BinaryContentConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,22 @@
+package com.flogin;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flogin.jfr.JfrMappingJackson2HttpMessageConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+/**
+ * Java Flight Recorder: thay Jackson converter mặc định bằng bản ghi SerializationEvent.
+ *
+ * Các event khác (HttpRequestEvent, PhaseEvent, JdbcQueryEvent) được phát trực tiếp tại chỗ;
+ * recording được điều khiển qua /actuator/jfr (JfrRecordingEndpoint).
+ */
+@Configuration
+public class JfrConfig {
+
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new JfrMappingJackson2HttpMessageConverter(objectMapper);
+    }
+}
@@ -0,0 +1,49 @@
+package com.flogin;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.boot.actuate.metrics.data.DefaultRepositoryTagsProvider;
+import org.springframework.boot.actuate.metrics.data.RepositoryTagsProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Micrometer instrumentation
+ *
+ * - flogin.service: timer cho mọi method của service có @Timed (qua TimedAspect),
+ *   tag datasource = auth / product
+ * - spring.data.repository.invocations: timer tự động cho mọi repository query,
+ *   thêm tag datasource theo package repository (repository.auth / repository.product)
+ * - hikaricp.*: metrics của từng connection pool (tag pool = auth-pool / product-pool)
+ * - flogin.password.encoder: thời gian BCrypt encode / matches (MeteredPasswordEncoder)
+ *
+ * Percentiles / histogram được cấu hình trong management.metrics.distribution.* (application.yaml).
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public RepositoryTagsProvider repositoryTagsProvider() {
+        DefaultRepositoryTagsProvider defaults = new DefaultRepositoryTagsProvider();
+        return invocation -> Tags.of(defaults.repositoryTags(invocation))
+                .and(Tag.of("datasource", datasourceOf(invocation.getRepositoryInterface())));
+    }
+
+    private static String datasourceOf(Class<?> repositoryInterface) {
+        String packageName = repositoryInterface.getPackageName();
+        if (packageName.startsWith("com.flogin.repository.auth")) {
+            return "auth";
+        }
+        if (packageName.startsWith("com.flogin.repository.product")) {
+            return "product";
+        }
+        return "unknown";
+    }
+}
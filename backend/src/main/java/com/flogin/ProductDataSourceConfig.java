@@ -1,6 +1,8 @@
 package com.flogin;
 
+import com.flogin.entity.PooledSequenceGenerator;
 import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -8,9 +10,15 @@ import org.springframework.boot.jdbc.DataSourceBuilder;
 import org.springframework.boot.orm.jpa.EntityManagerFactoryBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.data.repository.config.BootstrapMode;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypesScanner;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
@@ -21,39 +29,81 @@ import javax.sql.DataSource;
 @EnableJpaRepositories(
     basePackages = "com.flogin.repository.product",
     entityManagerFactoryRef = "productEntityManagerFactory",
-    transactionManagerRef = "productTransactionManager"
+    transactionManagerRef = "productTransactionManager",
+    // Repository chỉ được khởi tạo sau khi context refresh xong, không chờ EntityManagerFactory
+    bootstrapMode = BootstrapMode.DEFERRED
 )
 public class ProductDataSourceConfig {
     
     @Value("${spring.jpa.product.hibernate.dialect:org.hibernate.dialect.H2Dialect}")
     private String hibernateDialect;
     
-    @Value("${spring.jpa.hibernate.ddl-auto:update}")
+    @Value("${spring.jpa.hibernate.ddl-auto:validate}")
     private String ddlAuto;
     
+    // Phải bằng INCREMENT BY của sequence trong database (db/migration/product)
+    @Value("${app.jpa.id-allocation-size:50}")
+    private int idAllocationSize;
+    
+    @Value("${spring.datasource.product.jdbc-url}")
+    private String jdbcUrl;
+    
+    @Value("${app.jpa.batch-size:50}")
+    private int batchSize;
+    
+    @Value("${app.jpa.bootstrap-in-background:true}")
+    private boolean bootstrapInBackground;
+    
     @Bean(name = "productDataSource")
     @ConfigurationProperties(prefix = "spring.datasource.product")
     public DataSource productDataSource() {
         return DataSourceBuilder.create().build();
     }
     
+    /**
+     * Entity của unit product; với build AOT danh sách này được tính sẵn lúc build (không scan classpath khi chạy)
+     */
+    @Bean(name = "productManagedTypes")
+    public PersistenceManagedTypes productManagedTypes(ResourceLoader resourceLoader) {
+        return new PersistenceManagedTypesScanner(resourceLoader).scan("com.flogin.entity.product");
+    }
+    
+    @Bean(name = "productFlyway", initMethod = "migrate")
+    public Flyway productFlyway(@Qualifier("productDataSource") DataSource dataSource) {
+        return SchemaMigrations.flyway(dataSource, "product", jdbcUrl);
+    }
+    
     @Bean(name = "productEntityManagerFactory")
+    @DependsOn("productFlyway")
     public LocalContainerEntityManagerFactoryBean productEntityManagerFactory(
             EntityManagerFactoryBuilder builder,
-            @Qualifier("productDataSource") DataSource dataSource) {
+            @Qualifier("productDataSource") DataSource dataSource,
+            @Qualifier("productManagedTypes") PersistenceManagedTypes managedTypes,
+            @Qualifier("applicationTaskExecutor") AsyncTaskExecutor bootstrapExecutor) {
         
         java.util.Map<String, Object> properties = new java.util.HashMap<>();
         properties.put("hibernate.dialect", hibernateDialect);
         properties.put("hibernate.hbm2ddl.auto", ddlAuto);
         properties.put("hibernate.show_sql", "false");
         properties.put("hibernate.format_sql", "true");
+        properties.put(PooledSequenceGenerator.ALLOCATION_SIZE_SETTING, idAllocationSize);
+        // Id từ sequence (không phải IDENTITY) nên INSERT gom được thành JDBC batch
+        properties.put("hibernate.jdbc.batch_size", batchSize);
+        properties.put("hibernate.order_inserts", "true");
+        properties.put("hibernate.order_updates", "true");
         
-        return builder
+        LocalContainerEntityManagerFactoryBean factoryBean = builder
                 .dataSource(dataSource)
-                .packages("com.flogin.entity.product")
+                .managedTypes(managedTypes)
                 .persistenceUnit("product")
                 .properties(properties)
                 .build();
+        if (bootstrapInBackground) {
+            // Hibernate bootstrap (scan entity, validate schema) chạy song song với phần còn lại của context;
+            // lần đầu dùng EntityManagerFactory sẽ chờ bootstrap xong
+            factoryBean.setBootstrapExecutor(bootstrapExecutor);
+        }
+        return factoryBean;
     }
     
     @Bean(name = "productTransactionManager")
@@ -0,0 +1,14 @@
+package com.flogin;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Bật @Scheduled (SSE heartbeat, các tác vụ định kỳ).
+ *
+ * Scheduler do Spring Boot tạo cũng theo spring.threads.virtual.enabled như AsyncConfig.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,86 @@
+package com.flogin;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.Location;
+import org.flywaydb.core.api.ResourceProvider;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.flywaydb.core.api.resource.LoadableResource;
+import org.flywaydb.core.internal.resource.classpath.ClassPathResource;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.core.NativeDetector;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Flyway cho từng persistence unit (auth / product).
+ *
+ * Migrations nằm ở classpath:db/migration/{unit}/{vendor} (vendor = oracle, postgresql, h2),
+ * vì index / fillfactor / sequence được viết theo cú pháp riêng của từng database.
+ * Hibernate chỉ validate schema (ddl-auto=validate), không tự sửa schema nữa.
+ */
+final class SchemaMigrations {
+
+    static final String MIGRATIONS_PATTERN = "db/migration/*/*/*.sql";
+
+    private SchemaMigrations() {
+    }
+
+    static Flyway flyway(DataSource dataSource, String unit, String jdbcUrl) {
+        String location = "classpath:db/migration/" + unit + "/" + DatabaseDriver.fromJdbcUrl(jdbcUrl).getId();
+        FluentConfiguration configuration = Flyway.configure()
+                .dataSource(dataSource)
+                .locations(location)
+                // Database đã có bảng do ddl-auto=update tạo: baseline ở version 0 để V1 vẫn chạy
+                // (V1 viết idempotent) và bổ sung index / constraint còn thiếu
+                .baselineOnMigrate(true)
+                .baselineVersion("0");
+        if (NativeDetector.inNativeImage()) {
+            // Scanner classpath của Flyway không liệt kê được resource trong native image
+            configuration.resourceProvider(classpathResources(location, configuration.getClassLoader()));
+        }
+        return configuration.load();
+    }
+
+    /**
+     * Liệt kê migration qua Spring resolver (đọc được resource đã đăng ký trong native image)
+     */
+    static ResourceProvider classpathResources(String location, ClassLoader classLoader) {
+        Location flywayLocation = new Location(location);
+        List<LoadableResource> resources;
+        try {
+            resources = Arrays.stream(new PathMatchingResourcePatternResolver(classLoader)
+                            .getResources(location + "/*.sql"))
+                    .map(Resource::getFilename)
+                    .<LoadableResource>map(filename -> new ClassPathResource(flywayLocation,
+                            flywayLocation.getPath() + "/" + filename, classLoader, StandardCharsets.UTF_8))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new ResourceProvider() {
+            @Override
+            public LoadableResource getResource(String name) {
+                return resources.stream()
+                        .filter(resource -> resource.getRelativePath().equals(name))
+                        .findFirst()
+                        .orElse(null);
+            }
+
+            @Override
+            public Collection<LoadableResource> getResources(String prefix, String[] suffixes) {
+                return resources.stream()
+                        .filter(resource -> resource.getFilename().startsWith(prefix))
+                        .filter(resource -> Arrays.stream(suffixes).anyMatch(resource.getFilename()::endsWith))
+                        .toList();
+            }
+        };
+    }
+}
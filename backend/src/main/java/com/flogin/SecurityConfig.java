@@ -1,12 +1,20 @@
 package com.flogin;
 
+import com.flogin.metrics.MeteredPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -14,10 +22,20 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.util.Arrays;
 
+/**
+ * Security: API sản phẩm / auth mở; actuator chỉ mở health, info, prometheus (probe / scrape),
+ * các endpoint còn lại (metrics, queries, jfr, ...) cần HTTP Basic với role ADMIN.
+ *
+ * Tài khoản admin lấy từ app.management.admin.username / password (MANAGEMENT_ADMIN_USERNAME /
+ * MANAGEMENT_ADMIN_PASSWORD); không đặt password thì không có tài khoản nào và các endpoint đó luôn 401.
+ */
+@Slf4j
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
     
+    static final String ADMIN_ROLE = "ADMIN";
+    
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -26,9 +44,12 @@ public class SecurityConfig {
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/products/**").permitAll()
-                .requestMatchers("/actuator/**").permitAll()
+                .requestMatchers("/api/reactive/**").permitAll()
+                .requestMatchers(EndpointRequest.to("health", "info", "prometheus")).permitAll()
+                .requestMatchers(EndpointRequest.toAnyEndpoint()).hasRole(ADMIN_ROLE)
                 .anyRequest().authenticated()
-            );
+            )
+            .httpBasic(Customizer.withDefaults());
         
         return http.build();
     }
@@ -47,7 +68,25 @@ public class SecurityConfig {
     }
     
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public InMemoryUserDetailsManager managementUsers(
+            @Value("${app.management.admin.username:admin}") String username,
+            @Value("${app.management.admin.password:}") String password,
+            PasswordEncoder passwordEncoder) {
+        InMemoryUserDetailsManager users = new InMemoryUserDetailsManager();
+        if (password.isBlank()) {
+            log.info("No actuator admin password configured: management endpoints other than health, info "
+                    + "and prometheus are disabled");
+            return users;
+        }
+        users.createUser(User.withUsername(username)
+                .password(passwordEncoder.encode(password))
+                .roles(ADMIN_ROLE)
+                .build());
+        return users;
+    }
+    
+    @Bean
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        return new MeteredPasswordEncoder(new BCryptPasswordEncoder(), meterRegistry);
     }
 }
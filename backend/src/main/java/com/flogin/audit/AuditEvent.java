@@ -0,0 +1,23 @@
+package com.flogin.audit;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+
+/**
+ * Một dòng của audit log (JSON Lines).
+ *
+ * - source / action: "product" + CREATED / UPDATED / DELETED, "auth" + REGISTERED / LOGIN_SUCCEEDED / LOGIN_FAILED
+ * - subject: id sản phẩm hoặc username
+ * - actor: người dùng đã xác thực thực hiện thay đổi (null nếu request ẩn danh)
+ * - data: trạng thái sản phẩm sau thay đổi (null với DELETED và với auth)
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record AuditEvent(
+        Instant occurredAt,
+        String source,
+        String action,
+        String subject,
+        String actor,
+        Object data) {
+}
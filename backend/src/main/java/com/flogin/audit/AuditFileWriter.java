@@ -0,0 +1,135 @@
+package com.flogin.audit;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * File append-only của AuditLog, chia thành audit-{n}.jsonl (cùng cách đặt tên segment với WriteAheadLog).
+ *
+ * Mỗi batch được ghi bằng một lần gathering write (fsync một lần nếu bật). Khi file hiện tại vượt
+ * maxFileSize thì mở file mới, và chỉ giữ lại maxFiles file gần nhất. Khi khởi động luôn ghi vào file mới,
+ * không append tiếp vào file cũ (dòng cuối của file cũ có thể bị ghi dở nếu process bị kill).
+ *
+ * Chỉ được gọi từ writer thread của AuditLog.
+ */
+@Slf4j
+final class AuditFileWriter implements Closeable {
+
+    private static final Pattern FILE_NAME = Pattern.compile("audit-(\\d+)\\.jsonl");
+
+    private final Path directory;
+    private final long maxFileSize;
+    private final int maxFiles;
+    private final boolean fsync;
+
+    private long segment;
+    private FileChannel channel;
+    private long fileSize;
+
+    AuditFileWriter(Path directory, long maxFileSize, int maxFiles, boolean fsync) {
+        this.directory = directory;
+        this.maxFileSize = maxFileSize;
+        this.maxFiles = maxFiles;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Ghi các dòng (mỗi phần tử đã kết thúc bằng '\n') vào cuối file hiện tại
+     */
+    void write(List<byte[]> lines) throws IOException {
+        if (channel == null) {
+            open();
+        } else if (fileSize >= maxFileSize) {
+            rotate();
+        }
+        ByteBuffer[] buffers = new ByteBuffer[lines.size()];
+        long length = 0;
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = ByteBuffer.wrap(lines.get(i));
+            length += buffers[i].remaining();
+        }
+        try {
+            long written = 0;
+            while (written < length) {
+                written += channel.write(buffers);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            // Lần ghi sau mở file mới: dòng ghi dở (nếu có) chỉ nằm ở cuối file này
+            close();
+            throw e;
+        }
+        fileSize += length;
+    }
+
+    @Override
+    public void close() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Cannot close audit log file", e);
+            }
+            channel = null;
+        }
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(directory);
+        List<Long> existing = segments();
+        segment = existing.isEmpty() ? 0 : existing.get(existing.size() - 1);
+        openSegment(segment + 1);
+    }
+
+    private void rotate() throws IOException {
+        channel.close();
+        openSegment(segment + 1);
+    }
+
+    private void openSegment(long number) throws IOException {
+        segment = number;
+        channel = FileChannel.open(path(number),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        fileSize = channel.size();
+        deleteOldSegments();
+    }
+
+    private void deleteOldSegments() {
+        try {
+            for (long existing : segments()) {
+                if (existing <= segment - maxFiles) {
+                    Files.deleteIfExists(path(existing));
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Cannot delete old audit log files in {}", directory, e);
+        }
+    }
+
+    private List<Long> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> FILE_NAME.matcher(file.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(matcher -> Long.parseLong(matcher.group(1)))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path path(long number) {
+        return directory.resolve(String.format("audit-%020d.jsonl", number));
+    }
+}
@@ -0,0 +1,274 @@
+package com.flogin.audit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flogin.event.AuthEvent;
+import com.flogin.event.ProductChangeEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Audit log bất đồng bộ cho thay đổi sản phẩm và đăng ký / đăng nhập.
+ *
+ * - record() chỉ đưa event vào RingBuffer (bounded, lock-free) rồi trả về: không I/O, không serialize
+ *   trên thread của request và không thêm gì vào transaction của ProductService / AuthService.
+ * - Writer thread riêng lấy event theo batch (batch-size), serialize JSON Lines và ghi vào AuditFileWriter
+ *   bằng một lần write; thức dậy mỗi flush-interval-ms hoặc ngay khi buffer đã đủ một batch.
+ *   Ghi lỗi thì giữ batch lại và thử lại ở lần sau (có thể ghi trùng dòng, không mất dòng).
+ * - Buffer đầy (overflow): DROP_NEWEST bỏ event mới, DROP_OLDEST bỏ event cũ nhất để nhận event mới,
+ *   BLOCK chờ writer tối đa block-timeout-ms rồi bỏ event mới.
+ * - Shutdown: dừng nhận event, writer ghi hết phần còn lại trong buffer rồi đóng file.
+ *
+ * Metrics: flogin.audit.events (outcome = written / dropped), flogin.audit.buffer.size,
+ * flogin.audit.batch.size, flogin.audit.lag (từ lúc xảy ra tới lúc ghi xong, event cũ nhất của mỗi batch).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.audit.enabled", havingValue = "true", matchIfMissing = true)
+public class AuditLog implements InitializingBean, DisposableBean {
+
+    private static final String PRODUCT_SOURCE = "product";
+    private static final String AUTH_SOURCE = "auth";
+    private static final long BLOCK_WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final RingBuffer<AuditEvent> buffer;
+    private final AuditFileWriter fileWriter;
+    private final ObjectMapper objectMapper;
+    private final Overflow overflow;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long blockTimeoutNanos;
+
+    private final Counter written;
+    private final Counter dropped;
+    private final DistributionSummary batchSizes;
+    private final Timer lag;
+
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public AuditLog(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${app.audit.directory:data/audit}") Path directory,
+            @Value("${app.audit.buffer-size:8192}") int bufferSize,
+            @Value("${app.audit.batch-size:512}") int batchSize,
+            @Value("${app.audit.flush-interval-ms:200}") long flushIntervalMillis,
+            @Value("${app.audit.overflow:drop-newest}") Overflow overflow,
+            @Value("${app.audit.block-timeout-ms:50}") long blockTimeoutMillis,
+            @Value("${app.audit.max-file-size:64MB}") DataSize maxFileSize,
+            @Value("${app.audit.max-files:10}") int maxFiles,
+            @Value("${app.audit.fsync:false}") boolean fsync) {
+        this.buffer = new RingBuffer<>(bufferSize);
+        this.fileWriter = new AuditFileWriter(directory, maxFileSize.toBytes(), maxFiles, fsync);
+        this.objectMapper = objectMapper;
+        this.overflow = overflow;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMillis);
+
+        this.written = Counter.builder("flogin.audit.events").tag("outcome", "written").register(meterRegistry);
+        this.dropped = Counter.builder("flogin.audit.events").tag("outcome", "dropped").register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("flogin.audit.batch.size").register(meterRegistry);
+        this.lag = Timer.builder("flogin.audit.lag").register(meterRegistry);
+        Gauge.builder("flogin.audit.buffer.size", buffer, RingBuffer::size).register(meterRegistry);
+        Gauge.builder("flogin.audit.buffer.capacity", buffer, RingBuffer::capacity).register(meterRegistry);
+
+        this.writer = Thread.ofPlatform().name("audit-writer").daemon().unstarted(this::run);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        writer.start();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Đưa event vào buffer theo chính sách overflow
+     *
+     * @return false nếu event bị bỏ (DROP_OLDEST luôn nhận event mới, event bị bỏ là event cũ nhất)
+     */
+    public boolean record(AuditEvent event) {
+        if (!running) {
+            dropped.increment();
+            return false;
+        }
+        boolean accepted = buffer.offer(event);
+        if (!accepted) {
+            accepted = switch (overflow) {
+                case DROP_NEWEST -> false;
+                case DROP_OLDEST -> offerDroppingOldest(event);
+                case BLOCK -> offerBlocking(event);
+            };
+            if (!accepted) {
+                dropped.increment();
+            }
+            return accepted;
+        }
+        if (buffer.size() >= batchSize) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChange(ProductChangeEvent event) {
+        record(new AuditEvent(event.occurredAt(), PRODUCT_SOURCE, event.type().name(),
+                String.valueOf(event.productId()), event.actor() != null ? event.actor() : currentActor(),
+                event.product()));
+    }
+
+    /**
+     * Sau commit với đăng ký / đăng nhập thành công; đăng nhập thất bại được ghi cả khi transaction rollback
+     */
+    @TransactionalEventListener(condition = "!#event.failed()", fallbackExecution = true)
+    public void onAuthSuccess(AuthEvent event) {
+        recordAuth(event);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, condition = "#event.failed()",
+            fallbackExecution = true)
+    public void onAuthFailure(AuthEvent event) {
+        recordAuth(event);
+    }
+
+    private void recordAuth(AuthEvent event) {
+        record(new AuditEvent(event.occurredAt(), AUTH_SOURCE, event.type().name(),
+                event.username(), currentActor(), null));
+    }
+
+    private boolean offerDroppingOldest(AuditEvent event) {
+        while (!buffer.offer(event)) {
+            if (buffer.poll() != null) {
+                dropped.increment();
+            }
+        }
+        LockSupport.unpark(writer);
+        return true;
+    }
+
+    private boolean offerBlocking(AuditEvent event) {
+        LockSupport.unpark(writer);
+        long deadline = System.nanoTime() + blockTimeoutNanos;
+        while (System.nanoTime() - deadline < 0) {
+            LockSupport.parkNanos(BLOCK_WAIT_NANOS);
+            if (buffer.offer(event)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void run() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        List<byte[]> lines = new ArrayList<>(batchSize);
+        while (true) {
+            if (batch.isEmpty()) {
+                buffer.drainTo(batch, batchSize);
+            }
+            if (batch.isEmpty()) {
+                if (!running) {
+                    break;
+                }
+                LockSupport.parkNanos(this, flushIntervalNanos);
+                continue;
+            }
+            if (!write(batch, lines)) {
+                if (!running) {
+                    log.error("Audit log shutting down, {} events could not be written", batch.size() + buffer.size());
+                    break;
+                }
+                LockSupport.parkNanos(this, flushIntervalNanos);
+                continue;
+            }
+            batch.clear();
+        }
+        fileWriter.close();
+    }
+
+    private boolean write(List<AuditEvent> batch, List<byte[]> lines) {
+        lines.clear();
+        for (AuditEvent event : batch) {
+            byte[] line = serialize(event);
+            if (line != null) {
+                lines.add(line);
+            }
+        }
+        try {
+            fileWriter.write(lines);
+        } catch (IOException e) {
+            log.warn("Cannot write {} audit events, will retry", batch.size(), e);
+            return false;
+        }
+        written.increment(lines.size());
+        dropped.increment(batch.size() - lines.size());
+        batchSizes.record(batch.size());
+        lag.record(Duration.between(batch.get(0).occurredAt(), Instant.now()));
+        return true;
+    }
+
+    /**
+     * @return JSON của event + '\n', hoặc null nếu không serialize được (event bị bỏ, không làm kẹt writer)
+     */
+    private byte[] serialize(AuditEvent event) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            log.warn("Cannot serialize audit event {} {} {}", event.source(), event.action(), event.subject(), e);
+            return null;
+        }
+        byte[] line = new byte[json.length + 1];
+        System.arraycopy(json, 0, line, 0, json.length);
+        line[json.length] = '\n';
+        return line;
+    }
+
+    /**
+     * Username của người dùng đã xác thực trong request hiện tại (null nếu ẩn danh / ngoài request)
+     */
+    public static String currentActor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    public enum Overflow {
+        DROP_NEWEST,
+        DROP_OLDEST,
+        BLOCK
+    }
+}
@@ -0,0 +1,126 @@
+package com.flogin.audit;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Hàng đợi vòng bounded, lock-free, nhiều producer / nhiều consumer (thuật toán của D. Vyukov).
+ *
+ * Mỗi slot có một sequence: bằng vị trí ghi khi slot trống, bằng vị trí ghi + 1 khi đã có phần tử.
+ * Producer / consumer giành vị trí bằng CAS trên tail / head rồi ghi phần tử trước, sequence sau
+ * (volatile) nên bên kia luôn thấy phần tử đầy đủ. Không cấp phát gì khi offer / poll.
+ *
+ * Consumer chính là writer của AuditLog; poll() từ producer chỉ dùng cho chính sách DROP_OLDEST.
+ */
+final class RingBuffer<E> {
+
+    private final Object[] elements;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * @param capacity làm tròn lên lũy thừa của 2
+     */
+    RingBuffer(int capacity) {
+        if (capacity < 2 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be between 2 and 2^30: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        elements = new Object[size];
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        mask = size - 1;
+    }
+
+    int capacity() {
+        return elements.length;
+    }
+
+    /**
+     * @return false nếu buffer đầy
+     */
+    boolean offer(E element) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements[index] = element;
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * @return phần tử cũ nhất, hoặc null nếu buffer rỗng
+     */
+    @SuppressWarnings("unchecked")
+    E poll() {
+        long position = head.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    E element = (E) elements[index];
+                    elements[index] = null;
+                    sequences.set(index, position + elements.length);
+                    return element;
+                }
+                position = head.get();
+            } else if (difference < 0) {
+                return null;
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    /**
+     * Lấy tối đa max phần tử (theo thứ tự offer) vào target
+     *
+     * @return số phần tử đã lấy
+     */
+    int drainTo(List<? super E> target, int max) {
+        int drained = 0;
+        while (drained < max) {
+            E element = poll();
+            if (element == null) {
+                break;
+            }
+            target.add(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * Số phần tử hiện có (xấp xỉ khi đang có offer / poll song song)
+     */
+    int size() {
+        while (true) {
+            long before = head.get();
+            long currentTail = tail.get();
+            if (head.get() == before) {
+                return (int) Math.max(0, Math.min(currentTail - before, elements.length));
+            }
+        }
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+}
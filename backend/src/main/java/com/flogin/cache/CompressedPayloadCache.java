@@ -0,0 +1,80 @@
+package com.flogin.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache các payload JSON đã serialize, kèm bản gzip nén sẵn.
+ *
+ * Mỗi entry gắn với một ETag: chỉ trả về khi ETag khớp version hiện tại, nên không cần
+ * invalidate tường minh - version mới sẽ ghi đè entry cũ. Bản gzip chỉ được tạo khi payload
+ * đạt ngưỡng server.compression.min-response-size (cùng ngưỡng với Tomcat compression),
+ * và được nén một lần ở mức BEST_COMPRESSION thay vì nén lại ở mỗi request.
+ */
+@Component
+public class CompressedPayloadCache {
+
+    private final int minCompressSize;
+    private final Map<String, Payload> entries;
+
+    public CompressedPayloadCache(
+            @Value("${server.compression.min-response-size:2KB}") DataSize minCompressSize,
+            @Value("${app.cache.payload.max-entries:256}") int maxEntries) {
+        this.minCompressSize = (int) minCompressSize.toBytes();
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Payload> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * Lấy payload của key nếu nó được tạo cho đúng ETag, ngược lại null
+     */
+    public Payload get(String key, String etag) {
+        Payload payload = entries.get(key);
+        return payload != null && payload.etag().equals(etag) ? payload : null;
+    }
+
+    public Payload put(String key, String etag, byte[] identity) {
+        byte[] gzip = identity.length >= minCompressSize ? gzip(identity) : null;
+        Payload payload = new Payload(etag, identity, gzip);
+        entries.put(key, payload);
+        return payload;
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Payload đã serialize; gzip == null khi dưới ngưỡng nén
+     */
+    public record Payload(String etag, byte[] identity, byte[] gzip) {
+
+        public boolean hasGzip() {
+            return gzip != null;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.flogin.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flogin.exception.BadRequestException;
+import com.flogin.exception.ConflictException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Kết quả gần đây của các request POST có header Idempotency-Key.
+ *
+ * Client retry (ví dụ sau timeout) với cùng key và cùng request nhận lại đúng response lần đầu,
+ * không chạy lại service (validation, BCrypt, INSERT). Chỉ lưu response thành công: nếu action
+ * ném exception thì key được giải phóng để lần retry sau chạy lại.
+ * - Cùng key nhưng request khác: 400
+ * - Cùng key khi lần đầu còn đang chạy: 409
+ * Giới hạn theo số entry (LRU) và thời gian sống; chỉ trong bộ nhớ của từng instance.
+ *
+ * Key thuộc về client đã gửi nó: người dùng đã xác thực, hoặc địa chỉ client với request ẩn danh
+ * (sau reverse proxy cần server.forward-headers-strategy để địa chỉ là của client). Client khác dùng trùng
+ * key không nhận được response của nhau và không làm request của nhau bị từ chối.
+ * Request chỉ được giữ dưới dạng SHA-256 của JSON (RegisterRequest chứa password). Response được giữ dưới
+ * dạng JSON và deserialize lại mỗi lần replay: mỗi replay nhận một bản riêng.
+ */
+@Component
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final ObjectMapper objectMapper;
+    private final long ttlNanos;
+    private final Map<EntryKey, Entry> entries;
+
+    public IdempotencyStore(
+            ObjectMapper objectMapper,
+            @Value("${app.idempotency.ttl:24h}") Duration ttl,
+            @Value("${app.idempotency.max-entries:10000}") int maxEntries) {
+        this.objectMapper = objectMapper;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<EntryKey, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * Chạy action một lần cho mỗi (scope, client, key); key == null thì luôn chạy.
+     *
+     * @param request request đã bind (serialize được bằng JSON) - dùng để phát hiện key bị dùng lại cho request khác
+     */
+    public <T> ResponseEntity<T> execute(String scope, String key, Object request, Supplier<ResponseEntity<T>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException(HEADER + " must be 1-" + MAX_KEY_LENGTH + " characters");
+        }
+
+        EntryKey entryKey = new EntryKey(scope, currentClient(), key);
+        Entry started = new Entry(fingerprint(request), System.nanoTime());
+        Entry existing;
+        synchronized (entries) {
+            existing = entries.get(entryKey);
+            if (existing != null && existing.isExpired(ttlNanos)) {
+                existing = null;
+            }
+            if (existing == null) {
+                entries.put(entryKey, started);
+            }
+        }
+
+        if (existing != null) {
+            if (!MessageDigest.isEqual(existing.fingerprint, started.fingerprint)) {
+                throw new BadRequestException(HEADER + " was already used for a different request");
+            }
+            StoredResponse response = existing.response;
+            if (response == null) {
+                throw new ConflictException("A request with this " + HEADER + " is still being processed");
+            }
+            return replay(response);
+        }
+
+        try {
+            ResponseEntity<T> response = action.get();
+            started.response = store(response);
+            return response;
+        } catch (RuntimeException e) {
+            entries.remove(entryKey, started);
+            throw e;
+        }
+    }
+
+    /**
+     * Người dùng đã xác thực, hoặc địa chỉ client của request ẩn danh
+     */
+    private static String currentClient() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            return "address:" + attributes.getRequest().getRemoteAddr();
+        }
+        return "anonymous";
+    }
+
+    private byte[] fingerprint(Object request) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private StoredResponse store(ResponseEntity<?> response) {
+        Object body = response.getBody();
+        try {
+            return new StoredResponse(response.getStatusCode(), HttpHeaders.readOnlyHttpHeaders(response.getHeaders()),
+                    body != null ? body.getClass() : null, body != null ? objectMapper.writeValueAsBytes(body) : null);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ResponseEntity<T> replay(StoredResponse response) {
+        try {
+            T body = response.body() != null ? (T) objectMapper.readValue(response.body(), response.bodyType()) : null;
+            return ResponseEntity.status(response.status())
+                    .headers(response.headers())
+                    .header(REPLAYED_HEADER, "true")
+                    .body(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record EntryKey(String scope, String client, String key) {
+    }
+
+    /**
+     * Response thành công: body dưới dạng JSON (null nếu không có body)
+     */
+    private record StoredResponse(HttpStatusCode status, HttpHeaders headers, Class<?> bodyType, byte[] body) {
+    }
+
+    private static final class Entry {
+        private final byte[] fingerprint;
+        private final long createdAt;
+        private volatile StoredResponse response;
+
+        private Entry(byte[] fingerprint, long createdAt) {
+            this.fingerprint = fingerprint;
+            this.createdAt = createdAt;
+        }
+
+        private boolean isExpired(long ttlNanos) {
+            return System.nanoTime() - createdAt >= ttlNanos;
+        }
+    }
+}
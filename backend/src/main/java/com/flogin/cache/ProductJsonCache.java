@@ -0,0 +1,65 @@
+package com.flogin.cache;
+
+import com.flogin.event.ProductChangeEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JSON (UTF-8) đã serialize của từng sản phẩm cho GET /api/products/{id}.
+ *
+ * Cache hit trả thẳng bytes: không load sản phẩm, không ProductMapper, không Jackson.
+ * Mỗi entry gắn với updatedAt của bản đã serialize và chỉ được trả khi khớp version hiện tại,
+ * nên entry do một request chạy song song với update ghi vào không bao giờ bị trả sai.
+ * Update / delete xóa entry sau khi commit (ProductChangeEvent) để không giữ bytes của bản cũ.
+ * Giới hạn theo số entry (LRU); chỉ trong bộ nhớ của từng instance.
+ */
+@Component
+public class ProductJsonCache {
+
+    private final Map<Long, Entry> entries;
+
+    public ProductJsonCache(@Value("${app.cache.product-json.max-entries:10000}") int maxEntries) {
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * JSON của sản phẩm nếu nó được serialize từ đúng version (updatedAt), ngược lại null
+     */
+    public byte[] get(Long id, LocalDateTime version) {
+        Entry entry = entries.get(id);
+        return entry != null && entry.version().equals(version) ? entry.json() : null;
+    }
+
+    public void put(Long id, LocalDateTime version, byte[] json) {
+        entries.put(id, new Entry(version, json));
+    }
+
+    public void evict(Long id) {
+        entries.remove(id);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChange(ProductChangeEvent event) {
+        if (event.type() != ProductChangeEvent.Type.CREATED) {
+            evict(event.productId());
+        }
+    }
+
+    private record Entry(LocalDateTime version, byte[] json) {
+    }
+}
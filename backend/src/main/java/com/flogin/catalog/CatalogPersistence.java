@@ -0,0 +1,147 @@
+package com.flogin.catalog;
+
+import com.flogin.dto.product.PriceCents;
+import com.flogin.entity.product.Category;
+import org.hibernate.engine.jdbc.dialect.internal.StandardDialectResolver;
+import org.hibernate.engine.jdbc.dialect.spi.DatabaseMetaDataDialectResolutionInfoAdapter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Phần JDBC của InMemoryProductCatalog trên product datasource: nạp catalog lúc khởi động,
+ * cấp id từ products_seq và ghi các thay đổi (write-behind) thành JDBC batch trong một transaction.
+ *
+ * Dùng JDBC thay vì JPA vì id đã được cấp trước trong bộ nhớ (persist() của Hibernate sẽ sinh id mới).
+ */
+final class CatalogPersistence {
+
+    private static final String SEQUENCE = "products_seq";
+
+    private static final String SELECT_ALL = "SELECT id, name, description, price, quantity, category, created_at, updated_at "
+            + "FROM products";
+    private static final String UPDATE = "UPDATE products SET name = ?, description = ?, price = ?, quantity = ?, "
+            + "category = ?, updated_at = ? WHERE id = ?";
+    private static final String INSERT = "INSERT INTO products "
+            + "(id, name, description, price, quantity, category, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String DELETE = "DELETE FROM products WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int allocationSize;
+    private final int batchSize;
+
+    // Guarded by this
+    private String nextValueSql;
+    private long nextId;
+    private long maxId = -1;
+
+    CatalogPersistence(DataSource dataSource, int allocationSize, int batchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.allocationSize = allocationSize;
+        this.batchSize = batchSize;
+    }
+
+    void loadAll(Consumer<CatalogProduct> consumer) {
+        jdbcTemplate.query(SELECT_ALL, rs -> {
+            Timestamp updatedAt = rs.getTimestamp("updated_at");
+            consumer.accept(new CatalogProduct(
+                    rs.getLong("id"),
+                    rs.getString("name"),
+                    rs.getString("description"),
+                    PriceCents.of(rs.getBigDecimal("price")),
+                    rs.getInt("quantity"),
+                    Category.valueOf(rs.getString("category")),
+                    rs.getTimestamp("created_at").toLocalDateTime(),
+                    updatedAt != null ? updatedAt.toLocalDateTime() : null));
+        });
+    }
+
+    /**
+     * Id tiếp theo theo cùng quy ước với PooledSequenceGenerator (pooled optimizer): mỗi giá trị hi của
+     * sequence cấp khối (hi - allocation-size, hi], nên chuyển qua lại với catalog mode database không trùng id
+     */
+    synchronized long nextId() {
+        if (nextId > maxId) {
+            if (nextValueSql == null) {
+                nextValueSql = jdbcTemplate.execute((ConnectionCallback<String>) connection -> new StandardDialectResolver()
+                        .resolveDialect(new DatabaseMetaDataDialectResolutionInfoAdapter(connection.getMetaData()))
+                        .getSequenceSupport()
+                        .getSequenceNextValString(SEQUENCE));
+            }
+            Long hi = jdbcTemplate.queryForObject(nextValueSql, Long.class);
+            maxId = hi;
+            nextId = hi - allocationSize + 1;
+        }
+        return nextId++;
+    }
+
+    /**
+     * Ghi các thay đổi (mỗi id tối đa một lần) trong một transaction: UPDATE theo batch,
+     * INSERT những id chưa có dòng nào, DELETE. Ghi lại cùng một thay đổi là idempotent.
+     */
+    void write(List<CatalogWrite> writes) {
+        List<CatalogProduct> upserts = new ArrayList<>();
+        List<Long> deletes = new ArrayList<>();
+        for (CatalogWrite write : writes) {
+            if (write.isDelete()) {
+                deletes.add(write.id());
+            } else {
+                upserts.add(write.product());
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!deletes.isEmpty()) {
+                jdbcTemplate.batchUpdate(DELETE, deletes, batchSize, (ps, id) -> ps.setLong(1, id));
+            }
+            if (upserts.isEmpty()) {
+                return;
+            }
+            int[][] updated = jdbcTemplate.batchUpdate(UPDATE, upserts, batchSize, CatalogPersistence::bindUpdate);
+            List<CatalogProduct> inserts = new ArrayList<>();
+            int index = 0;
+            for (int[] batch : updated) {
+                for (int count : batch) {
+                    if (count == 0) {
+                        inserts.add(upserts.get(index));
+                    }
+                    index++;
+                }
+            }
+            if (!inserts.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT, inserts, batchSize, CatalogPersistence::bindInsert);
+            }
+        });
+    }
+
+    private static void bindUpdate(PreparedStatement ps, CatalogProduct product) throws SQLException {
+        ps.setString(1, product.name());
+        ps.setString(2, product.description());
+        ps.setBigDecimal(3, product.price());
+        ps.setInt(4, product.quantity());
+        ps.setString(5, product.category().name());
+        ps.setTimestamp(6, Timestamp.valueOf(product.updatedAt()));
+        ps.setLong(7, product.id());
+    }
+
+    private static void bindInsert(PreparedStatement ps, CatalogProduct product) throws SQLException {
+        ps.setLong(1, product.id());
+        ps.setString(2, product.name());
+        ps.setString(3, product.description());
+        ps.setBigDecimal(4, product.price());
+        ps.setInt(5, product.quantity());
+        ps.setString(6, product.category().name());
+        ps.setTimestamp(7, Timestamp.valueOf(product.createdAt()));
+        ps.setTimestamp(8, Timestamp.valueOf(product.updatedAt()));
+    }
+}
@@ -0,0 +1,74 @@
+package com.flogin.catalog;
+
+import com.flogin.dto.product.PriceCents;
+import com.flogin.dto.product.ProductResponse;
+import com.flogin.dto.product.StockLevel;
+import com.flogin.entity.product.Category;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Một sản phẩm trong InMemoryProductCatalog: bất biến, mỗi update thay bằng một instance mới
+ * nên reader không cần lock sau khi đã lấy được tham chiếu.
+ *
+ * Giá giữ dạng long (cent, PriceCents): lọc / sort / cộng dồn không tạo BigDecimal,
+ * chỉ đổi sang BigDecimal khi trả response hoặc ghi xuống database.
+ */
+record CatalogProduct(
+        long id,
+        String name,
+        String description,
+        long priceCents,
+        int quantity,
+        Category category,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+
+    BigDecimal price() {
+        return PriceCents.toPrice(priceCents);
+    }
+
+    ProductResponse toResponse() {
+        return ProductResponse.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .price(price())
+                .quantity(quantity)
+                .category(category.name())
+                .createdAt(createdAt)
+                .updatedAt(updatedAt)
+                .build();
+    }
+
+    StockLevel stockLevel() {
+        return new StockLevel(category, priceCents, quantity);
+    }
+
+    /**
+     * Token của tên (lower case, tách theo khoảng trắng) cho index tìm kiếm
+     */
+    List<String> nameTokens() {
+        return tokens(name);
+    }
+
+    static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean separator = i == lower.length() || Character.isWhitespace(lower.charAt(i));
+            if (separator && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            } else if (!separator && start < 0) {
+                start = i;
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,19 @@
+package com.flogin.catalog;
+
+/**
+ * Một thay đổi của catalog chờ ghi xuống database: product == null nghĩa là xóa sản phẩm id
+ */
+record CatalogWrite(long id, CatalogProduct product) {
+
+    static CatalogWrite upsert(CatalogProduct product) {
+        return new CatalogWrite(product.id(), product);
+    }
+
+    static CatalogWrite delete(long id) {
+        return new CatalogWrite(id, null);
+    }
+
+    boolean isDelete() {
+        return product == null;
+    }
+}
@@ -0,0 +1,63 @@
+package com.flogin.catalog;
+
+import java.util.function.Consumer;
+
+/**
+ * ProductTable trên heap: mỗi sản phẩm là một CatalogProduct (app.catalog.memory.storage=heap)
+ */
+final class HeapProductTable implements ProductTable {
+
+    private final LongObjectHashMap<CatalogProduct> products = new LongObjectHashMap<>();
+
+    @Override
+    public CatalogProduct get(long id) {
+        return products.get(id);
+    }
+
+    @Override
+    public CatalogProduct put(CatalogProduct product) {
+        return products.put(product.id(), product);
+    }
+
+    @Override
+    public CatalogProduct remove(long id) {
+        return products.remove(id);
+    }
+
+    @Override
+    public boolean contains(long id) {
+        return products.containsKey(id);
+    }
+
+    @Override
+    public int size() {
+        return products.size();
+    }
+
+    @Override
+    public void forEach(Consumer<CatalogProduct> action) {
+        products.forEachValue(action);
+    }
+
+    @Override
+    public void forEachStock(StockVisitor visitor) {
+        products.forEachValue(product -> visit(product, visitor));
+    }
+
+    @Override
+    public void visitStock(long id, StockVisitor visitor) {
+        CatalogProduct product = products.get(id);
+        if (product != null) {
+            visit(product, visitor);
+        }
+    }
+
+    private static void visit(CatalogProduct product, StockVisitor visitor) {
+        visitor.accept(product.id(), product.category(), product.priceCents(), product.quantity());
+    }
+
+    @Override
+    public void close() {
+        products.clear();
+    }
+}
@@ -0,0 +1,479 @@
+package com.flogin.catalog;
+
+import com.flogin.dto.product.CatalogAggregates;
+import com.flogin.dto.product.CatalogVersion;
+import com.flogin.dto.product.CategoryAggregate;
+import com.flogin.dto.product.PriceCents;
+import com.flogin.dto.product.ProductRequest;
+import com.flogin.dto.product.ProductResponse;
+import com.flogin.entity.product.Category;
+import com.flogin.event.ProductChangeEvent;
+import com.flogin.exception.NotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Catalog mode "memory" (app.catalog.mode=memory): toàn bộ sản phẩm nằm trong bộ nhớ và phục vụ mọi
+ * thao tác đọc của ProductService, không chạm database.
+ *
+ * - Bảng chính: id (long, không box) -> sản phẩm, trên heap hoặc ngoài heap (storage, xem ProductTable);
+ *   index phụ theo category và theo token của tên
+ * - Ghi: append vào write-ahead log (fsync) -> áp dụng vào bộ nhớ -> đưa vào hàng đợi pending (mỗi id giữ
+ *   thay đổi mới nhất). flush() định kỳ ghi pending xuống product datasource thành JDBC batch trong một
+ *   transaction rồi xóa các segment WAL tương ứng; lỗi thì giữ lại pending và thử lại ở lần sau.
+ * - Khởi động: nạp bảng products, đọc lại WAL (thay đổi chưa kịp ghi trước khi crash) rồi flush.
+ *
+ * Catalog là nguồn dữ liệu chính khi bật, nên chỉ một instance được ghi vào bảng products;
+ * read path reactive (R2DBC) vẫn đọc database và có thể chậm hơn tối đa một flush-interval-ms.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.catalog.mode", havingValue = "memory")
+@DependsOn("productFlyway")
+public class InMemoryProductCatalog implements InitializingBean, DisposableBean {
+
+    private static final Category[] CATEGORIES = Category.values();
+
+    private final CatalogPersistence persistence;
+    private final WriteAheadLog writeAheadLog;
+
+    // Bảng và index: đọc dưới read lock, áp dụng thay đổi dưới write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ProductTable products;
+    private final Map<Category, LongHashSet> byCategory = new EnumMap<>(Category.class);
+    private final Map<String, LongHashSet> byNameToken = new HashMap<>();
+    private volatile Snapshot snapshot;
+
+    // Thứ tự ghi (WAL -> bộ nhớ -> pending) được giữ bởi writeMonitor
+    private final Object writeMonitor = new Object();
+    private final LongObjectHashMap<CatalogWrite> pending = new LongObjectHashMap<>();
+    // Số thứ tự của lần ghi gần nhất (ProductChangeEvent.sequence), guarded by writeMonitor
+    private long writeSequence;
+
+    private final Object flushMonitor = new Object();
+
+    public InMemoryProductCatalog(
+            @Qualifier("productDataSource") DataSource dataSource,
+            @Value("${app.catalog.memory.wal-directory:data/catalog-wal}") Path walDirectory,
+            @Value("${app.catalog.memory.fsync:true}") boolean fsync,
+            @Value("${app.catalog.memory.batch-size:500}") int batchSize,
+            @Value("${app.jpa.id-allocation-size:50}") int idAllocationSize,
+            @Value("${app.catalog.memory.storage:heap}") Storage storage,
+            @Value("${app.catalog.memory.off-heap-directory:data/catalog-store}") Path offHeapDirectory) {
+        this.persistence = new CatalogPersistence(dataSource, idAllocationSize, batchSize);
+        this.writeAheadLog = new WriteAheadLog(walDirectory, fsync);
+        this.products = storage == Storage.OFF_HEAP ? new OffHeapProductTable(offHeapDirectory) : new HeapProductTable();
+        for (Category category : Category.values()) {
+            byCategory.put(category, new LongHashSet());
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        long start = System.nanoTime();
+        persistence.loadAll(product -> apply(product.id(), product));
+        int loaded = products.size();
+        List<CatalogWrite> recovered = writeAheadLog.recover();
+        synchronized (writeMonitor) {
+            for (CatalogWrite write : recovered) {
+                apply(write.id(), write.product());
+                pending.put(write.id(), write);
+            }
+        }
+        log.info("In-memory catalog loaded {} products ({} changes recovered from write-ahead log) in {} ms",
+                loaded, recovered.size(), (System.nanoTime() - start) / 1_000_000);
+        flush();
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        flush();
+        writeAheadLog.close();
+        products.close();
+    }
+
+    // ---- Ghi ----
+
+    public ProductChangeEvent create(ProductRequest request) {
+        synchronized (writeMonitor) {
+            LocalDateTime now = now();
+            CatalogProduct product = toProduct(persistence.nextId(), request, now, now);
+            record(CatalogWrite.upsert(product));
+            return ProductChangeEvent.created(product.toResponse()).withSequence(++writeSequence);
+        }
+    }
+
+    public ProductChangeEvent update(long id, ProductRequest request) {
+        synchronized (writeMonitor) {
+            CatalogProduct previous = require(id);
+            CatalogProduct product = toProduct(id, request, previous.createdAt(), now());
+            record(CatalogWrite.upsert(product));
+            return ProductChangeEvent.updated(product.toResponse(), previous.stockLevel()).withSequence(++writeSequence);
+        }
+    }
+
+    public ProductChangeEvent delete(long id) {
+        synchronized (writeMonitor) {
+            CatalogProduct previous = require(id);
+            record(CatalogWrite.delete(id));
+            return ProductChangeEvent.deleted(id, previous.stockLevel()).withSequence(++writeSequence);
+        }
+    }
+
+    /**
+     * Ghi các thay đổi pending xuống database. Chạy định kỳ, khi khởi động (sau recovery) và khi shutdown.
+     */
+    @Scheduled(fixedDelayString = "${app.catalog.memory.flush-interval-ms:200}")
+    public void flush() {
+        synchronized (flushMonitor) {
+            List<CatalogWrite> writes;
+            long segment;
+            synchronized (writeMonitor) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                segment = writeAheadLog.rotate();
+                writes = pending.values();
+                pending.clear();
+            }
+            try {
+                persistence.write(writes);
+            } catch (RuntimeException e) {
+                synchronized (writeMonitor) {
+                    // Thay đổi mới hơn của cùng id (ghi trong lúc flush) được giữ nguyên
+                    writes.forEach(write -> pending.putIfAbsent(write.id(), write));
+                }
+                log.warn("In-memory catalog flush of {} changes failed, will retry", writes.size(), e);
+                return;
+            }
+            writeAheadLog.deleteThrough(segment);
+            log.debug("In-memory catalog flushed {} changes", writes.size());
+        }
+    }
+
+    public int getPendingWrites() {
+        synchronized (writeMonitor) {
+            return pending.size();
+        }
+    }
+
+    // ---- Đọc ----
+
+    public boolean contains(long id) {
+        lock.readLock().lock();
+        try {
+            return products.contains(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<ProductResponse> findById(long id) {
+        return Optional.ofNullable(find(id)).map(CatalogProduct::toResponse);
+    }
+
+    public Optional<LocalDateTime> findUpdatedAtById(long id) {
+        return Optional.ofNullable(find(id)).map(CatalogProduct::updatedAt);
+    }
+
+    /**
+     * Mọi sản phẩm theo id tăng dần
+     */
+    public List<ProductResponse> findAll() {
+        long[] ids = snapshot().ids();
+        List<ProductResponse> responses = new ArrayList<>(ids.length);
+        lock.readLock().lock();
+        try {
+            for (long id : ids) {
+                CatalogProduct product = products.get(id);
+                if (product != null) {
+                    responses.add(product.toResponse());
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return responses;
+    }
+
+    /**
+     * Tên chứa keyword (không phân biệt hoa thường), theo id tăng dần - cùng kết quả với
+     * findByNameContainingIgnoreCase.
+     *
+     * Một đoạn không chứa khoảng trắng của keyword chỉ có thể nằm gọn trong một token của tên, nên chỉ
+     * các sản phẩm có token chứa đoạn dài nhất là ứng viên; sau đó kiểm tra lại cả keyword trên tên.
+     */
+    public List<ProductResponse> search(String keyword) {
+        String lowerKeyword = keyword.toLowerCase(Locale.ROOT);
+        String longestPart = CatalogProduct.tokens(lowerKeyword).stream()
+                .max(Comparator.comparingInt(String::length))
+                .orElse(null);
+        Predicate<CatalogProduct> matches = product -> product.name().toLowerCase(Locale.ROOT).contains(lowerKeyword);
+
+        List<CatalogProduct> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (longestPart == null) {
+                products.forEach(product -> {
+                    if (matches.test(product)) {
+                        result.add(product);
+                    }
+                });
+                result.sort(Comparator.comparingLong(CatalogProduct::id));
+                return toResponses(result);
+            }
+            LongHashSet candidates = new LongHashSet();
+            byNameToken.forEach((token, ids) -> {
+                if (token.contains(longestPart)) {
+                    ids.forEach(candidates::add);
+                }
+            });
+            candidates.forEach(id -> {
+                CatalogProduct product = products.get(id);
+                if (matches.test(product)) {
+                    result.add(product);
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        result.sort(Comparator.comparingLong(CatalogProduct::id));
+        return toResponses(result);
+    }
+
+    /**
+     * Lọc theo category (qua index) / khoảng giá / còn hàng; sort là Sort đã được ProductService kiểm tra
+     * (price, createdAt, id)
+     */
+    public List<ProductResponse> filter(Category category, BigDecimal minPrice, BigDecimal maxPrice,
+                                        Boolean inStock, Sort sort) {
+        // Khoảng giá đổi sang cent một lần; điều kiện chỉ đọc field nguyên thủy,
+        // chỉ sản phẩm khớp mới được lấy ra (off-heap: mới được decode)
+        long minCents = minPrice != null ? PriceCents.ceil(minPrice) : Long.MIN_VALUE;
+        long maxCents = maxPrice != null ? PriceCents.floor(maxPrice) : Long.MAX_VALUE;
+        List<CatalogProduct> result = new ArrayList<>();
+        ProductTable.StockVisitor collect = (id, productCategory, priceCents, quantity) -> {
+            if (priceCents >= minCents && priceCents <= maxCents
+                    && (inStock == null || (quantity > 0) == inStock)) {
+                result.add(products.get(id));
+            }
+        };
+        lock.readLock().lock();
+        try {
+            if (category != null) {
+                byCategory.get(category).forEach(id -> products.visitStock(id, collect));
+            } else {
+                products.forEachStock(collect);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        result.sort(comparator(sort));
+        return toResponses(result);
+    }
+
+    public CatalogVersion getCatalogVersion() {
+        return snapshot().version();
+    }
+
+    /**
+     * Cùng kết quả với ProductRepository.aggregateByCategory() (chỉ các category có sản phẩm), kèm số thứ tự
+     * ghi cuối cùng đã được tính. Duyệt dưới writeMonitor: không có lần ghi nào đã lấy số thứ tự mà chưa
+     * áp dụng vào bảng.
+     */
+    public CatalogAggregates aggregateByCategory() {
+        // Một lượt duyệt, cộng dồn bằng long (cent)
+        long[] counts = new long[CATEGORIES.length];
+        long[] units = new long[CATEGORIES.length];
+        long[] stockValueCents = new long[CATEGORIES.length];
+        long sequence;
+        synchronized (writeMonitor) {
+            sequence = writeSequence;
+            lock.readLock().lock();
+            try {
+                products.forEachStock((id, category, priceCents, quantity) -> {
+                    counts[category.ordinal()]++;
+                    units[category.ordinal()] += quantity;
+                    stockValueCents[category.ordinal()] += priceCents * quantity;
+                });
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        List<CategoryAggregate> aggregates = new ArrayList<>();
+        for (Category category : CATEGORIES) {
+            int index = category.ordinal();
+            if (counts[index] > 0) {
+                aggregates.add(new CategoryAggregate(category, counts[index], units[index],
+                        PriceCents.toPrice(stockValueCents[index])));
+            }
+        }
+        return new CatalogAggregates(aggregates, sequence);
+    }
+
+    // ---- Nội bộ ----
+
+    private CatalogProduct find(long id) {
+        lock.readLock().lock();
+        try {
+            return products.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private CatalogProduct require(long id) {
+        CatalogProduct product = find(id);
+        if (product == null) {
+            throw new NotFoundException("Product not found with id: " + id);
+        }
+        return product;
+    }
+
+    /**
+     * WAL trước, rồi mới tới bộ nhớ: thay đổi đã hiển thị cho reader thì chắc chắn khôi phục được sau crash
+     */
+    private void record(CatalogWrite write) {
+        writeAheadLog.append(write);
+        apply(write.id(), write.product());
+        pending.put(write.id(), write);
+    }
+
+    /**
+     * Thay sản phẩm id bằng product (null = xóa) và cập nhật index
+     */
+    private void apply(long id, CatalogProduct product) {
+        lock.writeLock().lock();
+        try {
+            CatalogProduct previous = product != null ? products.put(product) : products.remove(id);
+            if (previous != null) {
+                byCategory.get(previous.category()).remove(id);
+                for (String token : previous.nameTokens()) {
+                    LongHashSet ids = byNameToken.get(token);
+                    ids.remove(id);
+                    if (ids.isEmpty()) {
+                        byNameToken.remove(token);
+                    }
+                }
+            }
+            if (product != null) {
+                byCategory.get(product.category()).add(id);
+                for (String token : product.nameTokens()) {
+                    byNameToken.computeIfAbsent(token, key -> new LongHashSet()).add(id);
+                }
+            }
+            snapshot = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Id theo thứ tự tăng dần + version của catalog, tính lại lần đầu được đọc sau mỗi thay đổi
+     * (chỉ giữ id để storage off-heap không bị chép lại lên heap)
+     */
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        lock.readLock().lock();
+        try {
+            long[] ids = new long[products.size()];
+            LocalDateTime[] lastModified = new LocalDateTime[1];
+            int[] count = new int[1];
+            products.forEach(product -> {
+                ids[count[0]++] = product.id();
+                if (product.updatedAt() != null
+                        && (lastModified[0] == null || product.updatedAt().isAfter(lastModified[0]))) {
+                    lastModified[0] = product.updatedAt();
+                }
+            });
+            Arrays.sort(ids);
+            current = new Snapshot(ids, new CatalogVersion(ids.length, lastModified[0]));
+            // Gán trong read lock: writer (giữ write lock) không thể xóa snapshot giữa lúc tính và lúc gán
+            snapshot = current;
+            return current;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Comparator<CatalogProduct> comparator(Sort sort) {
+        Comparator<CatalogProduct> result = Comparator.comparingLong(CatalogProduct::id);
+        boolean first = true;
+        for (Sort.Order order : sort) {
+            Comparator<CatalogProduct> property = switch (order.getProperty()) {
+                case "price" -> Comparator.comparingLong(CatalogProduct::priceCents);
+                case "createdAt" -> Comparator.comparing(CatalogProduct::createdAt);
+                default -> Comparator.comparingLong(CatalogProduct::id);
+            };
+            if (order.isDescending()) {
+                property = property.reversed();
+            }
+            result = first ? property : result.thenComparing(property);
+            first = false;
+        }
+        return result;
+    }
+
+    private static CatalogProduct toProduct(long id, ProductRequest request, LocalDateTime createdAt,
+                                            LocalDateTime updatedAt) {
+        return new CatalogProduct(id, request.getName(), request.getDescription(), PriceCents.of(request.getPrice()),
+                request.getQuantity(), Category.fromString(request.getCategory()), createdAt, updatedAt);
+    }
+
+    /**
+     * Cùng độ chính xác với cột TIMESTAMP(6): giá trị trong bộ nhớ và trong database giống hệt nhau
+     * (ETag / Last-Modified không đổi sau khi restart)
+     */
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    private static List<ProductResponse> toResponses(List<CatalogProduct> products) {
+        List<ProductResponse> responses = new ArrayList<>(products.size());
+        for (CatalogProduct product : products) {
+            responses.add(product.toResponse());
+        }
+        return responses;
+    }
+
+    /**
+     * Nơi giữ bảng sản phẩm (app.catalog.memory.storage)
+     */
+    public enum Storage {
+        HEAP,
+        OFF_HEAP
+    }
+
+    private record Snapshot(long[] ids, CatalogVersion version) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.flogin.catalog;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Tập long không box, dựa trên LongObjectHashMap (như HashSet dựa trên HashMap)
+ */
+final class LongHashSet {
+
+    private static final Object PRESENT = new Object();
+
+    private final LongObjectHashMap<Object> map = new LongObjectHashMap<>();
+
+    boolean add(long value) {
+        return map.put(value, PRESENT) == null;
+    }
+
+    boolean remove(long value) {
+        return map.remove(value) != null;
+    }
+
+    boolean contains(long value) {
+        return map.containsKey(value);
+    }
+
+    int size() {
+        return map.size();
+    }
+
+    boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    void forEach(LongConsumer action) {
+        map.forEachKey(action);
+    }
+}
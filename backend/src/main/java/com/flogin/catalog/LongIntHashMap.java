@@ -0,0 +1,123 @@
+package com.flogin.catalog;
+
+/**
+ * Map long -> int (int >= 0) không box, cùng cách làm với LongObjectHashMap (open addressing,
+ * linear probing, xóa bằng backward shift). Value được lưu dưới dạng value + 1 để 0 đánh dấu slot trống.
+ *
+ * Không thread-safe.
+ */
+final class LongIntHashMap {
+
+    static final int MISSING = -1;
+
+    private static final int MIN_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private int resizeAt;
+
+    LongIntHashMap() {
+        allocate(MIN_CAPACITY);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return value của key, hoặc MISSING
+     */
+    int get(long key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; values[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot] - 1;
+            }
+        }
+        return MISSING;
+    }
+
+    /**
+     * @return value cũ của key, hoặc MISSING
+     */
+    int put(long key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("value must not be negative");
+        }
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        for (; values[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                int previous = values[slot] - 1;
+                values[slot] = value + 1;
+                return previous;
+            }
+        }
+        keys[slot] = key;
+        values[slot] = value + 1;
+        if (++size > resizeAt) {
+            rehash(keys.length * 2);
+        }
+        return MISSING;
+    }
+
+    /**
+     * @return value đã xóa, hoặc MISSING
+     */
+    int remove(long key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; values[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                int removed = values[slot] - 1;
+                shiftBack(slot);
+                size--;
+                return removed;
+            }
+        }
+        return MISSING;
+    }
+
+    private void shiftBack(int slot) {
+        int mask = keys.length - 1;
+        int gap = slot;
+        for (int next = (gap + 1) & mask; values[next] != 0; next = (next + 1) & mask) {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        values[gap] = 0;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != 0) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (values[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
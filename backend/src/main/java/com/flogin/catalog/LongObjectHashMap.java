@@ -0,0 +1,181 @@
+package com.flogin.catalog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Map long -> V dùng open addressing (linear probing) trên hai mảng song song:
+ * không box key thành Long và không tạo Map.Entry cho mỗi phần tử.
+ *
+ * Không thread-safe; value không được null (slot có value == null là slot trống).
+ */
+final class LongObjectHashMap<V> {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private V[] values;
+    private int size;
+    private int resizeAt;
+
+    LongObjectHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    LongObjectHashMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    V get(long key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+        return null;
+    }
+
+    boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @return value cũ của key, hoặc null
+     */
+    V put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("value must not be null");
+        }
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        for (; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                V previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeAt) {
+            rehash(keys.length * 2);
+        }
+        return null;
+    }
+
+    V putIfAbsent(long key, V value) {
+        V existing = get(key);
+        return existing != null ? existing : put(key, value);
+    }
+
+    /**
+     * @return value đã xóa, hoặc null nếu không có key
+     */
+    V remove(long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        for (; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                V removed = values[slot];
+                shiftBack(slot);
+                size--;
+                return removed;
+            }
+        }
+        return null;
+    }
+
+    void clear() {
+        allocate(MIN_CAPACITY);
+        size = 0;
+    }
+
+    void forEachKey(LongConsumer action) {
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null) {
+                action.accept(keys[slot]);
+            }
+        }
+    }
+
+    void forEachValue(Consumer<? super V> action) {
+        for (V value : values) {
+            if (value != null) {
+                action.accept(value);
+            }
+        }
+    }
+
+    List<V> values() {
+        List<V> result = new ArrayList<>(size);
+        forEachValue(result::add);
+        return result;
+    }
+
+    /**
+     * Xóa slot mà không để lại tombstone: dời các phần tử phía sau (cùng cụm probing) về đúng vị trí
+     */
+    private void shiftBack(int slot) {
+        int mask = keys.length - 1;
+        int gap = slot;
+        for (int next = (gap + 1) & mask; values[next] != null; next = (next + 1) & mask) {
+            int home = hash(keys[next]) & mask;
+            // Phần tử ở next được dời về gap nếu home của nó không nằm trong (gap, next]
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        values[gap] = null;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        V[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = (V[]) new Object[capacity];
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * LOAD_FACTOR < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
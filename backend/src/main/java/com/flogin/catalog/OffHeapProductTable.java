@@ -0,0 +1,362 @@
+package com.flogin.catalog;
+
+import com.flogin.entity.product.Category;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * ProductTable ngoài heap (app.catalog.memory.storage=off-heap) cho catalog rất lớn.
+ *
+ * Mỗi sản phẩm là một record 64 byte trong products.dat, tên / mô tả (UTF-8) nằm trong arena strings-{n}.dat;
+ * cả hai là file memory-mapped theo chunk. Trên heap chỉ còn map id -> slot (không box);
+ * CatalogProduct / ProductResponse được decode khi đọc và bỏ đi sau request.
+ *
+ * Record: id, price (cent, xem PriceCents), createdAt / updatedAt (epoch micros),
+ * offset của name / description trong arena, quantity, độ dài name / description, category (ordinal), flags.
+ *
+ * File chỉ là nơi chứa tạm: được tạo mới mỗi lần khởi động (dữ liệu bền vững là database + write-ahead log).
+ * String của bản cũ sau update / delete thành rác trong arena; arena được compact khi rác vượt quá phần còn dùng.
+ */
+final class OffHeapProductTable implements ProductTable {
+
+    static final int RECORD_SIZE = 64;
+
+    private static final int DEFAULT_CHUNK_SIZE = 64 << 20;
+    private static final long NULL_TIMESTAMP = Long.MIN_VALUE;
+    private static final long NULL_OFFSET = -1;
+    private static final byte LIVE = 1;
+    private static final Category[] CATEGORIES = Category.values();
+
+    // Vị trí các field trong record
+    private static final int ID = 0;
+    private static final int PRICE = 8;
+    private static final int CREATED_AT = 16;
+    private static final int UPDATED_AT = 24;
+    private static final int NAME_OFFSET = 32;
+    private static final int DESCRIPTION_OFFSET = 40;
+    private static final int QUANTITY = 48;
+    private static final int NAME_LENGTH = 52;
+    private static final int DESCRIPTION_LENGTH = 54;
+    private static final int CATEGORY = 56;
+    private static final int FLAGS = 57;
+
+    private final Path directory;
+    private final int chunkSize;
+    private final MappedFile records;
+    private MappedFile strings;
+    private int stringsGeneration;
+
+    private final LongIntHashMap slots = new LongIntHashMap();
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int slotCount;
+    private long stringsEnd;
+    private long liveStringBytes;
+
+    OffHeapProductTable(Path directory) {
+        this(directory, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param chunkSize kích thước mỗi vùng map (bội số của RECORD_SIZE)
+     */
+    OffHeapProductTable(Path directory, int chunkSize) {
+        if (chunkSize % RECORD_SIZE != 0) {
+            throw new IllegalArgumentException("chunkSize must be a multiple of " + RECORD_SIZE);
+        }
+        this.directory = directory;
+        this.chunkSize = chunkSize;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create off-heap catalog directory " + directory, e);
+        }
+        this.records = new MappedFile(directory.resolve("products.dat"), chunkSize);
+        this.strings = new MappedFile(directory.resolve("strings-0.dat"), chunkSize);
+    }
+
+    @Override
+    public CatalogProduct get(long id) {
+        int slot = slots.get(id);
+        return slot == LongIntHashMap.MISSING ? null : decode(slot);
+    }
+
+    @Override
+    public CatalogProduct put(CatalogProduct product) {
+        CatalogProduct previous = null;
+        int slot = slots.get(product.id());
+        if (slot != LongIntHashMap.MISSING) {
+            previous = decode(slot);
+            releaseStrings(slot);
+        } else {
+            slot = allocateSlot();
+            slots.put(product.id(), slot);
+        }
+        encode(slot, product);
+        compactStringsIfNeeded();
+        return previous;
+    }
+
+    @Override
+    public CatalogProduct remove(long id) {
+        int slot = slots.remove(id);
+        if (slot == LongIntHashMap.MISSING) {
+            return null;
+        }
+        CatalogProduct previous = decode(slot);
+        releaseStrings(slot);
+        records.chunk(position(slot)).put(records.offset(position(slot)) + FLAGS, (byte) 0);
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+        return previous;
+    }
+
+    @Override
+    public boolean contains(long id) {
+        return slots.get(id) != LongIntHashMap.MISSING;
+    }
+
+    @Override
+    public int size() {
+        return slots.size();
+    }
+
+    @Override
+    public void forEach(Consumer<CatalogProduct> action) {
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (isLive(slot)) {
+                action.accept(decode(slot));
+            }
+        }
+    }
+
+    @Override
+    public void forEachStock(StockVisitor visitor) {
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (isLive(slot)) {
+                visit(slot, visitor);
+            }
+        }
+    }
+
+    @Override
+    public void visitStock(long id, StockVisitor visitor) {
+        int slot = slots.get(id);
+        if (slot != LongIntHashMap.MISSING) {
+            visit(slot, visitor);
+        }
+    }
+
+    /**
+     * Chỉ đọc các field cố định của record, không đọc arena
+     */
+    private void visit(int slot, StockVisitor visitor) {
+        ByteBuffer buffer = records.chunk(position(slot));
+        int base = records.offset(position(slot));
+        visitor.accept(buffer.getLong(base + ID), CATEGORIES[buffer.get(base + CATEGORY)],
+                buffer.getLong(base + PRICE), buffer.getInt(base + QUANTITY));
+    }
+
+    /**
+     * Dung lượng đang dùng trong hai file (record + arena), tính cả slot trống / string rác
+     */
+    long mappedBytes() {
+        return (long) slotCount * RECORD_SIZE + stringsEnd;
+    }
+
+    @Override
+    public void close() {
+        records.close();
+        strings.close();
+    }
+
+    private int allocateSlot() {
+        return freeCount > 0 ? freeSlots[--freeCount] : slotCount++;
+    }
+
+    private long position(int slot) {
+        return (long) slot * RECORD_SIZE;
+    }
+
+    private boolean isLive(int slot) {
+        return records.chunk(position(slot)).get(records.offset(position(slot)) + FLAGS) == LIVE;
+    }
+
+    private void encode(int slot, CatalogProduct product) {
+        byte[] name = product.name().getBytes(StandardCharsets.UTF_8);
+        byte[] description = product.description() != null
+                ? product.description().getBytes(StandardCharsets.UTF_8)
+                : null;
+        long nameOffset = appendString(name);
+        long descriptionOffset = description != null ? appendString(description) : NULL_OFFSET;
+
+        ByteBuffer buffer = records.chunk(position(slot));
+        int base = records.offset(position(slot));
+        buffer.putLong(base + ID, product.id());
+        buffer.putLong(base + PRICE, product.priceCents());
+        buffer.putLong(base + CREATED_AT, toEpochMicros(product.createdAt()));
+        buffer.putLong(base + UPDATED_AT, product.updatedAt() != null
+                ? toEpochMicros(product.updatedAt())
+                : NULL_TIMESTAMP);
+        buffer.putLong(base + NAME_OFFSET, nameOffset);
+        buffer.putLong(base + DESCRIPTION_OFFSET, descriptionOffset);
+        buffer.putInt(base + QUANTITY, product.quantity());
+        buffer.putChar(base + NAME_LENGTH, (char) name.length);
+        buffer.putChar(base + DESCRIPTION_LENGTH, description != null ? (char) description.length : 0);
+        buffer.put(base + CATEGORY, (byte) product.category().ordinal());
+        buffer.put(base + FLAGS, LIVE);
+    }
+
+    private CatalogProduct decode(int slot) {
+        ByteBuffer buffer = records.chunk(position(slot));
+        int base = records.offset(position(slot));
+        long descriptionOffset = buffer.getLong(base + DESCRIPTION_OFFSET);
+        long updatedAt = buffer.getLong(base + UPDATED_AT);
+        return new CatalogProduct(
+                buffer.getLong(base + ID),
+                readString(buffer.getLong(base + NAME_OFFSET), buffer.getChar(base + NAME_LENGTH)),
+                descriptionOffset != NULL_OFFSET
+                        ? readString(descriptionOffset, buffer.getChar(base + DESCRIPTION_LENGTH))
+                        : null,
+                buffer.getLong(base + PRICE),
+                buffer.getInt(base + QUANTITY),
+                CATEGORIES[buffer.get(base + CATEGORY)],
+                fromEpochMicros(buffer.getLong(base + CREATED_AT)),
+                updatedAt != NULL_TIMESTAMP ? fromEpochMicros(updatedAt) : null);
+    }
+
+    private long appendString(byte[] bytes) {
+        long position = stringsEnd;
+        if (strings.offset(position) + bytes.length > chunkSize) {
+            // Một string không nằm vắt qua hai chunk: bỏ phần cuối chunk hiện tại
+            position = (position / chunkSize + 1) * chunkSize;
+        }
+        strings.chunk(position).put(strings.offset(position), bytes);
+        stringsEnd = position + bytes.length;
+        liveStringBytes += bytes.length;
+        return position;
+    }
+
+    private String readString(long offset, int length) {
+        byte[] bytes = new byte[length];
+        strings.chunk(offset).get(strings.offset(offset), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void releaseStrings(int slot) {
+        ByteBuffer buffer = records.chunk(position(slot));
+        int base = records.offset(position(slot));
+        liveStringBytes -= buffer.getChar(base + NAME_LENGTH);
+        if (buffer.getLong(base + DESCRIPTION_OFFSET) != NULL_OFFSET) {
+            liveStringBytes -= buffer.getChar(base + DESCRIPTION_LENGTH);
+        }
+    }
+
+    /**
+     * Chép các string còn dùng sang arena mới khi phần rác lớn hơn cả phần còn dùng (và hơn một chunk)
+     */
+    private void compactStringsIfNeeded() {
+        long garbage = stringsEnd - liveStringBytes;
+        if (garbage <= chunkSize || garbage <= liveStringBytes) {
+            return;
+        }
+        MappedFile previous = strings;
+        strings = new MappedFile(directory.resolve("strings-" + (++stringsGeneration) + ".dat"), chunkSize);
+        stringsEnd = 0;
+        liveStringBytes = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (!isLive(slot)) {
+                continue;
+            }
+            ByteBuffer buffer = records.chunk(position(slot));
+            int base = records.offset(position(slot));
+            buffer.putLong(base + NAME_OFFSET, appendString(copy(previous,
+                    buffer.getLong(base + NAME_OFFSET), buffer.getChar(base + NAME_LENGTH))));
+            long descriptionOffset = buffer.getLong(base + DESCRIPTION_OFFSET);
+            if (descriptionOffset != NULL_OFFSET) {
+                buffer.putLong(base + DESCRIPTION_OFFSET, appendString(copy(previous,
+                        descriptionOffset, buffer.getChar(base + DESCRIPTION_LENGTH))));
+            }
+        }
+        previous.close();
+    }
+
+    private static byte[] copy(MappedFile file, long offset, int length) {
+        byte[] bytes = new byte[length];
+        file.chunk(offset).get(file.offset(offset), bytes);
+        return bytes;
+    }
+
+    private static long toEpochMicros(LocalDateTime value) {
+        return value.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + value.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromEpochMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+
+    /**
+     * File được map thành các chunk cố định kích thước, map thêm khi ghi tới vị trí mới
+     */
+    private static final class MappedFile {
+        private final Path path;
+        private final int chunkSize;
+        private final FileChannel channel;
+        private final List<MappedByteBuffer> chunks = new ArrayList<>();
+
+        private MappedFile(Path path, int chunkSize) {
+            this.path = path;
+            this.chunkSize = chunkSize;
+            try {
+                // File của lần chạy trước (hoặc instance trước) bị thay bằng file mới, không ghi đè vùng đang được map
+                Files.deleteIfExists(path);
+                this.channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot create off-heap catalog file " + path, e);
+            }
+        }
+
+        private ByteBuffer chunk(long position) {
+            int index = (int) (position / chunkSize);
+            try {
+                while (chunks.size() <= index) {
+                    chunks.add(channel.map(FileChannel.MapMode.READ_WRITE, (long) chunks.size() * chunkSize, chunkSize));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot map off-heap catalog file " + path, e);
+            }
+            return chunks.get(index);
+        }
+
+        private int offset(long position) {
+            return (int) (position % chunkSize);
+        }
+
+        private void close() {
+            try {
+                channel.close();
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot close off-heap catalog file " + path, e);
+            }
+        }
+    }
+}
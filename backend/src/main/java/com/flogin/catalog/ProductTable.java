@@ -0,0 +1,53 @@
+package com.flogin.catalog;
+
+import com.flogin.entity.product.Category;
+
+import java.io.Closeable;
+import java.util.function.Consumer;
+
+/**
+ * Bảng chính id -> sản phẩm của InMemoryProductCatalog (app.catalog.memory.storage):
+ * - HeapProductTable: CatalogProduct trên heap
+ * - OffHeapProductTable: record cố định trong file memory-mapped, CatalogProduct được decode khi đọc
+ *
+ * Không thread-safe: InMemoryProductCatalog gọi dưới read / write lock của nó.
+ */
+interface ProductTable extends Closeable {
+
+    CatalogProduct get(long id);
+
+    /**
+     * @return sản phẩm cũ cùng id, hoặc null
+     */
+    CatalogProduct put(CatalogProduct product);
+
+    /**
+     * @return sản phẩm đã xóa, hoặc null
+     */
+    CatalogProduct remove(long id);
+
+    boolean contains(long id);
+
+    int size();
+
+    void forEach(Consumer<CatalogProduct> action);
+
+    /**
+     * Duyệt category / giá / số lượng của mọi sản phẩm mà không dựng CatalogProduct
+     * (lọc và cộng dồn theo kiểu nguyên thủy)
+     */
+    void forEachStock(StockVisitor visitor);
+
+    /**
+     * Như forEachStock cho một sản phẩm; không làm gì nếu id không tồn tại
+     */
+    void visitStock(long id, StockVisitor visitor);
+
+    @Override
+    void close();
+
+    @FunctionalInterface
+    interface StockVisitor {
+        void accept(long id, Category category, long priceCents, int quantity);
+    }
+}
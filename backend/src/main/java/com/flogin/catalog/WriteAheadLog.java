@@ -0,0 +1,235 @@
+package com.flogin.catalog;
+
+import com.flogin.dto.product.PriceCents;
+import com.flogin.entity.product.Category;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Write-ahead log của InMemoryProductCatalog.
+ *
+ * Mỗi thay đổi được append (và fsync nếu bật) trước khi áp dụng vào bộ nhớ. Log chia thành segment
+ * catalog-{n}.wal: mỗi lần flush mở segment mới, và các segment cũ được xóa khi những thay đổi
+ * trong đó đã commit xuống database. Khi khởi động, mọi segment còn lại được đọc lại theo thứ tự.
+ *
+ * Record: [int length][int crc32c][payload]. Record cuối bị ghi dở (crash giữa lúc append)
+ * được nhận ra qua length / crc và bỏ qua.
+ */
+@Slf4j
+final class WriteAheadLog implements Closeable {
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("catalog-(\\d+)\\.wal");
+    // Bản ghi cũ: giá dạng chuỗi thập phân; chỉ còn được đọc khi recover
+    private static final byte UPSERT_DECIMAL = 1;
+    private static final byte DELETE = 2;
+    // Giá dạng long (cent)
+    private static final byte UPSERT = 3;
+    private static final int MAX_RECORD_LENGTH = 1 << 20;
+
+    private final Path directory;
+    private final boolean fsync;
+
+    // Guarded by this
+    private long segment;
+    private FileChannel channel;
+
+    WriteAheadLog(Path directory, boolean fsync) {
+        this.directory = directory;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Đọc lại mọi segment còn trên đĩa (theo thứ tự ghi) rồi mở segment mới để append
+     */
+    synchronized List<CatalogWrite> recover() {
+        try {
+            Files.createDirectories(directory);
+            List<CatalogWrite> writes = new ArrayList<>();
+            for (long existing : segments()) {
+                readSegment(path(existing), writes);
+                segment = Math.max(segment, existing);
+            }
+            openSegment(segment + 1);
+            return writes;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot recover catalog write-ahead log in " + directory, e);
+        }
+    }
+
+    synchronized void append(CatalogWrite write) {
+        byte[] payload = encode(write);
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        ByteBuffer record = ByteBuffer.allocate(Integer.BYTES * 2 + payload.length)
+                .putInt(payload.length)
+                .putInt((int) crc.getValue())
+                .put(payload)
+                .flip();
+        try {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to catalog write-ahead log", e);
+        }
+    }
+
+    /**
+     * Đóng segment hiện tại và mở segment mới
+     *
+     * @return số của segment vừa đóng: mọi thay đổi đã append tới giờ nằm trong segment <= số này
+     */
+    synchronized long rotate() {
+        long closed = segment;
+        try {
+            channel.close();
+            openSegment(closed + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot rotate catalog write-ahead log", e);
+        }
+        return closed;
+    }
+
+    /**
+     * Xóa các segment <= lastSegment (thay đổi trong đó đã nằm trong database)
+     */
+    synchronized void deleteThrough(long lastSegment) {
+        try {
+            for (long existing : segments()) {
+                if (existing <= lastSegment) {
+                    Files.deleteIfExists(path(existing));
+                }
+            }
+        } catch (IOException e) {
+            // Segment còn sót chỉ làm recovery đọc lại những thay đổi đã commit (ghi lại idempotent)
+            log.warn("Cannot delete catalog write-ahead log segments through {}", lastSegment, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private void openSegment(long number) throws IOException {
+        segment = number;
+        channel = FileChannel.open(path(number),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private List<Long> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> SEGMENT_NAME.matcher(file.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(matcher -> Long.parseLong(matcher.group(1)))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path path(long number) {
+        return directory.resolve(String.format("catalog-%020d.wal", number));
+    }
+
+    private static void readSegment(Path file, List<CatalogWrite> writes) throws IOException {
+        try (InputStream stream = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(stream))) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return;
+                }
+                try {
+                    if (length <= 0 || length > MAX_RECORD_LENGTH) {
+                        throw new IOException("invalid record length " + length);
+                    }
+                    int expectedCrc = in.readInt();
+                    byte[] payload = in.readNBytes(length);
+                    CRC32C crc = new CRC32C();
+                    crc.update(payload);
+                    if (payload.length != length || (int) crc.getValue() != expectedCrc) {
+                        throw new IOException("checksum mismatch");
+                    }
+                    writes.add(decode(payload));
+                } catch (IOException e) {
+                    log.warn("Ignoring torn tail of catalog write-ahead log {}: {}", file.getFileName(), e.getMessage());
+                    return;
+                }
+            }
+        }
+    }
+
+    private static byte[] encode(CatalogWrite write) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(write.isDelete() ? DELETE : UPSERT);
+            out.writeLong(write.id());
+            if (!write.isDelete()) {
+                CatalogProduct product = write.product();
+                out.writeUTF(product.name());
+                out.writeBoolean(product.description() != null);
+                if (product.description() != null) {
+                    out.writeUTF(product.description());
+                }
+                out.writeLong(product.priceCents());
+                out.writeInt(product.quantity());
+                out.writeUTF(product.category().name());
+                out.writeUTF(product.createdAt().toString());
+                out.writeUTF(product.updatedAt().toString());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static CatalogWrite decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte type = in.readByte();
+        long id = in.readLong();
+        if (type == DELETE) {
+            return CatalogWrite.delete(id);
+        }
+        if (type != UPSERT && type != UPSERT_DECIMAL) {
+            throw new IOException("unknown record type " + type);
+        }
+        String name = in.readUTF();
+        String description = in.readBoolean() ? in.readUTF() : null;
+        return CatalogWrite.upsert(new CatalogProduct(id, name, description,
+                type == UPSERT ? in.readLong() : PriceCents.of(new BigDecimal(in.readUTF())),
+                in.readInt(),
+                Category.valueOf(in.readUTF()),
+                LocalDateTime.parse(in.readUTF()),
+                LocalDateTime.parse(in.readUTF())));
+    }
+}
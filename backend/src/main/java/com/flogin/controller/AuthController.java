@@ -1,5 +1,6 @@
 package com.flogin.controller;
 
+import com.flogin.cache.IdempotencyStore;
 import com.flogin.dto.auth.LoginRequest;
 import com.flogin.dto.auth.RegisterRequest;
 import com.flogin.entity.auth.User;
@@ -17,7 +18,7 @@ import java.util.Map;
  * Authentication Controller
  * 
  * Endpoints:
- * - POST /api/auth/register - Đăng ký tài khoản mới
+ * - POST /api/auth/register - Đăng ký tài khoản mới (hỗ trợ header Idempotency-Key cho retry)
  * - POST /api/auth/login - Đăng nhập bằng username/password
  */
 @RestController
@@ -27,19 +28,24 @@ import java.util.Map;
 public class AuthController {
     
     private final AuthService authService;
+    private final IdempotencyStore idempotencyStore;
     
     @PostMapping("/register")
-    public ResponseEntity<Map<String, Object>> register(@Valid @RequestBody RegisterRequest request) {
-        User user = authService.register(request);
-        
-        Map<String, Object> response = new HashMap<>();
-        response.put("message", "User registered successfully");
-        response.put("userId", user.getId());
-        response.put("username", user.getUsername());
-        response.put("email", user.getEmail());
-        response.put("fullName", user.getFullName());
-        
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    public ResponseEntity<Map<String, Object>> register(
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody RegisterRequest request) {
+        return idempotencyStore.execute("auth:register", idempotencyKey, request, () -> {
+            User user = authService.register(request);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "User registered successfully");
+            response.put("userId", user.getId());
+            response.put("username", user.getUsername());
+            response.put("email", user.getEmail());
+            response.put("fullName", user.getFullName());
+            
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        });
     }
     
     @PostMapping("/login")
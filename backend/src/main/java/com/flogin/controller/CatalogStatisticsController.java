@@ -0,0 +1,27 @@
+package com.flogin.controller;
+
+import com.flogin.dto.product.CatalogStatistics;
+import com.flogin.service.product.CatalogStatisticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Catalog statistics cho dashboard - trả snapshot tính sẵn, không query database
+ */
+@RestController
+@RequestMapping("/api/products/stats")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class CatalogStatisticsController {
+
+    private final CatalogStatisticsService catalogStatisticsService;
+
+    @GetMapping
+    public ResponseEntity<CatalogStatistics> getStatistics() {
+        return ResponseEntity.ok(catalogStatisticsService.getStatistics());
+    }
+}
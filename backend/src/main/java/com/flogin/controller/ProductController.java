@@ -1,40 +1,268 @@
 package com.flogin.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flogin.cache.CompressedPayloadCache;
+import com.flogin.cache.IdempotencyStore;
+import com.flogin.cache.ProductJsonCache;
+import com.flogin.dto.product.CatalogVersion;
+import com.flogin.dto.product.ProductField;
+import com.flogin.dto.product.ProductFilter;
 import com.flogin.dto.product.ProductRequest;
 import com.flogin.dto.product.ProductResponse;
+import com.flogin.dto.product.ProductSuggestion;
+import com.flogin.jfr.SerializationEvent;
 import com.flogin.service.product.ProductService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
+/**
+ * Product Controller
+ * 
+ * GET endpoints hỗ trợ conditional request:
+ * - GET /api/products/{id}: ETag + Last-Modified từ updatedAt, honor If-None-Match / If-Modified-Since
+ * - GET /api/products: ETag từ catalog version (không gửi Last-Modified vì delete không làm tăng max(updatedAt))
+ * Version được đọc bằng query nhẹ trước, nên 304 không cần load entity / serialize body.
+ * 
+ * GET /api/products nhận thêm filter (category, minPrice, maxPrice, inStock, sort, direction);
+ * có filter thì query trực tiếp qua ProductService.filterProducts, không dùng ETag / payload cache.
+ * fields=id,name,price (sparse fieldset) chỉ trả các field đó; với database chỉ các cột đó được SELECT.
+ * GET /api/products/search?keyword=&limit= tìm qua index trong bộ nhớ (ProductSearchIndex).
+ * GET /api/products/autocomplete?prefix=&limit= gợi ý tên (radix trie với top-k giữ sẵn ở mỗi node).
+ * Danh sách không filter theo fieldset vẫn có ETag / payload cache riêng cho từng fieldset.
+ * 
+ * Danh sách sản phẩm được serialize một lần cho mỗi catalog version và lưu kèm bản gzip
+ * (CompressedPayloadCache); các request sau cùng version trả thẳng bytes đã nén.
+ * 
+ * GET /api/products/{id} giữ JSON đã serialize của từng sản phẩm theo updatedAt (ProductJsonCache):
+ * cache hit chỉ tốn lookup version, bytes được ghi thẳng ra response.
+ * 
+ * Ngoài JSON, request / response có thể dùng CBOR (application/cbor) hoặc Smile (application/x-jackson-smile)
+ * theo Content-Type / Accept (BinaryContentConfig). ETag và payload cache tách riêng cho từng encoding.
+ */
 @RestController
 @RequestMapping("/api/products")
 @RequiredArgsConstructor
 @CrossOrigin(origins = "*")
 public class ProductController {
     
+    private static final String CATALOG_PAYLOAD_KEY = "products:all";
+    
     private final ProductService productService;
+    private final CompressedPayloadCache payloadCache;
+    private final IdempotencyStore idempotencyStore;
+    private final ProductJsonCache productJsonCache;
+    private final ProductEncodings productEncodings;
+    private final ObjectMapper objectMapper;
     
     @GetMapping
-    public ResponseEntity<List<ProductResponse>> getAllProducts() {
-        List<ProductResponse> products = productService.getAllProducts();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<?> getAllProducts(
+            ProductFilter filter,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding)
+            throws JsonProcessingException {
+        Set<ProductField> selected = ProductField.parse(fields);
+        if (!filter.isEmpty()) {
+            return ResponseEntity.ok(selected == null
+                    ? productService.filterProducts(filter)
+                    : productService.findProductFields(filter, selected));
+        }
+        
+        Optional<CatalogVersion> version = productService.getCatalogVersion();
+        if (version.isEmpty()) {
+            return ResponseEntity.ok(selected == null
+                    ? productService.getAllProducts()
+                    : productService.findProductFields(filter, selected));
+        }
+        
+        ProductEncodings.Encoding encoding = productEncodings.negotiate(accept);
+        varyByAccept(webRequest);
+        String etag = encoding.etag(ProductETags.forCatalog(version.get(), selected));
+        ResponseEntity<byte[]> notModified = notModified(webRequest, etag);
+        if (notModified != null) {
+            return notModified;
+        }
+        
+        String payloadKey = CATALOG_PAYLOAD_KEY
+                + (encoding.isJson() ? "" : ":" + encoding.name())
+                + (selected == null ? "" : ":fields=" + ProductField.mask(selected));
+        CompressedPayloadCache.Payload payload = payloadCache.get(payloadKey, etag);
+        if (payload == null) {
+            List<?> products = selected == null
+                    ? productService.getAllProducts()
+                    : productService.findProductFields(filter, selected);
+            byte[] body;
+            try (SerializationEvent event = SerializationEvent.start(products.getClass())) {
+                body = encoding.write(products);
+            }
+            payload = payloadCache.put(payloadKey, etag, body);
+        }
+        return payloadResponse(payload, encoding.mediaType(), acceptEncoding);
+    }
+    
+    /**
+     * Tìm theo tên / mô tả (prefix, không phân biệt hoa thường / dấu), tối đa limit kết quả xếp hạng
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductResponse>> searchProducts(
+            @RequestParam(required = false) String keyword,
+            @RequestParam(defaultValue = "" + ProductService.DEFAULT_SEARCH_LIMIT) int limit) {
+        return ResponseEntity.ok(productService.searchProducts(keyword, limit));
+    }
+    
+    /**
+     * Gợi ý tên sản phẩm theo prefix (typeahead), tối đa limit gợi ý
+     */
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<ProductSuggestion>> autocomplete(
+            @RequestParam(required = false) String prefix,
+            @RequestParam(defaultValue = "" + ProductService.DEFAULT_SUGGEST_LIMIT) int limit) {
+        return ResponseEntity.ok(productService.suggestProductNames(prefix, limit));
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<ProductResponse> getProductById(@PathVariable Long id) {
+    public ResponseEntity<?> getProductById(
+            @PathVariable Long id,
+            WebRequest webRequest,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept)
+            throws JsonProcessingException {
+        ProductEncodings.Encoding encoding = productEncodings.negotiate(accept);
+        varyByAccept(webRequest);
+        Optional<LocalDateTime> version = productService.getProductVersion(id);
+        if (version.isPresent() && webRequest.checkNotModified(
+                encoding.etag(ProductETags.forProduct(id, version.get())), ProductETags.toEpochMillis(version.get()))) {
+            return null; // 304 Not Modified đã được set
+        }
+        
+        byte[] json = encoding.isJson()
+                ? version.map(updatedAt -> productJsonCache.get(id, updatedAt)).orElse(null)
+                : null;
+        if (json != null) {
+            return productJsonResponse(id, version.get(), json);
+        }
+        
         ProductResponse product = productService.getProductById(id);
-        return ResponseEntity.ok(product);
+        if (product.getUpdatedAt() == null) {
+            return ResponseEntity.ok(product);
+        }
+        if (!encoding.isJson()) {
+            // CBOR / Smile: HttpMessageConverter serialize theo Accept, không cache bytes
+            return ResponseEntity.ok()
+                    .eTag(encoding.etag(ProductETags.forProduct(id, product.getUpdatedAt())))
+                    .lastModified(ProductETags.toEpochMillis(product.getUpdatedAt()))
+                    .body(product);
+        }
+        try (SerializationEvent event = SerializationEvent.start(ProductResponse.class)) {
+            json = objectMapper.writeValueAsBytes(product);
+        }
+        productJsonCache.put(id, product.getUpdatedAt(), json);
+        return productJsonResponse(id, product.getUpdatedAt(), json);
+    }
+    
+    /**
+     * JSON đã serialize của một sản phẩm kèm ETag / Last-Modified; ByteArrayHttpMessageConverter
+     * chép thẳng bytes ra output stream của response
+     */
+    private static ResponseEntity<byte[]> productJsonResponse(Long id, LocalDateTime updatedAt, byte[] json) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(ProductETags.forProduct(id, updatedAt))
+                .lastModified(ProductETags.toEpochMillis(updatedAt))
+                .body(json);
     }
     
+    /**
+     * Vary: Accept cho response chọn encoding theo Accept, gồm cả 304 (checkNotModified trả trước khi
+     * có ResponseEntity). Ghi thẳng vào servlet response để không gộp với Vary của ResponseEntity.
+     */
+    private static void varyByAccept(WebRequest webRequest) {
+        HttpServletResponse response = ((NativeWebRequest) webRequest).getNativeResponse(HttpServletResponse.class);
+        if (response != null) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+    }
+    
+    /**
+     * 304 nếu If-None-Match khớp ETag của bản gốc hoặc của bản gzip (mỗi bản có strong ETag riêng), ngược lại null.
+     * Không dùng WebRequest.checkNotModified ở đây: nó ghi sẵn ETag của bản gốc vào response, trong khi
+     * ETag thật chỉ biết sau khi chọn bản gửi đi.
+     */
+    private static ResponseEntity<byte[]> notModified(WebRequest webRequest, String etag) {
+        String ifNoneMatch = webRequest.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch == null) {
+            return null;
+        }
+        String gzipEtag = ProductETags.forGzip(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            // If-None-Match dùng weak comparison
+            String tag = candidate.trim().startsWith("W/") ? candidate.trim().substring(2) : candidate.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals(gzipEtag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(tag.equals(gzipEtag) ? gzipEtag : etag)
+                        .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                        .build();
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Trả payload đã serialize: bản gzip nếu client chấp nhận và payload đủ lớn, ngược lại bản gốc.
+     * Tomcat không nén lại response đã có Content-Encoding.
+     */
+    private static ResponseEntity<byte[]> payloadResponse(CompressedPayloadCache.Payload payload, MediaType contentType,
+                                                          String acceptEncoding) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (payload.hasGzip() && acceptsGzip(acceptEncoding)) {
+            return response.eTag(ProductETags.forGzip(payload.etag()))
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(payload.gzip());
+        }
+        return response.eTag(payload.etag()).body(payload.identity());
+    }
+    
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase("gzip") || name.equals("*")) {
+                return parts.length == 1 || !parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Idempotency-Key (tùy chọn): retry cùng key + cùng body trả lại sản phẩm đã tạo, không tạo bản ghi mới
+     */
     @PostMapping
-    public ResponseEntity<ProductResponse> createProduct(@Valid @RequestBody ProductRequest request) {
-        ProductResponse product = productService.createProduct(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(product);
+    public ResponseEntity<ProductResponse> createProduct(
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody ProductRequest request) {
+        return idempotencyStore.execute("products:create", idempotencyKey, request, () -> {
+            ProductResponse product = productService.createProduct(request);
+            return ResponseEntity.status(HttpStatus.CREATED).body(product);
+        });
     }
     
     @PutMapping("/{id}")
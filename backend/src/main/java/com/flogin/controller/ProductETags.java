@@ -0,0 +1,50 @@
+package com.flogin.controller;
+
+import com.flogin.dto.product.CatalogVersion;
+import com.flogin.dto.product.ProductField;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Set;
+
+/**
+ * Tạo strong ETag / Last-Modified cho product resources từ updatedAt.
+ *
+ * updatedAt được ghi bằng LocalDateTime.now() (giờ hệ thống) nên quy đổi sang epoch theo
+ * ZoneId.systemDefault(). ETag dùng độ chính xác micro giây (độ chính xác của cột timestamp).
+ */
+final class ProductETags {
+
+    private ProductETags() {
+    }
+
+    static String forProduct(Long id, LocalDateTime updatedAt) {
+        return "\"p" + id + "-" + Long.toHexString(toEpochMicros(updatedAt)) + "\"";
+    }
+
+    /**
+     * @param fields sparse fieldset (null = mọi field): mỗi fieldset là một representation riêng
+     */
+    static String forCatalog(CatalogVersion version, Set<ProductField> fields) {
+        return "\"c" + version.count() + "-" + Long.toHexString(toEpochMicros(version.lastModified()))
+                + (fields == null ? "" : "-f" + Integer.toHexString(ProductField.mask(fields))) + "\"";
+    }
+
+    /**
+     * ETag của bản gzip (Content-Encoding: gzip) của cùng representation: strong ETag phải khác theo từng
+     * content coding vì byte gửi đi khác nhau
+     */
+    static String forGzip(String etag) {
+        return etag.substring(0, etag.length() - 1) + "-gzip\"";
+    }
+
+    static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static long toEpochMicros(LocalDateTime dateTime) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, dateTime.atZone(ZoneId.systemDefault()).toInstant());
+    }
+}
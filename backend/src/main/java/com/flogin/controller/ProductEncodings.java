@@ -0,0 +1,96 @@
+package com.flogin.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Encoding của response sản phẩm theo header Accept: JSON (mặc định), CBOR, Smile (BinaryContentConfig).
+ *
+ * Chỉ cần cho các response mà ProductController tự serialize (payload cache, ETag theo encoding);
+ * response dạng object đã được HttpMessageConverter chọn theo Accept.
+ * Chọn encoding có q-value cao nhất (theo media range cụ thể nhất khớp với nó), hòa thì ưu tiên JSON.
+ */
+@Component
+public class ProductEncodings {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    private final Encoding json;
+    private final List<Encoding> encodings;
+
+    public ProductEncodings(ObjectMapper objectMapper,
+                            MappingJackson2CborHttpMessageConverter cborConverter,
+                            MappingJackson2SmileHttpMessageConverter smileConverter) {
+        this.json = new Encoding("json", MediaType.APPLICATION_JSON, objectMapper);
+        this.encodings = List.of(json,
+                new Encoding("cbor", MediaType.APPLICATION_CBOR, cborConverter.getObjectMapper()),
+                new Encoding("smile", APPLICATION_SMILE, smileConverter.getObjectMapper()));
+    }
+
+    /**
+     * Encoding cho header Accept (null / không parse được / không khớp encoding nào -> JSON)
+     */
+    public Encoding negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return json;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return json;
+        }
+        Encoding best = json;
+        double bestQuality = 0;
+        for (Encoding encoding : encodings) {
+            double quality = quality(encoding.mediaType(), accepted);
+            if (quality > bestQuality) {
+                best = encoding;
+                bestQuality = quality;
+            }
+        }
+        return best;
+    }
+
+    private static double quality(MediaType mediaType, List<MediaType> accepted) {
+        MediaType match = null;
+        for (MediaType range : accepted) {
+            if (range.includes(mediaType) && (match == null || specificity(range) > specificity(match))) {
+                match = range;
+            }
+        }
+        return match != null ? match.getQualityValue() : 0;
+    }
+
+    private static int specificity(MediaType range) {
+        return range.isWildcardType() ? 0 : range.isWildcardSubtype() ? 1 : 2;
+    }
+
+    /**
+     * @param name hậu tố của ETag / key payload cache (JSON giữ nguyên ETag không hậu tố)
+     */
+    public record Encoding(String name, MediaType mediaType, ObjectMapper mapper) {
+
+        public boolean isJson() {
+            return MediaType.APPLICATION_JSON.equals(mediaType);
+        }
+
+        /**
+         * Strong ETag khác nhau cho mỗi encoding của cùng một version
+         */
+        public String etag(String jsonEtag) {
+            return isJson() ? jsonEtag : jsonEtag.substring(0, jsonEtag.length() - 1) + "-" + name + "\"";
+        }
+
+        public byte[] write(Object value) throws JsonProcessingException {
+            return mapper.writeValueAsBytes(value);
+        }
+    }
+}
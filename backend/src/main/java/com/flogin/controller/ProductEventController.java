@@ -0,0 +1,33 @@
+package com.flogin.controller;
+
+import com.flogin.service.product.ProductEventBroadcaster;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Server-Sent Events feed thay đổi sản phẩm
+ *
+ * Endpoint:
+ * - GET /api/products/events - stream event created / updated / deleted (data là ProductChangeEvent)
+ *
+ * Resume: EventSource tự gửi header Last-Event-ID khi reconnect; client khác có thể dùng ?lastEventId=.
+ * Id có dạng "<epoch>-<số thứ tự>" (epoch đổi mỗi lần server khởi động).
+ * Event "reset" nghĩa là không thể resume - client nên tải lại GET /api/products.
+ */
+@RestController
+@RequestMapping("/api/products/events")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class ProductEventController {
+
+    private final ProductEventBroadcaster productEventBroadcaster;
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamProductEvents(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @RequestParam(value = "lastEventId", required = false) String lastEventIdParam) {
+        return productEventBroadcaster.subscribe(lastEventIdHeader != null ? lastEventIdHeader : lastEventIdParam);
+    }
+}
@@ -0,0 +1,67 @@
+package com.flogin.controller;
+
+import com.flogin.dto.product.ProductResponse;
+import com.flogin.service.product.ReactiveProductService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Reactive (read-only) Product API
+ *
+ * Endpoints:
+ * - GET /api/reactive/products - Danh sách sản phẩm
+ * - GET /api/reactive/products/{id} - Lấy sản phẩm theo ID
+ * - GET /api/reactive/products/search?keyword= - Tìm theo tên
+ *
+ * Search ở đây khác GET /api/products/search (ProductSearchIndex): so khớp chuỗi con của tên
+ * (LIKE không phân biệt hoa thường nhưng không bỏ dấu, không tách token, theo id thay vì xếp hạng, không giới hạn số kết quả, keyword rỗng trả về
+ * tất cả) đọc thẳng từ database qua R2DBC - dùng để stream toàn bộ tập khớp, không phải cho tìm kiếm của
+ * người dùng. Với CATALOG_MODE=memory database đi sau catalog một flush.
+ *
+ * Accept: application/json (mặc định) trả về một JSON array như ProductController.
+ * Accept: application/x-ndjson stream từng phần tử theo tốc độ client đọc
+ * (backpressure tới tận cursor R2DBC) - dùng cho tập kết quả lớn.
+ */
+@RestController
+@RequestMapping("/api/reactive/products")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class ReactiveProductController {
+
+    /**
+     * Số phần tử request trước từ upstream mỗi lần khi stream
+     */
+    private static final int STREAM_PREFETCH = 64;
+
+    private final ReactiveProductService reactiveProductService;
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<List<ProductResponse>> getAllProducts() {
+        return reactiveProductService.getAllProducts().collectList();
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ProductResponse> streamAllProducts() {
+        return reactiveProductService.getAllProducts().limitRate(STREAM_PREFETCH);
+    }
+
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ProductResponse> getProductById(@PathVariable Long id) {
+        return reactiveProductService.getProductById(id);
+    }
+
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<List<ProductResponse>> searchProducts(@RequestParam(required = false) String keyword) {
+        return reactiveProductService.searchProducts(keyword).collectList();
+    }
+
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ProductResponse> streamSearchProducts(@RequestParam(required = false) String keyword) {
+        return reactiveProductService.searchProducts(keyword).limitRate(STREAM_PREFETCH);
+    }
+}
@@ -0,0 +1,10 @@
+package com.flogin.dto.product;
+
+import java.util.List;
+
+/**
+ * GROUP BY category của InMemoryProductCatalog cùng số thứ tự ghi cuối cùng đã nằm trong kết quả
+ * (ProductChangeEvent.sequence nhỏ hơn hoặc bằng sequence đã được tính)
+ */
+public record CatalogAggregates(List<CategoryAggregate> categories, long sequence) {
+}
@@ -0,0 +1,21 @@
+package com.flogin.dto.product;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Thống kê catalog cho dashboard: tổng và theo từng category.
+ *
+ * reconciledAt: lần cuối các bộ đếm được đối chiếu với database (null nếu chưa đối chiếu).
+ */
+public record CatalogStatistics(
+        long totalProducts,
+        long totalUnits,
+        BigDecimal totalStockValue,
+        Map<String, CategoryStatistics> categories,
+        Instant reconciledAt) {
+
+    public record CategoryStatistics(long count, long units, BigDecimal stockValue) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.flogin.dto.product;
+
+import java.time.LocalDateTime;
+
+/**
+ * Version của catalog sản phẩm: thay đổi khi có create (count, lastModified),
+ * update (lastModified) hoặc delete (count).
+ */
+public record CatalogVersion(long count, LocalDateTime lastModified) {
+}
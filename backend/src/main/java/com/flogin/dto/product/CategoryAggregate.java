@@ -0,0 +1,11 @@
+package com.flogin.dto.product;
+
+import com.flogin.entity.product.Category;
+
+import java.math.BigDecimal;
+
+/**
+ * Một dòng của GROUP BY category: số sản phẩm, tổng số lượng tồn kho, tổng giá trị tồn kho
+ */
+public record CategoryAggregate(Category category, long count, long units, BigDecimal stockValue) {
+}
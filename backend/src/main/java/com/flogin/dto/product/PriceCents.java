@@ -0,0 +1,54 @@
+package com.flogin.dto.product;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Giá dưới dạng long (đơn vị cent, scale 2 như cột NUMERIC(12,2)) cho đường xử lý nóng:
+ * validation, so sánh, cộng dồn tồn kho không tạo BigDecimal mới.
+ * BigDecimal chỉ dùng ở biên JSON / database.
+ */
+public final class PriceCents {
+
+    public static final int SCALE = 2;
+
+    // long giữ được tối đa 18 chữ số thập phân
+    private static final int MAX_PRECISION = 18;
+
+    private PriceCents() {
+    }
+
+    /**
+     * Làm tròn HALF_UP về scale 2 (giống khi database lưu vào NUMERIC(12,2)).
+     * Giá trị vượt quá phạm vi long được chặn về Long.MAX_VALUE / Long.MIN_VALUE
+     * (luôn ngoài mọi giới hạn hợp lệ).
+     */
+    public static long of(BigDecimal price) {
+        return toLong(price.setScale(SCALE, RoundingMode.HALF_UP));
+    }
+
+    /**
+     * Số cent nhỏ nhất >= price (cận dưới của khoảng giá)
+     */
+    public static long ceil(BigDecimal price) {
+        return toLong(price.setScale(SCALE, RoundingMode.CEILING));
+    }
+
+    /**
+     * Số cent lớn nhất <= price (cận trên của khoảng giá)
+     */
+    public static long floor(BigDecimal price) {
+        return toLong(price.setScale(SCALE, RoundingMode.FLOOR));
+    }
+
+    public static BigDecimal toPrice(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    private static long toLong(BigDecimal scaled) {
+        if (scaled.precision() > MAX_PRECISION) {
+            return scaled.signum() > 0 ? Long.MAX_VALUE : Long.MIN_VALUE;
+        }
+        return scaled.movePointRight(SCALE).longValue();
+    }
+}
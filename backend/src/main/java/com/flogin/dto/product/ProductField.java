@@ -0,0 +1,91 @@
+package com.flogin.dto.product;
+
+import com.flogin.exception.BadRequestException;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Field của ProductResponse chọn được qua ?fields= (sparse fieldset) ở GET /api/products.
+ *
+ * Tên JSON trùng tên thuộc tính của entity Product nên dùng thẳng trong query projection
+ * (ProductProjectionRepository). Thứ tự enum là thứ tự field trong JSON, giống ProductResponse.
+ */
+public enum ProductField {
+
+    ID("id", ProductResponse::getId),
+    NAME("name", ProductResponse::getName),
+    DESCRIPTION("description", ProductResponse::getDescription),
+    PRICE("price", ProductResponse::getPrice),
+    QUANTITY("quantity", ProductResponse::getQuantity),
+    CATEGORY("category", ProductResponse::getCategory),
+    CREATED_AT("createdAt", ProductResponse::getCreatedAt),
+    UPDATED_AT("updatedAt", ProductResponse::getUpdatedAt);
+
+    private static final String VALID_VALUES = Arrays.stream(values())
+            .map(ProductField::property)
+            .collect(Collectors.joining(", "));
+
+    private final String property;
+    private final Function<ProductResponse, Object> accessor;
+
+    ProductField(String property, Function<ProductResponse, Object> accessor) {
+        this.property = property;
+        this.accessor = accessor;
+    }
+
+    public String property() {
+        return property;
+    }
+
+    /**
+     * Parse "id,name,price" (không phân biệt thứ tự, bỏ qua khoảng trắng / trùng lặp).
+     *
+     * @return null khi không có fields (trả đủ mọi field)
+     */
+    public static Set<ProductField> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<ProductField> selected = EnumSet.noneOf(ProductField.class);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            selected.add(Arrays.stream(values())
+                    .filter(field -> field.property.equals(trimmed))
+                    .findFirst()
+                    .orElseThrow(() -> new BadRequestException("Invalid field: " + trimmed
+                            + ". Valid values are: " + VALID_VALUES)));
+        }
+        return selected.isEmpty() ? null : selected;
+    }
+
+    /**
+     * Bitmask của fieldset (theo ordinal) - định danh ngắn cho ETag / payload cache
+     */
+    public static int mask(Set<ProductField> fields) {
+        int mask = 0;
+        for (ProductField field : fields) {
+            mask |= 1 << field.ordinal();
+        }
+        return mask;
+    }
+
+    /**
+     * Chỉ giữ các field được chọn, theo thứ tự của ProductResponse
+     */
+    public static Map<String, Object> project(ProductResponse product, Set<ProductField> fields) {
+        Map<String, Object> projected = new LinkedHashMap<>();
+        for (ProductField field : fields) {
+            projected.put(field.property, field.accessor.apply(product));
+        }
+        return projected;
+    }
+}
@@ -0,0 +1,36 @@
+package com.flogin.dto.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Bộ lọc / sắp xếp cho GET /api/products (query parameters, tất cả optional)
+ *
+ * - category: một trong các Category
+ * - minPrice / maxPrice: khoảng giá (bao gồm hai đầu)
+ * - inStock: true = quantity > 0, false = hết hàng
+ * - sort: price | createdAt (mặc định theo id), direction: asc | desc (mặc định asc)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFilter {
+
+    private String category;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private Boolean inStock;
+    private String sort;
+    private String direction;
+
+    /**
+     * Không có tiêu chí nào -> dùng đường đi danh sách đầy đủ (ETag + payload cache)
+     */
+    public boolean isEmpty() {
+        return category == null && minPrice == null && maxPrice == null && inStock == null
+                && sort == null && direction == null;
+    }
+}
@@ -0,0 +1,7 @@
+package com.flogin.dto.product;
+
+/**
+ * Một gợi ý autocomplete: id và tên sản phẩm
+ */
+public record ProductSuggestion(long id, String name) {
+}
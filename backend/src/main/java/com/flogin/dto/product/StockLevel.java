@@ -0,0 +1,36 @@
+package com.flogin.dto.product;
+
+import com.flogin.entity.product.Category;
+import com.flogin.entity.product.Product;
+
+import java.math.BigDecimal;
+
+/**
+ * Phần trạng thái của sản phẩm ảnh hưởng tới catalog statistics: category, giá (cent), số lượng
+ */
+public record StockLevel(Category category, long priceCents, int quantity) {
+
+    public StockLevel(Category category, BigDecimal price, int quantity) {
+        this(category, PriceCents.of(price), quantity);
+    }
+
+    public static StockLevel of(Product product) {
+        return new StockLevel(product.getCategory(), product.getPrice(), product.getQuantity());
+    }
+
+    public static StockLevel of(ProductResponse product) {
+        return new StockLevel(Category.fromString(product.getCategory()), product.getPrice(), product.getQuantity());
+    }
+
+    public BigDecimal price() {
+        return PriceCents.toPrice(priceCents);
+    }
+
+    public long stockValueCents() {
+        return priceCents * quantity;
+    }
+
+    public BigDecimal stockValue() {
+        return PriceCents.toPrice(stockValueCents());
+    }
+}
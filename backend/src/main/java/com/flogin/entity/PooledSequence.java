@@ -0,0 +1,25 @@
+package com.flogin.entity;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Id lấy từ database sequence với pooled optimizer (PooledSequenceGenerator).
+ *
+ * Allocation size không cố định trong annotation mà đọc từ setting flogin.id.allocation-size
+ * của persistence unit; INCREMENT BY của sequence trong database phải bằng giá trị này.
+ */
+@IdGeneratorType(PooledSequenceGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface PooledSequence {
+
+    /**
+     * Tên sequence trong database
+     */
+    String name();
+}
@@ -0,0 +1,44 @@
+package com.flogin.entity;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.lang.reflect.Member;
+import java.util.Properties;
+
+/**
+ * SequenceStyleGenerator với pooled optimizer: mỗi lần gọi sequence cấp trước allocation-size id,
+ * nên persist không cần round-trip tới database và INSERT được gom thành JDBC batch
+ * (khác với IDENTITY, vốn buộc INSERT ngay trong save() để lấy id).
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+    /**
+     * Setting của persistence unit (AuthDataSourceConfig / ProductDataSourceConfig)
+     */
+    public static final String ALLOCATION_SIZE_SETTING = "flogin.id.allocation-size";
+
+    static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    private final String sequenceName;
+
+    public PooledSequenceGenerator(PooledSequence config, Member member, CustomIdGeneratorCreationContext context) {
+        this.sequenceName = config.name();
+    }
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        Object allocationSize = serviceRegistry.requireService(ConfigurationService.class)
+                .getSettings()
+                .getOrDefault(ALLOCATION_SIZE_SETTING, DEFAULT_ALLOCATION_SIZE);
+        parameters.put(SEQUENCE_PARAM, sequenceName);
+        parameters.put(INCREMENT_PARAM, allocationSize.toString());
+        parameters.put(OPT_PARAM, StandardOptimizerDescriptor.POOLED.getExternalName());
+        super.configure(type, parameters, serviceRegistry);
+    }
+}
@@ -1,5 +1,6 @@
 package com.flogin.entity.auth;
 
+import com.flogin.entity.PooledSequence;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -14,7 +15,7 @@ import java.time.LocalDateTime;
 public class User {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence(name = "users_seq")
     private Long id;
     
     /**
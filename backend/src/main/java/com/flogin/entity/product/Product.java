@@ -1,5 +1,6 @@
 package com.flogin.entity.product;
 
+import com.flogin.entity.PooledSequence;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -8,14 +9,22 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+    // Lọc theo category + khoảng giá / sắp xếp theo giá
+    @Index(name = "idx_products_category_price", columnList = "category, price"),
+    // Lọc theo category + sắp xếp theo ngày tạo
+    @Index(name = "idx_products_category_created_at", columnList = "category, created_at"),
+    // Khoảng giá / sắp xếp không kèm category
+    @Index(name = "idx_products_price", columnList = "price"),
+    @Index(name = "idx_products_created_at", columnList = "created_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Product {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence(name = "products_seq")
     private Long id;
     
     @Column(nullable = false, length = 100)
@@ -0,0 +1,63 @@
+package com.flogin.entity.product;
+
+import com.flogin.event.ProductChangeEvent;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.Instant;
+
+/**
+ * Một dòng của transactional outbox: ProductChangeEvent được ghi cùng transaction với thay đổi sản phẩm
+ * (ProductOutbox.append) và được phát lại sau khi commit
+ */
+@Entity
+@Table(name = "product_outbox", indexes = {
+    // Purge theo retention
+    @Index(name = "idx_product_outbox_created_at", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductOutboxEvent {
+    
+    /**
+     * IDENTITY thay vì PooledSequence: mỗi insert lấy một giá trị từ database nên id tăng theo thứ tự ghi
+     * trên mọi instance (block id cấp sẵn cho từng instance sẽ phá thứ tự mà relay dựa vào)
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 10)
+    private ProductChangeEvent.Type eventType;
+    
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+    
+    /**
+     * ProductResponse sau thay đổi dạng JSON (null với DELETED)
+     */
+    @Column(length = 4000)
+    private String payload;
+    
+    /**
+     * StockLevel trước thay đổi (UPDATED, DELETED)
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "previous_category", length = 20)
+    private Category previousCategory;
+    
+    @Column(name = "previous_price_cents")
+    private Long previousPriceCents;
+    
+    @Column(name = "previous_quantity")
+    private Integer previousQuantity;
+    
+    @Column(length = 100)
+    private String actor;
+    
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,28 @@
+package com.flogin.entity.product;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.Instant;
+
+/**
+ * Id outbox cuối cùng đã được phát lại bởi một consumer (instance)
+ */
+@Entity
+@Table(name = "product_outbox_offsets")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductOutboxOffset {
+    
+    @Id
+    @Column(length = 100)
+    private String consumer;
+    
+    @Column(name = "last_id", nullable = false)
+    private Long lastId;
+    
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
@@ -0,0 +1,34 @@
+package com.flogin.event;
+
+import java.time.Instant;
+
+/**
+ * Event được AuthService publish khi đăng ký thành công và khi đăng nhập thành công / thất bại.
+ *
+ * Chỉ mang username - không bao giờ chứa password hay thông tin nhạy cảm khác.
+ * LOGIN_FAILED chỉ dành cho sai username / password (lỗi định dạng input không tính).
+ */
+public record AuthEvent(Type type, String username, Instant occurredAt) {
+
+    public enum Type {
+        REGISTERED,
+        LOGIN_SUCCEEDED,
+        LOGIN_FAILED
+    }
+
+    public static AuthEvent registered(String username) {
+        return new AuthEvent(Type.REGISTERED, username, Instant.now());
+    }
+
+    public static AuthEvent loginSucceeded(String username) {
+        return new AuthEvent(Type.LOGIN_SUCCEEDED, username, Instant.now());
+    }
+
+    public static AuthEvent loginFailed(String username) {
+        return new AuthEvent(Type.LOGIN_FAILED, username, Instant.now());
+    }
+
+    public boolean failed() {
+        return type == Type.LOGIN_FAILED;
+    }
+}
@@ -0,0 +1,51 @@
+package com.flogin.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.flogin.dto.product.ProductResponse;
+import com.flogin.dto.product.StockLevel;
+
+import java.time.Instant;
+
+/**
+ * Event được ProductService publish sau mỗi create/update/delete.
+ *
+ * product là trạng thái sau thay đổi (null với DELETED).
+ * previous là category / giá / số lượng trước thay đổi (UPDATED, DELETED) - chỉ dùng nội bộ
+ * (catalog statistics), không gửi ra SSE.
+ * actor là người dùng đã thực hiện thay đổi, được ProductOutbox ghi lại khi event được phát lại
+ * trên thread khác (null: lấy từ security context hiện tại) - không gửi ra SSE.
+ * sequence là vị trí của thay đổi trong luồng thay đổi: id outbox (catalog mode database) hoặc số thứ tự ghi
+ * của InMemoryProductCatalog (catalog mode memory), để listener biết thay đổi đã nằm trong một snapshot
+ * đọc trước đó hay chưa (null: không biết) - không gửi ra SSE.
+ */
+public record ProductChangeEvent(
+        Type type,
+        Long productId,
+        ProductResponse product,
+        @JsonIgnore StockLevel previous,
+        Instant occurredAt,
+        @JsonIgnore String actor,
+        @JsonIgnore Long sequence) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public static ProductChangeEvent created(ProductResponse product) {
+        return new ProductChangeEvent(Type.CREATED, product.getId(), product, null, Instant.now(), null, null);
+    }
+
+    public static ProductChangeEvent updated(ProductResponse product, StockLevel previous) {
+        return new ProductChangeEvent(Type.UPDATED, product.getId(), product, previous, Instant.now(), null, null);
+    }
+
+    public static ProductChangeEvent deleted(Long productId, StockLevel previous) {
+        return new ProductChangeEvent(Type.DELETED, productId, null, previous, Instant.now(), null, null);
+    }
+
+    public ProductChangeEvent withSequence(long sequence) {
+        return new ProductChangeEvent(type, productId, product, previous, occurredAt, actor, sequence);
+    }
+}
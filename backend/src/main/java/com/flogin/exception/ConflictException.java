@@ -0,0 +1,7 @@
+package com.flogin.exception;
+
+public class ConflictException extends RuntimeException {
+    public ConflictException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
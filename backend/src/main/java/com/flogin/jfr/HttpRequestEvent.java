@@ -0,0 +1,28 @@
+package com.flogin.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event cho toàn bộ một HTTP request (JfrRequestFilter)
+ */
+@Name("com.flogin.HttpRequest")
+@Label("Flogin HTTP Request")
+@Description("Duration of an HTTP request handled by the servlet stack")
+@Category("Flogin")
+@StackTrace(false)
+public class HttpRequestEvent extends Event {
+
+    @Label("Method")
+    String method;
+
+    @Label("URI")
+    String uri;
+
+    @Label("Status")
+    int status;
+}
@@ -0,0 +1,41 @@
+package com.flogin.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event cho một statement JDBC (QueryStatisticsListener); sql là fingerprint đã redact literal
+ */
+@Name("com.flogin.JdbcQuery")
+@Label("Flogin JDBC Query")
+@Description("Duration of a JDBC statement execution")
+@Category("Flogin")
+@StackTrace(false)
+public class JdbcQueryEvent extends Event {
+
+    @Label("Datasource")
+    String datasource;
+
+    @Label("SQL")
+    String sql;
+
+    @Label("Success")
+    boolean success;
+
+    /**
+     * Kết thúc event; các field chỉ được gán khi event thực sự được ghi
+     */
+    public void finish(String datasource, String sql, boolean success) {
+        end();
+        if (shouldCommit()) {
+            this.datasource = datasource;
+            this.sql = sql;
+            this.success = success;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.flogin.jfr;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Jackson converter mặc định, bọc thêm SerializationEvent quanh việc ghi response body
+ */
+public class JfrMappingJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    public JfrMappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        try (SerializationEvent event = SerializationEvent.start(object.getClass())) {
+            super.writeInternal(object, type, outputMessage);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.flogin.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.util.unit.DataSize;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Điều khiển một JFR recording giới hạn (max-age / max-size) qua Actuator:
+ * - POST /actuator/jfr: bắt đầu recording (cấu hình "default" của JDK + các event com.flogin.*)
+ * - GET /actuator/jfr: dump dữ liệu hiện có ra file .jfr (mở bằng JDK Mission Control / jfr print);
+ *   mỗi request một file tạm riêng, bị xóa khi đã stream xong
+ * - DELETE /actuator/jfr: dừng recording
+ *
+ * Khi chưa start, các event com.flogin.* không được bật nên gần như không tốn gì.
+ */
+@Component
+@Endpoint(id = "jfr")
+public class JfrRecordingEndpoint implements DisposableBean {
+
+    private static final String RECORDING_NAME = "flogin-on-demand";
+
+    private final Duration maxAge;
+    private final DataSize maxSize;
+    private Recording recording;
+
+    public JfrRecordingEndpoint(
+            @Value("${app.jfr.max-age:10m}") Duration maxAge,
+            @Value("${app.jfr.max-size:100MB}") DataSize maxSize) {
+        this.maxAge = maxAge;
+        this.maxSize = maxSize;
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public synchronized WebEndpointResponse<Resource> dump() {
+        if (!isRunning()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        Path dumpFile = null;
+        try {
+            dumpFile = Files.createTempFile(RECORDING_NAME + "-", ".jfr");
+            dumpFile.toFile().deleteOnExit();
+            recording.dump(dumpFile);
+            return new WebEndpointResponse<>(new DumpResource(dumpFile));
+        } catch (IOException e) {
+            if (dumpFile != null) {
+                dumpFile.toFile().delete();
+            }
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @WriteOperation
+    public synchronized RecordingStatus start() {
+        if (!isRunning()) {
+            try {
+                recording = new Recording(Configuration.getConfiguration("default"));
+            } catch (IOException | ParseException e) {
+                throw new IllegalStateException("Cannot load JFR configuration 'default'", e);
+            }
+            recording.setName(RECORDING_NAME);
+            recording.setToDisk(true);
+            recording.setMaxAge(maxAge);
+            recording.setMaxSize(maxSize.toBytes());
+            recording.enable(HttpRequestEvent.class);
+            recording.enable(PhaseEvent.class);
+            recording.enable(SerializationEvent.class);
+            recording.enable(JdbcQueryEvent.class);
+            recording.start();
+        }
+        return status();
+    }
+
+    @DeleteOperation
+    public synchronized RecordingStatus stop() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+        return status();
+    }
+
+    @Override
+    public void destroy() {
+        stop();
+    }
+
+    private boolean isRunning() {
+        return recording != null && recording.getState() == RecordingState.RUNNING;
+    }
+
+    private RecordingStatus status() {
+        if (recording == null) {
+            return new RecordingStatus(false, null, maxAge, maxSize.toBytes());
+        }
+        return new RecordingStatus(isRunning(), recording.getStartTime(), maxAge, maxSize.toBytes());
+    }
+
+    /**
+     * File dump của một request: bị xóa khi stream đọc nó được đóng (response đã ghi xong)
+     */
+    static final class DumpResource extends FileSystemResource {
+
+        DumpResource(Path file) {
+            super(file);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return Files.newInputStream(getFile().toPath(), StandardOpenOption.DELETE_ON_CLOSE);
+        }
+    }
+
+    public record RecordingStatus(boolean running, Instant startedAt, Duration maxAge, long maxSizeBytes) {
+    }
+}
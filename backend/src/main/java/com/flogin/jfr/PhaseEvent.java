@@ -0,0 +1,44 @@
+package com.flogin.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event đo một phase bên trong service (validation, lookup, passwordMatches, mapping, repository).
+ *
+ * Dùng với try-with-resources:
+ * <pre>
+ * try (PhaseEvent phase = PhaseEvent.start("AuthService.login", "lookup")) { ... }
+ * </pre>
+ * Khi không có recording nào bật event này, commit() không làm gì và JIT loại bỏ luôn allocation.
+ */
+@Name("com.flogin.Phase")
+@Label("Flogin Phase")
+@Description("Duration of a phase inside a service call")
+@Category("Flogin")
+@StackTrace(false)
+public class PhaseEvent extends Event implements AutoCloseable {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Phase")
+    String phase;
+
+    public static PhaseEvent start(String operation, String phase) {
+        PhaseEvent event = new PhaseEvent();
+        event.operation = operation;
+        event.phase = phase;
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void close() {
+        commit();
+    }
+}
@@ -0,0 +1,36 @@
+package com.flogin.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event đo thời gian serialize JSON response body
+ */
+@Name("com.flogin.Serialization")
+@Label("Flogin JSON Serialization")
+@Description("Duration of writing a response body as JSON")
+@Category("Flogin")
+@StackTrace(false)
+public class SerializationEvent extends Event implements AutoCloseable {
+
+    @Label("Type")
+    String type;
+
+    public static SerializationEvent start(Class<?> type) {
+        SerializationEvent event = new SerializationEvent();
+        event.begin();
+        if (event.isEnabled()) {
+            event.type = type.getSimpleName();
+        }
+        return event;
+    }
+
+    @Override
+    public void close() {
+        commit();
+    }
+}
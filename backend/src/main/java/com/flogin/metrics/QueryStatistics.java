@@ -0,0 +1,120 @@
+package com.flogin.metrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thống kê query JDBC theo (datasource, fingerprint): số lần chạy, lỗi, tổng / max thời gian, số dòng.
+ *
+ * Số fingerprint được giới hạn (max-fingerprints) - vượt quá thì gom vào OVERFLOW_FINGERPRINT
+ * (một entry cho mỗi datasource) để SQL động không làm map tăng vô hạn.
+ */
+@Component
+public class QueryStatistics {
+
+    static final String OVERFLOW_FINGERPRINT = "<other>";
+
+    private final int maxFingerprints;
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    public QueryStatistics(@Value("${app.jdbc.statistics.max-fingerprints:1000}") int maxFingerprints) {
+        this.maxFingerprints = maxFingerprints;
+    }
+
+    public void recordExecution(String datasource, String fingerprint, long elapsedNanos, boolean success) {
+        Entry entry = entry(datasource, fingerprint);
+        entry.count.increment();
+        if (!success) {
+            entry.errors.increment();
+        }
+        entry.totalNanos.add(elapsedNanos);
+        entry.maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+    }
+
+    public void recordRows(String datasource, String fingerprint, long rows) {
+        entry(datasource, fingerprint).rows.add(rows);
+    }
+
+    /**
+     * Top N query, lọc theo datasource (null = tất cả)
+     */
+    public List<QueryStat> top(String datasource, Order order, int limit) {
+        return entries.entrySet().stream()
+                .filter(e -> datasource == null || e.getKey().datasource().equals(datasource))
+                .map(e -> e.getValue().snapshot(e.getKey()))
+                .sorted(order.comparator)
+                .limit(limit)
+                .toList();
+    }
+
+    public void reset() {
+        entries.clear();
+    }
+
+    private Entry entry(String datasource, String fingerprint) {
+        Key key = new Key(datasource, fingerprint);
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            return entry;
+        }
+        if (entries.size() >= maxFingerprints) {
+            key = new Key(datasource, OVERFLOW_FINGERPRINT);
+        }
+        return entries.computeIfAbsent(key, k -> new Entry());
+    }
+
+    public enum Order {
+        SLOWEST(Comparator.comparingDouble(QueryStat::maxMillis).reversed()),
+        MOST_FREQUENT(Comparator.comparingLong(QueryStat::count).reversed()),
+        TOTAL_TIME(Comparator.comparingDouble(QueryStat::totalMillis).reversed());
+
+        private final Comparator<QueryStat> comparator;
+
+        Order(Comparator<QueryStat> comparator) {
+            this.comparator = comparator;
+        }
+    }
+
+    public record QueryStat(
+            String datasource,
+            String fingerprint,
+            long count,
+            long errors,
+            double totalMillis,
+            double meanMillis,
+            double maxMillis,
+            long rows) {
+    }
+
+    private record Key(String datasource, String fingerprint) {
+    }
+
+    private static final class Entry {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final LongAdder rows = new LongAdder();
+
+        private QueryStat snapshot(Key key) {
+            long executions = count.sum();
+            double totalMillis = totalNanos.sum() / 1_000_000.0;
+            return new QueryStat(
+                    key.datasource(),
+                    key.fingerprint(),
+                    executions,
+                    errors.sum(),
+                    totalMillis,
+                    executions == 0 ? 0 : totalMillis / executions,
+                    maxNanos.get() / 1_000_000.0,
+                    rows.sum());
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.flogin.metrics;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Bọc authDataSource / productDataSource bằng datasource-proxy để QueryStatisticsListener
+ * thấy mọi statement JDBC của từng persistence unit (tên datasource = tiền tố của tên bean).
+ *
+ * Chạy sau khi Hikari đã bind cấu hình, nên pool và metrics hikaricp.* không bị ảnh hưởng.
+ */
+@Component
+public class QueryStatisticsDataSourcePostProcessor implements BeanPostProcessor {
+
+    private static final String BEAN_NAME_SUFFIX = "DataSource";
+
+    private final ObjectProvider<QueryStatistics> statistics;
+    private final boolean enabled;
+    private final long slowThresholdMillis;
+
+    public QueryStatisticsDataSourcePostProcessor(
+            ObjectProvider<QueryStatistics> statistics,
+            @Value("${app.jdbc.statistics.enabled:true}") boolean enabled,
+            @Value("${app.jdbc.slow-query.threshold-ms:200}") long slowThresholdMillis) {
+        this.statistics = statistics;
+        this.enabled = enabled;
+        this.slowThresholdMillis = slowThresholdMillis;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!enabled || !(bean instanceof DataSource dataSource) || !beanName.endsWith(BEAN_NAME_SUFFIX)) {
+            return bean;
+        }
+        String datasource = beanName.substring(0, beanName.length() - BEAN_NAME_SUFFIX.length());
+        QueryStatisticsListener listener =
+                new QueryStatisticsListener(datasource, statistics.getObject(), slowThresholdMillis);
+        return ProxyDataSourceBuilder.create(datasource, dataSource)
+                .listener(listener)
+                .proxyResultSet(listener.resultSetProxyLogicFactory())
+                .build();
+    }
+}
@@ -0,0 +1,44 @@
+package com.flogin.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * GET /actuator/queries?datasource=auth|product&limit=10 - top query chậm nhất, chạy nhiều nhất
+ * và tốn tổng thời gian nhiều nhất. DELETE /actuator/queries - reset thống kê.
+ */
+@Component
+@Endpoint(id = "queries")
+@RequiredArgsConstructor
+public class QueryStatisticsEndpoint {
+
+    private static final int DEFAULT_LIMIT = 10;
+
+    private final QueryStatistics statistics;
+
+    @ReadOperation
+    public QueryReport report(@Nullable String datasource, @Nullable Integer limit) {
+        int top = limit != null && limit > 0 ? limit : DEFAULT_LIMIT;
+        return new QueryReport(
+                statistics.top(datasource, QueryStatistics.Order.SLOWEST, top),
+                statistics.top(datasource, QueryStatistics.Order.MOST_FREQUENT, top),
+                statistics.top(datasource, QueryStatistics.Order.TOTAL_TIME, top));
+    }
+
+    @DeleteOperation
+    public void reset() {
+        statistics.reset();
+    }
+
+    public record QueryReport(
+            List<QueryStatistics.QueryStat> slowest,
+            List<QueryStatistics.QueryStat> mostFrequent,
+            List<QueryStatistics.QueryStat> mostTotalTime) {
+    }
+}
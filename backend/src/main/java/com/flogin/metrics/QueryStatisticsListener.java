@@ -0,0 +1,196 @@
+package com.flogin.metrics;
+
+import com.flogin.jfr.JdbcQueryEvent;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ConnectionInfo;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.proxy.ProxyConfig;
+import net.ttddyy.dsproxy.proxy.ResultSetProxyLogicFactory;
+import net.ttddyy.dsproxy.proxy.SimpleResultSetProxyLogic;
+
+import java.lang.reflect.Method;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Listener JDBC (datasource-proxy) cho một datasource:
+ * đo thời gian thực thi từng statement, đếm số dòng (update count hoặc số lần ResultSet.next()),
+ * và log WARN các statement chậm hơn ngưỡng.
+ *
+ * Số dòng của SELECT được đếm ngay trên proxy của ResultSet (resultSetProxyLogicFactory): mỗi proxy giữ
+ * RowCounter riêng, không có map / lock chung giữa các connection trên đường đi của từng dòng.
+ *
+ * Log chỉ chứa fingerprint (literal đã thay bằng ?) và kiểu của bind parameter, không chứa giá trị -
+ * tránh lộ mật khẩu / dữ liệu người dùng ra log.
+ */
+@Slf4j
+public class QueryStatisticsListener implements QueryExecutionListener {
+
+    private static final String START_NANOS = QueryStatisticsListener.class.getName() + ".start";
+    private static final String JFR_EVENT = QueryStatisticsListener.class.getName() + ".jfr";
+
+    private final String datasource;
+    private final QueryStatistics statistics;
+    private final long slowThresholdNanos;
+
+    public QueryStatisticsListener(String datasource, QueryStatistics statistics, long slowThresholdMillis) {
+        this.datasource = datasource;
+        this.statistics = statistics;
+        this.slowThresholdNanos = slowThresholdMillis * 1_000_000;
+    }
+
+    /**
+     * Factory cho ProxyDataSourceBuilder.proxyResultSet: proxy đếm next() và ghi số dòng khi close()
+     */
+    public ResultSetProxyLogicFactory resultSetProxyLogicFactory() {
+        return RowCountingResultSetProxyLogic::new;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(START_NANOS, System.nanoTime());
+        JdbcQueryEvent event = new JdbcQueryEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            execInfo.addCustomValue(JFR_EVENT, event);
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long start = execInfo.getCustomValue(START_NANOS, Long.class);
+        long elapsedNanos = start != null ? System.nanoTime() - start : execInfo.getElapsedTime() * 1_000_000;
+        String fingerprint = fingerprint(queryInfoList);
+
+        statistics.recordExecution(datasource, fingerprint, elapsedNanos, execInfo.isSuccess());
+        JdbcQueryEvent event = execInfo.getCustomValue(JFR_EVENT, JdbcQueryEvent.class);
+        if (event != null) {
+            event.finish(datasource, fingerprint, execInfo.isSuccess());
+        }
+
+        Object result = execInfo.getResult();
+        if (result instanceof ResultSet resultSet) {
+            // execInfo.getResult() là proxy của ResultSet: gắn fingerprint cho bộ đếm của nó
+            RowCounter counter = rowCounter(resultSet);
+            if (counter != null) {
+                counter.fingerprint = fingerprint;
+            }
+        } else {
+            statistics.recordRows(datasource, fingerprint, updateCount(result));
+        }
+
+        if (elapsedNanos >= slowThresholdNanos) {
+            log.warn("Slow query on {} datasource: {} ms, success={}, batch={}, sql=[{}], params={}",
+                    datasource, elapsedNanos / 1_000_000, execInfo.isSuccess(),
+                    execInfo.isBatch() ? execInfo.getBatchSize() : 0, fingerprint, parameterTypes(queryInfoList));
+        }
+    }
+
+    private static RowCounter rowCounter(ResultSet resultSet) {
+        try {
+            return resultSet.isWrapperFor(RowCounter.class) ? resultSet.unwrap(RowCounter.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    private static String fingerprint(List<QueryInfo> queryInfoList) {
+        if (queryInfoList.size() == 1) {
+            return SqlFingerprint.of(queryInfoList.get(0).getQuery());
+        }
+        return queryInfoList.stream()
+                .map(queryInfo -> SqlFingerprint.of(queryInfo.getQuery()))
+                .distinct()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static long updateCount(Object result) {
+        if (result instanceof Number number) {
+            return Math.max(number.longValue(), 0);
+        }
+        if (result instanceof int[] counts) {
+            long total = 0;
+            for (int count : counts) {
+                total += Math.max(count, 0);
+            }
+            return total;
+        }
+        if (result instanceof long[] counts) {
+            long total = 0;
+            for (long count : counts) {
+                total += Math.max(count, 0);
+            }
+            return total;
+        }
+        return 0;
+    }
+
+    /**
+     * Kiểu của bind parameter (giá trị bị redact), theo lượt đầu tiên của batch
+     */
+    private static List<String> parameterTypes(List<QueryInfo> queryInfoList) {
+        if (queryInfoList.isEmpty() || queryInfoList.get(0).getParametersList().isEmpty()) {
+            return List.of();
+        }
+        return queryInfoList.get(0).getParametersList().get(0).stream()
+                .map(QueryStatisticsListener::redact)
+                .toList();
+    }
+
+    private static String redact(ParameterSetOperation operation) {
+        Object[] args = operation.getArgs();
+        Object value = args.length > 1 ? args[1] : null;
+        return value == null ? "null" : value.getClass().getSimpleName();
+    }
+
+    /**
+     * Bộ đếm dòng của một ResultSet; chỉ thread đang dùng ResultSet đó đọc / ghi
+     */
+    private static final class RowCounter {
+        private String fingerprint;
+        private long rows;
+        private boolean closed;
+    }
+
+    /**
+     * Proxy logic của một ResultSet: giữ RowCounter (lấy ra qua unwrap(RowCounter.class)), đếm next() = true
+     * và ghi số dòng vào thống kê ở lần close() đầu tiên
+     */
+    private final class RowCountingResultSetProxyLogic extends SimpleResultSetProxyLogic {
+
+        private final RowCounter counter = new RowCounter();
+
+        private RowCountingResultSetProxyLogic(ResultSet resultSet, ConnectionInfo connectionInfo,
+                                               ProxyConfig proxyConfig) {
+            super(resultSet, connectionInfo, proxyConfig);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (args != null && args.length == 1 && args[0] == RowCounter.class) {
+                if ("isWrapperFor".equals(name)) {
+                    return true;
+                }
+                if ("unwrap".equals(name)) {
+                    return counter;
+                }
+            }
+            Object result = super.invoke(proxy, method, args);
+            if ("next".equals(name) && Boolean.TRUE.equals(result)) {
+                counter.rows++;
+            } else if ("close".equals(name) && !counter.closed) {
+                counter.closed = true;
+                if (counter.fingerprint != null) {
+                    statistics.recordRows(datasource, counter.fingerprint, counter.rows);
+                }
+            }
+            return result;
+        }
+    }
+}
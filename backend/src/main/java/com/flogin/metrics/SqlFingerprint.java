@@ -0,0 +1,50 @@
+package com.flogin.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Chuẩn hóa câu SQL thành "fingerprint" để gom thống kê theo dạng câu lệnh:
+ * literal chuỗi / số thay bằng ?, danh sách IN (?, ?, ...) gom thành IN (...), khoảng trắng thu gọn.
+ *
+ * Fingerprint không chứa giá trị literal nên an toàn để log và trả qua Actuator.
+ */
+public final class SqlFingerprint {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMERIC_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    /**
+     * Hibernate sinh lại cùng một chuỗi SQL cho mỗi lần gọi, nên cache kết quả (có giới hạn).
+     */
+    private static final int CACHE_LIMIT = 1024;
+    private static final Map<String, String> CACHE = new ConcurrentHashMap<>();
+
+    private SqlFingerprint() {
+    }
+
+    public static String of(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        String cached = CACHE.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+        String fingerprint = normalize(sql);
+        if (CACHE.size() < CACHE_LIMIT) {
+            CACHE.put(sql, fingerprint);
+        }
+        return fingerprint;
+    }
+
+    private static String normalize(String sql) {
+        String result = STRING_LITERAL.matcher(sql).replaceAll("?");
+        result = NUMERIC_LITERAL.matcher(result).replaceAll("?");
+        result = IN_LIST.matcher(result).replaceAll("in (...)");
+        return WHITESPACE.matcher(result).replaceAll(" ").trim();
+    }
+}
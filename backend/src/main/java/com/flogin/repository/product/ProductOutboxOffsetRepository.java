@@ -0,0 +1,23 @@
+package com.flogin.repository.product;
+
+import com.flogin.entity.product.ProductOutboxOffset;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface ProductOutboxOffsetRepository extends JpaRepository<ProductOutboxOffset, String> {
+    
+    /**
+     * Xóa offset của các consumer không còn phát lại gì (instance đã dừng, hostname đổi)
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ProductOutboxOffset o WHERE o.updatedAt < :cutoff")
+    int deleteUpdatedBefore(@Param("cutoff") Instant cutoff);
+}
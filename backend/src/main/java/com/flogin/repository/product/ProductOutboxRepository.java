@@ -0,0 +1,42 @@
+package com.flogin.repository.product;
+
+import com.flogin.entity.product.ProductOutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface ProductOutboxRepository extends JpaRepository<ProductOutboxEvent, Long> {
+    
+    /**
+     * Batch tiếp theo sau id đã phát lại, theo thứ tự id (range scan trên primary key)
+     */
+    List<ProductOutboxEvent> findByIdGreaterThanOrderByIdAsc(long id, Limit limit);
+    
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM ProductOutboxEvent e")
+    long findMaxId();
+    
+    /**
+     * Id nhỏ nhất trong các dòng ghi từ cutoff (null nếu không có)
+     */
+    @Query("SELECT MIN(e.id) FROM ProductOutboxEvent e WHERE e.createdAt >= :cutoff")
+    Long findMinIdCreatedSince(@Param("cutoff") Instant cutoff);
+    
+    /**
+     * Id đã commit (nhìn thấy trong transaction hiện tại) lớn hơn id cho trước
+     */
+    @Query("SELECT e.id FROM ProductOutboxEvent e WHERE e.id > :id")
+    List<Long> findIdsGreaterThan(@Param("id") long id);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ProductOutboxEvent e WHERE e.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") Instant cutoff);
+}
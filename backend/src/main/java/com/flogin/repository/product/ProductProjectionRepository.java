@@ -0,0 +1,22 @@
+package com.flogin.repository.product;
+
+import com.flogin.dto.product.ProductField;
+import com.flogin.entity.product.Product;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Projection động cho sparse fieldset: chỉ SELECT các cột được yêu cầu, không load entity
+ */
+public interface ProductProjectionRepository {
+
+    /**
+     * @return mỗi sản phẩm là một map property -> giá trị (category dạng tên enum), theo thứ tự của ProductField
+     */
+    List<Map<String, Object>> findAllProjected(Specification<Product> specification, Sort sort,
+                                               Set<ProductField> fields);
+}
@@ -0,0 +1,62 @@
+package com.flogin.repository.product;
+
+import com.flogin.dto.product.ProductField;
+import com.flogin.entity.product.Category;
+import com.flogin.entity.product.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Criteria tuple query: SELECT đúng các cột của fieldset, WHERE / ORDER BY giống findAll(Specification, Sort)
+ */
+class ProductProjectionRepositoryImpl implements ProductProjectionRepository {
+
+    @PersistenceContext(unitName = "product")
+    private EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> findAllProjected(Specification<Product> specification, Sort sort,
+                                                      Set<ProductField> fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Product> root = query.from(Product.class);
+
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (ProductField field : fields) {
+            selections.add(root.get(field.property()).alias(field.property()));
+        }
+        query.multiselect(selections);
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        List<Tuple> rows = entityManager.createQuery(query).getResultList();
+        List<Map<String, Object>> products = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            Map<String, Object> product = new LinkedHashMap<>();
+            for (ProductField field : fields) {
+                Object value = row.get(field.property());
+                product.put(field.property(), value instanceof Category category ? category.name() : value);
+            }
+            products.add(product);
+        }
+        return products;
+    }
+}
@@ -0,0 +1,75 @@
+package com.flogin.repository.product;
+
+import com.flogin.dto.product.ProductResponse;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only, non-blocking truy cập bảng products qua R2DBC.
+ *
+ * Dùng DatabaseClient với SQL tường minh (không dùng Spring Data R2DBC repository) để
+ * không đụng tới mapping JPA của Product. Ghi vẫn đi qua ProductRepository (JPA).
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductReactiveRepository {
+
+    /**
+     * Số dòng driver lấy mỗi lần từ cursor - giới hạn bộ nhớ khi stream danh sách lớn.
+     */
+    static final int FETCH_SIZE = 256;
+
+    private static final String SELECT_COLUMNS =
+        "SELECT id, name, description, price, quantity, category, created_at, updated_at FROM products";
+
+    private final DatabaseClient databaseClient;
+
+    public Flux<ProductResponse> findAll() {
+        return databaseClient.sql(SELECT_COLUMNS + " ORDER BY id")
+                .filter(statement -> statement.fetchSize(FETCH_SIZE))
+                .map(ProductReactiveRepository::toResponse)
+                .all();
+    }
+
+    public Mono<ProductResponse> findById(Long id) {
+        return databaseClient.sql(SELECT_COLUMNS + " WHERE id = :id")
+                .bind("id", id)
+                .map(ProductReactiveRepository::toResponse)
+                .one();
+    }
+
+    /**
+     * Tương đương ProductRepository.findByNameContainingIgnoreCase
+     */
+    public Flux<ProductResponse> findByNameContainingIgnoreCase(String keyword) {
+        return databaseClient.sql(SELECT_COLUMNS + " WHERE LOWER(name) LIKE :pattern ESCAPE '\\' ORDER BY id")
+                .bind("pattern", "%" + escapeLike(keyword.toLowerCase()) + "%")
+                .filter(statement -> statement.fetchSize(FETCH_SIZE))
+                .map(ProductReactiveRepository::toResponse)
+                .all();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static ProductResponse toResponse(Readable row) {
+        return ProductResponse.builder()
+                .id(row.get("id", Long.class))
+                .name(row.get("name", String.class))
+                .description(row.get("description", String.class))
+                .price(row.get("price", BigDecimal.class))
+                .quantity(row.get("quantity", Integer.class))
+                .category(row.get("category", String.class))
+                .createdAt(row.get("created_at", LocalDateTime.class))
+                .updatedAt(row.get("updated_at", LocalDateTime.class))
+                .build();
+    }
+}
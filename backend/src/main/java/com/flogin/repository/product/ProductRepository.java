@@ -1,15 +1,43 @@
 package com.flogin.repository.product;
 
+import com.flogin.dto.product.CatalogVersion;
+import com.flogin.dto.product.CategoryAggregate;
 import com.flogin.entity.product.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>,
+        ProductProjectionRepository {
     
     List<Product> findByNameContainingIgnoreCase(String name);
     
     boolean existsByName(String name);
+    
+    /**
+     * Chỉ đọc updated_at (dùng cho ETag/Last-Modified) - không load cả entity
+     */
+    @Query("SELECT p.updatedAt FROM Product p WHERE p.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(@Param("id") Long id);
+    
+    /**
+     * Version của toàn bộ catalog: số sản phẩm + updated_at mới nhất
+     */
+    @Query("SELECT new com.flogin.dto.product.CatalogVersion(COUNT(p), MAX(p.updatedAt)) FROM Product p")
+    CatalogVersion findCatalogVersion();
+    
+    /**
+     * Số sản phẩm, tổng số lượng và tổng giá trị tồn kho theo category - dùng để đối chiếu catalog statistics
+     */
+    @Query("SELECT new com.flogin.dto.product.CategoryAggregate(p.category, COUNT(p), "
+            + "COALESCE(SUM(p.quantity), 0), COALESCE(SUM(p.price * p.quantity), 0)) "
+            + "FROM Product p GROUP BY p.category")
+    List<CategoryAggregate> aggregateByCategory();
 }
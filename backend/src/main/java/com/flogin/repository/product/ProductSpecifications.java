@@ -0,0 +1,42 @@
+package com.flogin.repository.product;
+
+import com.flogin.entity.product.Category;
+import com.flogin.entity.product.Product;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+
+/**
+ * Điều kiện lọc Product cho JpaSpecificationExecutor.
+ *
+ * Chỉ các điều kiện thực sự có mặt được thêm vào WHERE (không dùng "(:p IS NULL OR ...)"),
+ * nên mỗi tổ hợp filter là một câu SQL riêng mà planner dùng được index
+ * idx_products_category_price / idx_products_category_created_at / idx_products_price.
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> hasCategory(Category category) {
+        return (root, query, cb) -> cb.equal(root.get("category"), category);
+    }
+
+    public static Specification<Product> priceAtLeast(BigDecimal minPrice) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), minPrice);
+    }
+
+    public static Specification<Product> priceAtMost(BigDecimal maxPrice) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), maxPrice);
+    }
+
+    /**
+     * So sánh với literal 0 (không bind parameter) để Postgres khớp được partial index
+     * idx_products_in_stock_category_price (WHERE quantity > 0) kể cả với generic plan
+     */
+    public static Specification<Product> inStock(boolean inStock) {
+        return (root, query, cb) -> inStock
+                ? cb.greaterThan(root.get("quantity"), cb.literal(0))
+                : cb.equal(root.get("quantity"), cb.literal(0));
+    }
+}
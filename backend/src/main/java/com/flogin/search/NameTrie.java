@@ -0,0 +1,303 @@
+package com.flogin.search;
+
+import com.flogin.dto.product.ProductSuggestion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Radix trie (cạnh nén thành chuỗi) trên tên sản phẩm đã chuẩn hóa, cho autocomplete.
+ *
+ * Mỗi tên được thêm dưới key là tên chuẩn hóa và mọi hậu tố bắt đầu từ một từ ("dien thoai samsung",
+ * "thoai samsung", "samsung") nên gõ từ giữa tên cũng ra gợi ý. Mỗi node giữ sẵn top-k sản phẩm
+ * (mỗi sản phẩm một lần, theo key tốt nhất của nó) trong cả cây con: suggest() chỉ đi theo prefix rồi trả
+ * top-k của node dừng lại - O(độ dài prefix + k), không duyệt cây con.
+ *
+ * Thứ tự: khớp từ đầu tên trước khớp từ giữa tên, rồi tên ngắn hơn, rồi theo tên, rồi id.
+ * Top-k của cây con bằng top-k (bỏ trùng sản phẩm) của các node con và các key kết thúc tại node, nên
+ * thêm chỉ cần chèn vào top-k dọc đường đi, xóa chỉ tính lại (từ dưới lên) ở node có entry bị xóa trong top-k.
+ *
+ * Không thread-safe: ProductSearchIndex bảo vệ bằng lock.
+ */
+final class NameTrie {
+
+    private static final Comparator<Entry> RANKING = Comparator.comparingInt(Entry::wordIndex)
+            .thenComparingInt(entry -> entry.suggestion().name().length())
+            .thenComparing(entry -> entry.suggestion().name())
+            .thenComparingLong(entry -> entry.suggestion().id());
+
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final int topK;
+    private final Node root = new Node("");
+
+    /**
+     * @param topK số gợi ý tối đa giữ sẵn ở mỗi node (giới hạn trên của limit khi suggest)
+     */
+    NameTrie(int topK) {
+        this.topK = topK;
+    }
+
+    void add(long id, String name) {
+        List<String> tokens = SearchText.tokens(name);
+        ProductSuggestion suggestion = new ProductSuggestion(id, name);
+        for (int i = 0; i < tokens.size(); i++) {
+            insert(root, String.join(" ", tokens.subList(i, tokens.size())), 0, new Entry(suggestion, i));
+        }
+    }
+
+    void remove(long id, String name) {
+        List<String> tokens = SearchText.tokens(name);
+        for (int i = 0; i < tokens.size(); i++) {
+            delete(root, String.join(" ", tokens.subList(i, tokens.size())), 0, id, i);
+        }
+    }
+
+    /**
+     * Tối đa limit (<= topK) gợi ý có key bắt đầu bằng prefix (đã chuẩn hóa như tên)
+     */
+    List<ProductSuggestion> suggest(String prefix, int limit) {
+        String key = String.join(" ", SearchText.tokens(prefix));
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        Node node = root;
+        int offset = 0;
+        while (offset < key.length()) {
+            Node child = node.child(key.charAt(offset));
+            if (child == null) {
+                return List.of();
+            }
+            int common = commonPrefix(child.label, key, offset);
+            if (offset + common == key.length()) {
+                node = child;
+                break;
+            }
+            if (common < child.label.length()) {
+                return List.of();
+            }
+            offset += common;
+            node = child;
+        }
+        int size = Math.min(limit, node.top.length);
+        List<ProductSuggestion> suggestions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            suggestions.add(node.top[i].suggestion());
+        }
+        return suggestions;
+    }
+
+    /**
+     * Số node (để kiểm tra cây được nén lại sau khi xóa)
+     */
+    int nodeCount() {
+        return count(root);
+    }
+
+    private static int count(Node node) {
+        int count = 1;
+        for (Node child : node.children) {
+            count += count(child);
+        }
+        return count;
+    }
+
+    private void insert(Node node, String key, int offset, Entry entry) {
+        node.top = offer(node.top, entry);
+        if (offset == key.length()) {
+            node.values = Arrays.copyOf(node.values, node.values.length + 1);
+            node.values[node.values.length - 1] = entry;
+            return;
+        }
+        Node child = node.child(key.charAt(offset));
+        if (child == null) {
+            Node leaf = new Node(key.substring(offset));
+            // Mảng không bao giờ bị sửa tại chỗ nên values và top dùng chung được
+            leaf.values = new Entry[] {entry};
+            leaf.top = leaf.values;
+            node.addChild(leaf);
+            return;
+        }
+        int common = commonPrefix(child.label, key, offset);
+        if (common < child.label.length()) {
+            // Tách cạnh: node trung gian giữ phần chung của label
+            Node split = new Node(child.label.substring(0, common));
+            split.top = child.top;
+            node.replaceChild(split);
+            child.label = child.label.substring(common);
+            split.children = new Node[] {child};
+            child = split;
+        }
+        insert(child, key, offset + common, entry);
+    }
+
+    /**
+     * Top-k của node chỉ phải tính lại khi chứa đúng entry bị xóa (cùng sản phẩm, cùng key): entry khác
+     * của cùng sản phẩm trong top-k vẫn còn, nên top-k không đổi.
+     */
+    private void delete(Node node, String key, int offset, long id, int wordIndex) {
+        if (offset == key.length()) {
+            node.values = without(node.values, id);
+        } else {
+            Node child = node.child(key.charAt(offset));
+            if (child == null || !key.startsWith(child.label, offset)) {
+                return;
+            }
+            delete(child, key, offset + child.label.length(), id, wordIndex);
+            if (child.values.length == 0 && child.children.length == 0) {
+                node.removeChild(child);
+            } else if (child.values.length == 0 && child.children.length == 1) {
+                // Gộp node chỉ còn một con vào con đó
+                Node grandchild = child.children[0];
+                grandchild.label = child.label + grandchild.label;
+                node.replaceChild(grandchild);
+            }
+        }
+        if (contains(node.top, id, wordIndex)) {
+            node.top = recompute(node);
+        }
+    }
+
+    private static boolean contains(Entry[] top, long id, int wordIndex) {
+        for (Entry entry : top) {
+            if (entry.suggestion().id() == id && entry.wordIndex() == wordIndex) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Chèn entry vào top-k đã sắp xếp; sản phẩm đã có thì giữ entry tốt hơn
+     */
+    private Entry[] offer(Entry[] top, Entry entry) {
+        long id = entry.suggestion().id();
+        for (int i = 0; i < top.length; i++) {
+            if (top[i].suggestion().id() == id) {
+                if (RANKING.compare(entry, top[i]) >= 0) {
+                    return top;
+                }
+                Entry[] updated = top.clone();
+                updated[i] = entry;
+                Arrays.sort(updated, RANKING);
+                return updated;
+            }
+        }
+        int position = 0;
+        while (position < top.length && RANKING.compare(top[position], entry) < 0) {
+            position++;
+        }
+        if (position >= topK) {
+            return top;
+        }
+        Entry[] updated = new Entry[Math.min(top.length + 1, topK)];
+        System.arraycopy(top, 0, updated, 0, position);
+        updated[position] = entry;
+        System.arraycopy(top, position, updated, position + 1, updated.length - position - 1);
+        return updated;
+    }
+
+    private Entry[] recompute(Node node) {
+        Entry[] top = NO_ENTRIES;
+        for (Entry value : node.values) {
+            top = offer(top, value);
+        }
+        for (Node child : node.children) {
+            for (Entry entry : child.top) {
+                top = offer(top, entry);
+            }
+        }
+        return top;
+    }
+
+    private static Entry[] without(Entry[] entries, long id) {
+        int kept = 0;
+        Entry[] remaining = new Entry[entries.length];
+        for (Entry entry : entries) {
+            if (entry.suggestion().id() != id) {
+                remaining[kept++] = entry;
+            }
+        }
+        return kept == entries.length ? entries : Arrays.copyOf(remaining, kept);
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * wordIndex: key bắt đầu từ từ thứ mấy của tên (0 = cả tên)
+     */
+    private record Entry(ProductSuggestion suggestion, int wordIndex) {
+    }
+
+    private static final class Node {
+
+        private String label;
+        // Sắp xếp theo ký tự đầu của label (các con luôn khác ký tự đầu)
+        private Node[] children = NO_CHILDREN;
+        private Entry[] values = NO_ENTRIES;
+        private Entry[] top = NO_ENTRIES;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        Node child(char first) {
+            int index = indexOf(first);
+            return index >= 0 ? children[index] : null;
+        }
+
+        void addChild(Node child) {
+            int insertion = -indexOf(child.label.charAt(0)) - 1;
+            Node[] updated = new Node[children.length + 1];
+            System.arraycopy(children, 0, updated, 0, insertion);
+            updated[insertion] = child;
+            System.arraycopy(children, insertion, updated, insertion + 1, children.length - insertion);
+            children = updated;
+        }
+
+        /**
+         * Thay con có cùng ký tự đầu với replacement
+         */
+        void replaceChild(Node replacement) {
+            children[indexOf(replacement.label.charAt(0))] = replacement;
+        }
+
+        void removeChild(Node child) {
+            int index = indexOf(child.label.charAt(0));
+            Node[] updated = new Node[children.length - 1];
+            System.arraycopy(children, 0, updated, 0, index);
+            System.arraycopy(children, index + 1, updated, index, children.length - index - 1);
+            children = updated;
+        }
+
+        /**
+         * Binary search theo ký tự đầu; không có thì -(vị trí chèn) - 1
+         */
+        private int indexOf(char first) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                char c = children[middle].label.charAt(0);
+                if (c < first) {
+                    low = middle + 1;
+                } else if (c > first) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -(low + 1);
+        }
+    }
+}
@@ -0,0 +1,482 @@
+package com.flogin.search;
+
+import com.flogin.catalog.InMemoryProductCatalog;
+import com.flogin.dto.product.ProductMapper;
+import com.flogin.dto.product.ProductResponse;
+import com.flogin.dto.product.ProductSuggestion;
+import com.flogin.event.ProductChangeEvent;
+import com.flogin.repository.product.ProductRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Inverted index trong bộ nhớ trên tên và mô tả sản phẩm, phục vụ ProductService.searchProducts.
+ *
+ * - Token được chuẩn hóa bởi SearchText (không phân biệt hoa thường, bỏ dấu tiếng Việt)
+ * - Term dictionary sắp xếp (TreeMap): mỗi token của query khớp mọi term bắt đầu bằng nó (prefix,
+ *   token từ 2 ký tự; token 1 ký tự chỉ khớp nguyên term), sản phẩm phải khớp tất cả token của query
+ * - Điểm của mỗi token: khớp trong tên > trong mô tả, khớp nguyên term gấp đôi khớp prefix; top-k theo
+ *   tổng điểm, cùng điểm thì tên ngắn hơn rồi id nhỏ hơn đứng trước
+ * - Dựng lại toàn bộ khi khởi động và mỗi rebuild-interval-ms (từ database, hoặc InMemoryProductCatalog);
+ *   giữa các lần đó cập nhật tăng dần theo ProductChangeEvent (với database: sau khi ProductOutbox phát lại)
+ *
+ * - Autocomplete (suggest): NameTrie trên tên, cập nhật cùng lúc với inverted index
+ *
+ * Rebuild dựng index mới ngoài lock rồi thay thế; bỏ kết quả nếu có event được áp dụng trong lúc đọc
+ * (kết quả có thể đã cũ) và thử lại vài lần. Trước lần dựng đầu tiên isReady() = false.
+ */
+@Slf4j
+@Component
+public class ProductSearchIndex {
+
+    /**
+     * Số gợi ý tối đa của suggest (top-k giữ sẵn ở mỗi node của NameTrie)
+     */
+    public static final int MAX_SUGGESTIONS = 10;
+
+    private static final int REBUILD_ATTEMPTS = 3;
+
+    // Cờ của một term trong một sản phẩm (2 bit thấp của posting)
+    private static final int IN_NAME = 2;
+    private static final int IN_DESCRIPTION = 1;
+
+    // Token ngắn hơn chỉ khớp nguyên term: prefix 1 ký tự mở rộng ra quá nhiều term
+    private static final int MIN_PREFIX_LENGTH = 2;
+
+    private static final int NAME_SCORE = 4;
+    private static final int DESCRIPTION_SCORE = 1;
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final ObjectProvider<InMemoryProductCatalog> inMemoryCatalog;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock
+    private Index index = new Index();
+    private long appliedChanges;
+
+    private volatile boolean ready;
+
+    private final Queue<Scratch> scratchPool = new ConcurrentLinkedQueue<>();
+
+    public ProductSearchIndex(ProductRepository productRepository,
+                              ProductMapper productMapper,
+                              ObjectProvider<InMemoryProductCatalog> inMemoryCatalog,
+                              MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.inMemoryCatalog = inMemoryCatalog;
+        Gauge.builder("flogin.search.index.documents", this, search -> search.read(Index::documentCount))
+                .register(meterRegistry);
+        Gauge.builder("flogin.search.index.terms", this, search -> search.read(Index::termCount))
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Tối đa limit sản phẩm khớp query, điểm cao nhất trước (rỗng nếu query không có token)
+     */
+    public List<ProductResponse> search(String query, int limit) {
+        List<String> tokens = SearchText.tokens(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        // Token dài (ít term khớp) trước để tập ứng viên nhỏ sớm
+        tokens.sort(Comparator.comparingInt(String::length).reversed());
+        Scratch scratch = scratchPool.poll();
+        if (scratch == null) {
+            scratch = new Scratch();
+        }
+        lock.readLock().lock();
+        try {
+            return index.search(tokens, limit, scratch);
+        } finally {
+            lock.readLock().unlock();
+            scratchPool.offer(scratch);
+        }
+    }
+
+    /**
+     * Tối đa limit (<= MAX_SUGGESTIONS) sản phẩm có tên chứa một từ bắt đầu bằng prefix; khớp từ đầu tên
+     * trước, rồi tên ngắn hơn (rỗng nếu prefix không có chữ, số)
+     */
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+        lock.readLock().lock();
+        try {
+            return index.names.suggest(prefix, Math.min(limit, MAX_SUGGESTIONS));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChange(ProductChangeEvent event) {
+        lock.writeLock().lock();
+        try {
+            index.remove(event.productId());
+            if (event.product() != null) {
+                index.add(event.product());
+            }
+            appliedChanges++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.search.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        for (int attempt = 1; attempt <= REBUILD_ATTEMPTS; attempt++) {
+            long changesBefore = read(ignored -> appliedChanges);
+            InMemoryProductCatalog catalog = inMemoryCatalog.getIfAvailable();
+            List<ProductResponse> products = catalog != null
+                    ? catalog.findAll()
+                    : productRepository.findAll().stream().map(productMapper::toResponse).toList();
+            Index rebuilt = new Index();
+            products.forEach(rebuilt::add);
+            lock.writeLock().lock();
+            try {
+                if (appliedChanges == changesBefore) {
+                    index = rebuilt;
+                    ready = true;
+                    log.debug("Product search index rebuilt: {} products, {} terms",
+                            rebuilt.documentCount(), rebuilt.termCount());
+                    return;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.debug("Product search index rebuild skipped: concurrent product changes");
+    }
+
+    private <T> T read(Function<Index, T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.apply(index);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int score(int flags, boolean exact) {
+        int score = (flags & IN_NAME) != 0 ? NAME_SCORE : DESCRIPTION_SCORE;
+        return exact ? score * 2 : score;
+    }
+
+    /**
+     * Dữ liệu của index; không thread-safe - ProductSearchIndex bảo vệ bằng lock.
+     *
+     * Mỗi sản phẩm có một slot (int, dùng lại sau khi xóa); posting là (slot << 2) | cờ nên điểm được
+     * cộng dồn vào mảng int theo slot (Scratch) thay vì map theo id.
+     */
+    private static final class Index {
+
+        private final TreeMap<String, Postings> terms = new TreeMap<>();
+        private final Map<Long, Integer> slots = new HashMap<>();
+        private final NameTrie names = new NameTrie(MAX_SUGGESTIONS);
+        private Document[] documents = new Document[16];
+        // id và độ dài tên theo slot, tách khỏi Document để so sánh khi xếp hạng không phải đọc object
+        private long[] ids = new long[16];
+        private int[] nameLengths = new int[16];
+        private int slotCount;
+        private int[] freeSlots = new int[16];
+        private int freeCount;
+
+        int documentCount() {
+            return slots.size();
+        }
+
+        int termCount() {
+            return terms.size();
+        }
+
+        void add(ProductResponse product) {
+            Map<String, Integer> flags = new HashMap<>();
+            for (String token : SearchText.tokens(product.getName())) {
+                flags.merge(token, IN_NAME, (a, b) -> a | b);
+            }
+            for (String token : SearchText.tokens(product.getDescription())) {
+                flags.merge(token, IN_DESCRIPTION, (a, b) -> a | b);
+            }
+            int slot = allocateSlot();
+            slots.put(product.getId(), slot);
+            flags.forEach((term, termFlags) -> terms.computeIfAbsent(term, ignored -> new Postings()).add(slot, termFlags));
+            documents[slot] = new Document(product, flags.keySet().toArray(String[]::new));
+            ids[slot] = product.getId();
+            nameLengths[slot] = product.getName() != null ? product.getName().length() : 0;
+            names.add(product.getId(), product.getName());
+        }
+
+        void remove(long id) {
+            Integer slot = slots.remove(id);
+            if (slot == null) {
+                return;
+            }
+            for (String term : documents[slot].terms()) {
+                Postings postings = terms.get(term);
+                if (postings != null && postings.remove(slot) && postings.isEmpty()) {
+                    terms.remove(term);
+                }
+            }
+            names.remove(id, documents[slot].product().getName());
+            documents[slot] = null;
+            if (freeCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+            }
+            freeSlots[freeCount++] = slot;
+        }
+
+        private int allocateSlot() {
+            if (freeCount > 0) {
+                return freeSlots[--freeCount];
+            }
+            if (slotCount == documents.length) {
+                documents = Arrays.copyOf(documents, slotCount * 2);
+                ids = Arrays.copyOf(ids, slotCount * 2);
+                nameLengths = Arrays.copyOf(nameLengths, slotCount * 2);
+            }
+            return slotCount++;
+        }
+
+        /**
+         * Mỗi vòng (một token) chỉ giữ slot đã khớp mọi token trước: mark[slot] = generation của vòng
+         * gần nhất slot khớp, current = điểm của token đang xét, total = tổng các token trước
+         */
+        List<ProductResponse> search(List<String> tokens, int limit, Scratch scratch) {
+            int base = scratch.begin(slotCount, tokens.size());
+            int[] mark = scratch.mark;
+            int[] current = scratch.current;
+            int[] total = scratch.total;
+            for (int round = 0; round < tokens.size(); round++) {
+                String token = tokens.get(round);
+                int now = base + round;
+                int previous = now - 1;
+                boolean first = round == 0;
+                boolean prefix = token.length() >= MIN_PREFIX_LENGTH;
+                scratch.next.clear();
+                for (Map.Entry<String, Postings> entry : terms.tailMap(token, true).entrySet()) {
+                    String term = entry.getKey();
+                    if (!term.startsWith(token) || (!prefix && term.length() > token.length())) {
+                        break;
+                    }
+                    boolean exact = term.length() == token.length();
+                    Postings postings = entry.getValue();
+                    for (int i = 0; i < postings.size; i++) {
+                        int posting = postings.entries[i];
+                        int slot = posting >>> 2;
+                        int score = score(posting & 3, exact);
+                        if (mark[slot] == now) {
+                            current[slot] = Math.max(current[slot], score);
+                        } else if (first || mark[slot] == previous) {
+                            if (first) {
+                                total[slot] = 0;
+                            }
+                            mark[slot] = now;
+                            current[slot] = score;
+                            scratch.next.add(slot);
+                        }
+                    }
+                }
+                if (scratch.next.size == 0) {
+                    return List.of();
+                }
+                for (int i = 0; i < scratch.next.size; i++) {
+                    int slot = scratch.next.values[i];
+                    total[slot] += current[slot];
+                }
+                scratch.swap();
+            }
+            return top(scratch.matched, total, limit);
+        }
+
+        private List<ProductResponse> top(IntList matched, int[] total, int limit) {
+            // Min-heap theo ranking (mảng int): heap[0] là slot kém nhất đang giữ
+            int[] heap = new int[Math.min(limit, matched.size)];
+            int size = 0;
+            for (int i = 0; i < matched.size; i++) {
+                int slot = matched.values[i];
+                if (size < heap.length) {
+                    heap[size] = slot;
+                    siftUp(heap, size++, total);
+                } else if (compare(slot, heap[0], total) < 0) {
+                    heap[0] = slot;
+                    siftDown(heap, size, total);
+                }
+            }
+            // Lấy dần phần tử kém nhất ra cuối mảng: heap[0..size) thành thứ tự xếp hạng
+            for (int end = size - 1; end > 0; end--) {
+                int worst = heap[0];
+                heap[0] = heap[end];
+                heap[end] = worst;
+                siftDown(heap, end, total);
+            }
+            List<ProductResponse> result = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                result.add(documents[heap[i]].product());
+            }
+            return Collections.unmodifiableList(result);
+        }
+
+        private void siftUp(int[] heap, int index, int[] total) {
+            int slot = heap[index];
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (compare(slot, heap[parent], total) <= 0) {
+                    break;
+                }
+                heap[index] = heap[parent];
+                index = parent;
+            }
+            heap[index] = slot;
+        }
+
+        private void siftDown(int[] heap, int size, int[] total) {
+            int slot = heap[0];
+            int index = 0;
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && compare(heap[child + 1], heap[child], total) > 0) {
+                    child++;
+                }
+                if (compare(slot, heap[child], total) >= 0) {
+                    break;
+                }
+                heap[index] = heap[child];
+                index = child;
+            }
+            heap[index] = slot;
+        }
+
+        /**
+         * Âm nếu slot a xếp trước b: điểm cao hơn, rồi tên ngắn hơn, rồi id nhỏ hơn
+         */
+        private int compare(int a, int b, int[] total) {
+            int result = Integer.compare(total[b], total[a]);
+            if (result == 0) {
+                result = Integer.compare(nameLengths[a], nameLengths[b]);
+            }
+            if (result == 0) {
+                result = Long.compare(ids[a], ids[b]);
+            }
+            return result;
+        }
+    }
+
+    private record Document(ProductResponse product, String[] terms) {
+    }
+
+    /**
+     * Danh sách slot chứa một term: mỗi phần tử là (slot << 2) | cờ, không sắp xếp
+     */
+    private static final class Postings {
+
+        private int[] entries = new int[2];
+        private int size;
+
+        void add(int slot, int flags) {
+            if (size == entries.length) {
+                entries = Arrays.copyOf(entries, size * 2);
+            }
+            entries[size++] = slot << 2 | flags;
+        }
+
+        /**
+         * Thay bằng phần tử cuối: O(số sản phẩm chứa term), chỉ chạy khi update / delete
+         */
+        boolean remove(int slot) {
+            for (int i = 0; i < size; i++) {
+                if (entries[i] >>> 2 == slot) {
+                    entries[i] = entries[--size];
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+    }
+
+    private static final class IntList {
+
+        private int[] values = new int[64];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+
+    /**
+     * Mảng làm việc của một query, tái sử dụng giữa các query (pool) để không cấp phát theo số sản phẩm.
+     * mark dùng generation tăng dần nên không phải xóa mảng giữa các query.
+     */
+    private static final class Scratch {
+
+        private int[] mark = new int[0];
+        private int[] current = new int[0];
+        private int[] total = new int[0];
+        private IntList matched = new IntList();
+        private IntList next = new IntList();
+        private int generation;
+
+        /**
+         * @return generation của vòng đầu tiên
+         */
+        int begin(int capacity, int rounds) {
+            if (mark.length < capacity) {
+                int size = Math.max(capacity, mark.length * 2);
+                mark = Arrays.copyOf(mark, size);
+                current = new int[size];
+                total = new int[size];
+            }
+            if (generation > Integer.MAX_VALUE - rounds - 1) {
+                Arrays.fill(mark, 0);
+                generation = 0;
+            }
+            int base = generation + 1;
+            generation += rounds;
+            matched.clear();
+            next.clear();
+            return base;
+        }
+
+        void swap() {
+            IntList swapped = matched;
+            matched = next;
+            next = swapped;
+        }
+    }
+}
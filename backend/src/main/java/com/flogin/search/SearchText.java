@@ -0,0 +1,54 @@
+package com.flogin.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Chuẩn hóa text cho tìm kiếm: chữ thường, bỏ dấu tiếng Việt ("Điện thoại" -> "dien thoai"),
+ * tách token theo ký tự không phải chữ / số.
+ */
+public final class SearchText {
+
+    private SearchText() {
+    }
+
+    /**
+     * Chữ thường, bỏ dấu (dấu thanh, dấu mũ / móc / trăng) và đ -> d
+     */
+    public static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            folded.append(c == 'đ' || c == 'Đ' ? 'd' : c);
+        }
+        return folded.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Token đã chuẩn hóa của text (rỗng nếu text null / không có chữ, số)
+     */
+    public static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String folded = fold(text);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean separator = i == folded.length() || !Character.isLetterOrDigit(folded.charAt(i));
+            if (separator && start >= 0) {
+                tokens.add(folded.substring(start, i));
+                start = -1;
+            } else if (!separator && start < 0) {
+                start = i;
+            }
+        }
+        return tokens;
+    }
+}
@@ -3,9 +3,13 @@ package com.flogin.service.auth;
 import com.flogin.dto.auth.LoginRequest;
 import com.flogin.dto.auth.RegisterRequest;
 import com.flogin.entity.auth.User;
+import com.flogin.event.AuthEvent;
 import com.flogin.repository.auth.UserRepository;
 import com.flogin.exception.BadRequestException;
+import com.flogin.jfr.PhaseEvent;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,13 +23,19 @@ import java.util.regex.Pattern;
  * - Username: 3-50 ký tự, chỉ chứa a-z, A-Z, 0-9, -, ., _
  * - Password: 6-100 ký tự, phải có cả chữ VÀ số
  * - Email: Định dạng email hợp lệ
+ *
+ * Đăng ký / đăng nhập publish AuthEvent (audit log), không ghi gì thêm trong transaction.
  */
 @Service
 @RequiredArgsConstructor
+@Timed(value = "flogin.service", extraTags = {"datasource", "auth"})
 public class AuthService {
     
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    private static final String LOGIN_OPERATION = "AuthService.login";
     
     // Username: 3-50 ký tự, chỉ chứa a-z, A-Z, 0-9, -, ., _
     private static final Pattern USERNAME_PATTERN = Pattern.compile("^[a-zA-Z0-9._-]{3,50}$");
@@ -74,28 +84,44 @@ public class AuthService {
         user.setPassword(passwordEncoder.encode(request.getPassword()));
         user.setFullName(request.getFullName());
         
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(AuthEvent.registered(saved.getUsername()));
+        return saved;
     }
     
     @Transactional(readOnly = true)
     public User login(LoginRequest request) {
-        // Trim username
-        if (request.getUsername() != null) {
-            request.setUsername(request.getUsername().trim());
+        try (PhaseEvent phase = PhaseEvent.start(LOGIN_OPERATION, "validation")) {
+            // Trim username
+            if (request.getUsername() != null) {
+                request.setUsername(request.getUsername().trim());
+            }
+            
+            // Validate inputs
+            validateLoginRequest(request);
         }
         
-        // Validate inputs
-        validateLoginRequest(request);
-        
         // Find user by username
-        User user = userRepository.findByUsername(request.getUsername())
-            .orElseThrow(() -> new BadRequestException("Invalid username or password"));
+        User user;
+        try (PhaseEvent phase = PhaseEvent.start(LOGIN_OPERATION, "lookup")) {
+            user = userRepository.findByUsername(request.getUsername()).orElse(null);
+        }
+        if (user == null) {
+            eventPublisher.publishEvent(AuthEvent.loginFailed(request.getUsername()));
+            throw new BadRequestException("Invalid username or password");
+        }
         
         // Verify password
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        boolean passwordMatches;
+        try (PhaseEvent phase = PhaseEvent.start(LOGIN_OPERATION, "passwordMatches")) {
+            passwordMatches = passwordEncoder.matches(request.getPassword(), user.getPassword());
+        }
+        if (!passwordMatches) {
+            eventPublisher.publishEvent(AuthEvent.loginFailed(request.getUsername()));
             throw new BadRequestException("Invalid username or password");
         }
         
+        eventPublisher.publishEvent(AuthEvent.loginSucceeded(user.getUsername()));
         return user;
     }
     
@@ -0,0 +1,248 @@
+package com.flogin.service.product;
+
+import com.flogin.catalog.InMemoryProductCatalog;
+import com.flogin.dto.product.CatalogAggregates;
+import com.flogin.dto.product.CatalogStatistics;
+import com.flogin.dto.product.CatalogStatistics.CategoryStatistics;
+import com.flogin.dto.product.CategoryAggregate;
+import com.flogin.dto.product.PriceCents;
+import com.flogin.dto.product.StockLevel;
+import com.flogin.entity.product.Category;
+import com.flogin.event.ProductChangeEvent;
+import com.flogin.repository.product.ProductOutboxRepository;
+import com.flogin.repository.product.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Catalog statistics (số sản phẩm theo category, tổng số lượng, tổng giá trị tồn kho) giữ trong bộ nhớ.
+ *
+ * - Cập nhật tăng dần từ ProductChangeEvent sau khi transaction commit (delta từ previous -> product)
+ * - Đối chiếu định kỳ với GROUP BY category (reconcile-interval-ms, chạy ngay khi khởi động);
+ *   với catalog mode memory thì đối chiếu với InMemoryProductCatalog (database đi sau một flush)
+ * - getStatistics() trả snapshot bất biến đã tính sẵn: O(1), không chạm database
+ * - Bộ đếm cộng dồn giá trị tồn kho bằng long (cent), chỉ đổi sang BigDecimal khi dựng snapshot
+ *
+ * Reconcile đọc kết quả cùng với watermark: tập ProductChangeEvent.sequence đã nằm trong kết quả.
+ * - Catalog mode database: id outbox đã phát lại (ProductOutbox.deliveredThrough) đọc trước, rồi GROUP BY và
+ *   các id outbox lớn hơn đã commit đọc trong cùng một transaction REPEATABLE_READ (cùng snapshot)
+ * - Catalog mode memory: GROUP BY dưới writeMonitor của catalog, kèm số thứ tự ghi cuối cùng
+ * Event đã nằm trong kết quả nhưng tới sau (đã commit, relay chưa phát lại) bị bỏ qua thay vì cộng lần nữa;
+ * event được áp dụng trong lúc reconcile chạy mà chưa nằm trong kết quả được áp dụng lại sau khi thay bộ đếm.
+ */
+@Slf4j
+@Service
+public class CatalogStatisticsService {
+
+    private final ProductRepository productRepository;
+    private final ProductOutboxRepository outboxRepository;
+    private final ProductOutbox outbox;
+    private final ObjectProvider<InMemoryProductCatalog> inMemoryCatalog;
+    private final TransactionTemplate snapshotTransaction;
+
+    // Một reconcile tại một thời điểm
+    private final Object reconcileMonitor = new Object();
+
+    // Guarded by this
+    private final Map<Category, Counter> counters = new EnumMap<>(Category.class);
+    private Watermark watermark = Watermark.NONE;
+    private List<ProductChangeEvent> appliedDuringReconcile;
+    private Instant reconciledAt;
+
+    private volatile CatalogStatistics snapshot;
+
+    public CatalogStatisticsService(ProductRepository productRepository,
+                                    ProductOutboxRepository outboxRepository,
+                                    ProductOutbox outbox,
+                                    ObjectProvider<InMemoryProductCatalog> inMemoryCatalog,
+                                    @Qualifier("productTransactionManager") PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.outboxRepository = outboxRepository;
+        this.outbox = outbox;
+        this.inMemoryCatalog = inMemoryCatalog;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTransaction.setReadOnly(true);
+        for (Category category : Category.values()) {
+            counters.put(category, new Counter());
+        }
+        this.snapshot = buildSnapshot();
+    }
+
+    public CatalogStatistics getStatistics() {
+        return snapshot;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChange(ProductChangeEvent event) {
+        if (event.type() != ProductChangeEvent.Type.CREATED && event.previous() == null) {
+            // Không biết trạng thái trước thay đổi -> không tính được delta
+            reconcile();
+            return;
+        }
+        synchronized (this) {
+            if (appliedDuringReconcile != null) {
+                appliedDuringReconcile.add(event);
+            }
+            if (watermark.consume(event.sequence())) {
+                // Đã nằm trong kết quả của reconcile gần nhất
+                return;
+            }
+            apply(event);
+            snapshot = buildSnapshot();
+        }
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.catalog.stats.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        synchronized (reconcileMonitor) {
+            synchronized (this) {
+                appliedDuringReconcile = new ArrayList<>();
+            }
+            try {
+                Reconciliation result = read();
+                synchronized (this) {
+                    CatalogStatistics before = snapshot;
+                    replaceCounters(result.aggregates());
+                    watermark = result.watermark();
+                    for (ProductChangeEvent event : appliedDuringReconcile) {
+                        if (!watermark.consume(event.sequence())) {
+                            apply(event);
+                        }
+                    }
+                    snapshot = buildSnapshot();
+                    logDrift(before, snapshot);
+                }
+            } finally {
+                synchronized (this) {
+                    appliedDuringReconcile = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * GROUP BY category cùng watermark của nó
+     */
+    private Reconciliation read() {
+        InMemoryProductCatalog catalog = inMemoryCatalog.getIfAvailable();
+        if (catalog != null) {
+            CatalogAggregates aggregates = catalog.aggregateByCategory();
+            return new Reconciliation(aggregates.categories(), new Watermark(aggregates.sequence(), Set.of()));
+        }
+        // Mọi id <= delivered đã commit trước khi snapshot bắt đầu; id lớn hơn thì chỉ những id nhìn thấy
+        long delivered = outbox.deliveredThrough();
+        return snapshotTransaction.execute(status -> new Reconciliation(productRepository.aggregateByCategory(),
+                new Watermark(delivered, new HashSet<>(outboxRepository.findIdsGreaterThan(delivered)))));
+    }
+
+    private void apply(ProductChangeEvent event) {
+        if (event.previous() != null) {
+            counters.get(event.previous().category()).remove(event.previous());
+        }
+        if (event.product() != null) {
+            StockLevel current = StockLevel.of(event.product());
+            counters.get(current.category()).add(current);
+        }
+    }
+
+    private void replaceCounters(List<CategoryAggregate> aggregates) {
+        counters.values().forEach(Counter::clear);
+        for (CategoryAggregate aggregate : aggregates) {
+            Counter counter = counters.get(aggregate.category());
+            counter.count = aggregate.count();
+            counter.units = aggregate.units();
+            counter.stockValueCents = PriceCents.of(aggregate.stockValue());
+        }
+        reconciledAt = Instant.now();
+    }
+
+    private static void logDrift(CatalogStatistics before, CatalogStatistics reconciled) {
+        if (before.reconciledAt() != null && (before.totalProducts() != reconciled.totalProducts()
+                || before.totalUnits() != reconciled.totalUnits()
+                || before.totalStockValue().compareTo(reconciled.totalStockValue()) != 0)) {
+            log.info("Catalog statistics drift corrected: products {} -> {}, units {} -> {}",
+                    before.totalProducts(), reconciled.totalProducts(), before.totalUnits(), reconciled.totalUnits());
+        }
+    }
+
+    private CatalogStatistics buildSnapshot() {
+        long totalProducts = 0;
+        long totalUnits = 0;
+        long totalStockValueCents = 0;
+        Map<String, CategoryStatistics> categories = new LinkedHashMap<>();
+        for (Map.Entry<Category, Counter> entry : counters.entrySet()) {
+            Counter counter = entry.getValue();
+            totalProducts += counter.count;
+            totalUnits += counter.units;
+            totalStockValueCents += counter.stockValueCents;
+            categories.put(entry.getKey().name(), new CategoryStatistics(counter.count, counter.units,
+                    PriceCents.toPrice(counter.stockValueCents)));
+        }
+        return new CatalogStatistics(totalProducts, totalUnits, PriceCents.toPrice(totalStockValueCents),
+                Collections.unmodifiableMap(categories), reconciledAt);
+    }
+
+    private record Reconciliation(List<CategoryAggregate> aggregates, Watermark watermark) {
+    }
+
+    /**
+     * Các sequence đã nằm trong kết quả reconcile: mọi sequence <= through, và các sequence trong included
+     * (id outbox lớn hơn đã commit). Event không có sequence không bao giờ được coi là đã nằm trong kết quả.
+     */
+    private record Watermark(long through, Set<Long> included) {
+
+        static final Watermark NONE = new Watermark(0, Set.of());
+
+        /**
+         * @return true nếu sequence đã nằm trong kết quả (id trong included chỉ khớp một lần)
+         */
+        boolean consume(Long sequence) {
+            if (sequence == null) {
+                return false;
+            }
+            return sequence <= through || (!included.isEmpty() && included.remove(sequence));
+        }
+    }
+
+    private static final class Counter {
+        private long count;
+        private long units;
+        private long stockValueCents;
+
+        private void add(StockLevel stock) {
+            count++;
+            units += stock.quantity();
+            stockValueCents += stock.stockValueCents();
+        }
+
+        private void remove(StockLevel stock) {
+            count--;
+            units -= stock.quantity();
+            stockValueCents -= stock.stockValueCents();
+        }
+
+        private void clear() {
+            count = 0;
+            units = 0;
+            stockValueCents = 0;
+        }
+    }
+}
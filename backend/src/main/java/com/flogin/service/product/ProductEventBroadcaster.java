@@ -0,0 +1,270 @@
+package com.flogin.service.product;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flogin.event.ProductChangeEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Phát ProductChangeEvent tới các client SSE.
+ *
+ * - Mỗi event được gán id "<epoch>-<số thứ tự>", serialize một lần và giữ trong replay buffer (replay-size)
+ *   để client reconnect với Last-Event-ID nhận lại phần bị lỡ. epoch là thời điểm khởi động (base 36):
+ *   số thứ tự chỉ có nghĩa trong một lần chạy của một instance, nên Last-Event-ID của lần chạy trước
+ *   (hoặc của instance khác) không bao giờ bị hiểu nhầm thành vị trí hiện tại.
+ *   Nếu phần bị lỡ đã rơi khỏi buffer, hoặc epoch khác, client nhận event "reset" và nên tải lại GET /api/products.
+ * - Mỗi client có một hàng đợi bounded (client-buffer-size); việc ghi ra socket (blocking) chạy trên
+ *   executor riêng dùng virtual thread, nên client chậm không chặn ProductService và không chiếm
+ *   applicationTaskExecutor (@Async, bootstrap JPA).
+ * - Client không theo kịp (hàng đợi đầy) bị ngắt kết nối; EventSource sẽ tự reconnect và resume.
+ *   Lỗi ghi (client đã ngắt) kết thúc emitter bằng completeWithError để container đóng request.
+ */
+@Slf4j
+@Component
+public class ProductEventBroadcaster implements DisposableBean {
+
+    static final String RESET_EVENT = "reset";
+
+    private final Executor executor;
+    // Executor tự tạo (đóng khi shutdown); null nếu được truyền vào
+    private final ExecutorService ownedExecutor;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final ObjectMapper objectMapper;
+    private final int clientBufferSize;
+    private final int replaySize;
+    private final long timeoutMillis;
+
+    private final Deque<SequencedEvent> replay = new ArrayDeque<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private long lastEventId;
+
+    @Autowired
+    public ProductEventBroadcaster(
+            ObjectMapper objectMapper,
+            @Value("${app.sse.client-buffer-size:256}") int clientBufferSize,
+            @Value("${app.sse.replay-size:1024}") int replaySize,
+            @Value("${app.sse.timeout-ms:1800000}") long timeoutMillis) {
+        this(Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("sse-send-", 0).factory()),
+                true, objectMapper, clientBufferSize, replaySize, timeoutMillis);
+    }
+
+    /**
+     * Ghi ra socket trên executor cho trước (không bị đóng khi shutdown)
+     */
+    public ProductEventBroadcaster(Executor executor, ObjectMapper objectMapper, int clientBufferSize,
+                                   int replaySize, long timeoutMillis) {
+        this(executor, false, objectMapper, clientBufferSize, replaySize, timeoutMillis);
+    }
+
+    private ProductEventBroadcaster(Executor executor, boolean owned, ObjectMapper objectMapper,
+                                    int clientBufferSize, int replaySize, long timeoutMillis) {
+        this.executor = executor;
+        this.ownedExecutor = owned ? (ExecutorService) executor : null;
+        this.objectMapper = objectMapper;
+        this.clientBufferSize = clientBufferSize;
+        this.replaySize = replaySize;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public void destroy() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Đăng ký client mới; resumeFromEventId != null thì replay các event sau id đó trước
+     */
+    public SseEmitter subscribe(String resumeFromEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(clientBufferSize));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        synchronized (this) {
+            if (resumeFromEventId != null && !resumeFromEventId.equals(eventId(lastEventId))) {
+                List<Set<DataWithMediaType>> missed = eventsAfter(resumeFromEventId);
+                if (missed == null || missed.size() > clientBufferSize) {
+                    subscriber.queue.offer(resetEvent());
+                } else {
+                    missed.forEach(subscriber.queue::offer);
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        scheduleDrain(subscriber);
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChange(ProductChangeEvent event) {
+        synchronized (this) {
+            long id = ++lastEventId;
+            Set<DataWithMediaType> data = SseEmitter.event()
+                    .id(eventId(id))
+                    .name(event.type().name().toLowerCase())
+                    .data(toJson(event), MediaType.APPLICATION_JSON)
+                    .build();
+            replay.addLast(new SequencedEvent(id, data));
+            if (replay.size() > replaySize) {
+                replay.removeFirst();
+            }
+            subscribers.forEach(subscriber -> enqueue(subscriber, data));
+        }
+    }
+
+    /**
+     * Comment keep-alive: giữ kết nối qua proxy và phát hiện client đã ngắt
+     */
+    @Scheduled(fixedDelayString = "${app.sse.heartbeat-interval-ms:15000}")
+    public void sendHeartbeats() {
+        Set<DataWithMediaType> heartbeat = SseEmitter.event().comment("keep-alive").build();
+        subscribers.forEach(subscriber -> enqueue(subscriber, heartbeat));
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Phần đầu của mọi event id trong lần chạy này
+     */
+    public String getEpoch() {
+        return epoch;
+    }
+
+    private String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    /**
+     * Các event sau eventId, hoặc null nếu không resume được (id của lần chạy / instance khác, id không hợp lệ,
+     * hoặc không còn đủ trong replay buffer)
+     */
+    private List<Set<DataWithMediaType>> eventsAfter(String eventId) {
+        int separator = eventId.lastIndexOf('-');
+        if (separator < 0 || !eventId.substring(0, separator).equals(epoch)) {
+            return null;
+        }
+        long afterId;
+        try {
+            afterId = Long.parseLong(eventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (afterId < 0 || afterId > lastEventId) {
+            return null;
+        }
+        if (replay.isEmpty() || replay.peekFirst().id() > afterId + 1) {
+            return null;
+        }
+        List<Set<DataWithMediaType>> missed = new ArrayList<>();
+        for (SequencedEvent event : replay) {
+            if (event.id() > afterId) {
+                missed.add(event.data());
+            }
+        }
+        return missed;
+    }
+
+    private Set<DataWithMediaType> resetEvent() {
+        return SseEmitter.event()
+                .id(eventId(lastEventId))
+                .name(RESET_EVENT)
+                .data(toJson(Map.of("lastEventId", eventId(lastEventId))), MediaType.APPLICATION_JSON)
+                .build();
+    }
+
+    private void enqueue(Subscriber subscriber, Set<DataWithMediaType> data) {
+        if (!subscriber.queue.offer(data)) {
+            // Slow consumer: ngắt kết nối thay vì để hàng đợi tăng vô hạn.
+            // complete() chạy trên executor vì có thể phải chờ một lần send đang bị chặn.
+            subscribers.remove(subscriber);
+            executor.execute(subscriber.emitter::complete);
+            return;
+        }
+        scheduleDrain(subscriber);
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        if (!subscriber.queue.isEmpty() && subscriber.draining.compareAndSet(false, true)) {
+            executor.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            Set<DataWithMediaType> data;
+            while ((data = subscriber.queue.poll()) != null) {
+                subscriber.emitter.send(data);
+            }
+        } catch (IOException e) {
+            // Client đã ngắt: báo cho container để request async được đóng ngay
+            subscribers.remove(subscriber);
+            subscriber.queue.clear();
+            log.debug("SSE send failed, closing subscriber: {}", e.getMessage());
+            subscriber.emitter.completeWithError(e);
+            return;
+        } catch (IllegalStateException e) {
+            // Emitter đã kết thúc (timeout, complete)
+            subscribers.remove(subscriber);
+            subscriber.queue.clear();
+            return;
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // Event có thể được enqueue ngay sau lần poll cuối
+        scheduleDrain(subscriber);
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record SequencedEvent(long id, Set<DataWithMediaType> data) {
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<DataWithMediaType>> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter, BlockingQueue<Set<DataWithMediaType>> queue) {
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+    }
+}
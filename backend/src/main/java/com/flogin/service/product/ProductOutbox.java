@@ -0,0 +1,397 @@
+package com.flogin.service.product;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flogin.audit.AuditLog;
+import com.flogin.catalog.InMemoryProductCatalog;
+import com.flogin.dto.product.ProductResponse;
+import com.flogin.dto.product.StockLevel;
+import com.flogin.entity.product.ProductOutboxEvent;
+import com.flogin.entity.product.ProductOutboxOffset;
+import com.flogin.event.ProductChangeEvent;
+import com.flogin.repository.product.ProductOutboxOffsetRepository;
+import com.flogin.repository.product.ProductOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Transactional outbox cho thay đổi sản phẩm (catalog mode database).
+ *
+ * - append(): ProductService ghi ProductChangeEvent vào bảng product_outbox trong chính transaction của
+ *   thay đổi sản phẩm - event tồn tại khi và chỉ khi thay đổi đã commit, kể cả khi process chết ngay sau commit.
+ * - Relay thread riêng đọc product_outbox theo id tăng dần (batch-size dòng mỗi lần) và publish lại
+ *   ProductChangeEvent cho các listener trong process (ProductJsonCache, SSE, catalog statistics, audit log);
+ *   thức dậy ngay sau mỗi commit của instance này, và mỗi poll-interval-ms cho thay đổi từ instance khác.
+ * - Vị trí đã phát lại (deliveredThrough) được lưu vào product_outbox_offsets theo consumer (mỗi instance
+ *   một dòng) sau mỗi batch. Khi khởi động relay tiếp tục từ vị trí đã lưu, nên event commit ngay trước khi
+ *   process chết vẫn tới SSE và audit log (có thể phát lại lần nữa event đã phát trước khi chết: at-least-once).
+ *   Không phát lại xa hơn retention (dòng cũ hơn có thể đã bị purge); consumer chưa có offset (instance mới)
+ *   bắt đầu từ id lớn nhất hiện có - các listener tự dựng lại trạng thái từ database.
+ *
+ * Id được cấp lúc INSERT nhưng transaction commit theo thứ tự bất kỳ, nên id nhỏ hơn có thể xuất hiện sau
+ * id lớn hơn. Relay phát lại theo id liên tiếp: gặp khoảng trống thì dừng batch và chờ. Tuổi của khoảng
+ * trống đo bằng đồng hồ của relay (lúc nó thấy khoảng trống lần đầu), không dùng created_at của instance ghi.
+ * Khoảng trống đã chờ quá gap-timeout-ms (transaction chạy lâu, hoặc đã rollback) thì relay đi tiếp nhưng
+ * nhớ các id đó và query lại chúng mỗi batch: id nào commit muộn vẫn được phát lại (muộn, không theo thứ tự
+ * id - thay đổi của cùng một sản phẩm vẫn đúng thứ tự vì transaction sau phải chờ row lock của transaction
+ * trước). Id vẫn chưa xuất hiện sau skipped-retry (coi như đã rollback) hoặc vượt quá MAX_TRACKED_GAPS thì
+ * bị bỏ.
+ *
+ * Listener ném exception thì event được tính là failed và không phát lại (các listener khác đã nhận).
+ * Dòng cũ hơn retention bị xóa định kỳ; offset không được cập nhật trong 2 x retention (instance đã dừng,
+ * hostname đổi) cũng vậy - offset của instance đang chạy được ghi lại ít nhất mỗi retention / 2.
+ *
+ * Metrics: flogin.outbox.events (outcome = delivered / failed), flogin.outbox.gaps.skipped (id bị vượt qua),
+ * flogin.outbox.gaps.recovered (phát lại muộn), flogin.outbox.gaps.abandoned (bỏ hẳn),
+ * flogin.outbox.delay (từ lúc ghi tới lúc phát lại), flogin.outbox.offset.
+ */
+@Slf4j
+@Component
+public class ProductOutbox implements DisposableBean {
+
+    // Số id khoảng trống được nhớ tối đa (chờ hoặc đã vượt qua); vượt quá thì bỏ id nhỏ nhất
+    static final int MAX_TRACKED_GAPS = 1000;
+
+    private final ProductOutboxRepository outboxRepository;
+    private final ProductOutboxOffsetRepository offsetRepository;
+    private final ObjectProvider<InMemoryProductCatalog> inMemoryCatalog;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final String consumer;
+    private final int batchSize;
+    private final long pollIntervalNanos;
+    private final Duration gapTimeout;
+    private final Duration skippedRetry;
+    private final Duration retention;
+
+    private final Counter delivered;
+    private final Counter failed;
+    private final Counter gapsSkipped;
+    private final Counter gapsRecovered;
+    private final Counter gapsAbandoned;
+    private final Timer delay;
+
+    // Id cuối cùng của đoạn id liên tiếp đã xử lý (phát lại hoặc vượt qua)
+    private final AtomicLong offset = new AtomicLong();
+    // Id chưa thấy trong một khoảng trống -> lúc relay thấy khoảng trống lần đầu (đồng hồ của relay).
+    // Key > offset: đang chờ; key <= offset: đã vượt qua, được query lại mỗi batch tới skipped-retry.
+    private final NavigableMap<Long, Instant> missing = new ConcurrentSkipListMap<>();
+    // Chỉ relay thread dùng: giá trị và lúc ghi của offset đã lưu
+    private long savedThrough = -1;
+    private Instant savedAt = Instant.MIN;
+    private final Thread relay;
+    private volatile boolean running;
+
+    public ProductOutbox(
+            ProductOutboxRepository outboxRepository,
+            ProductOutboxOffsetRepository offsetRepository,
+            ObjectProvider<InMemoryProductCatalog> inMemoryCatalog,
+            ApplicationEventPublisher eventPublisher,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${app.outbox.consumer:${HOSTNAME:local}}") String consumer,
+            @Value("${app.outbox.batch-size:200}") int batchSize,
+            @Value("${app.outbox.poll-interval-ms:1000}") long pollIntervalMillis,
+            @Value("${app.outbox.gap-timeout-ms:5000}") long gapTimeoutMillis,
+            @Value("${app.outbox.skipped-retry:10m}") Duration skippedRetry,
+            @Value("${app.outbox.retention:24h}") Duration retention) {
+        this.outboxRepository = outboxRepository;
+        this.offsetRepository = offsetRepository;
+        this.inMemoryCatalog = inMemoryCatalog;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.consumer = consumer;
+        this.batchSize = batchSize;
+        this.pollIntervalNanos = TimeUnit.MILLISECONDS.toNanos(pollIntervalMillis);
+        this.gapTimeout = Duration.ofMillis(gapTimeoutMillis);
+        this.skippedRetry = skippedRetry;
+        this.retention = retention;
+
+        this.delivered = Counter.builder("flogin.outbox.events").tag("outcome", "delivered").register(meterRegistry);
+        this.failed = Counter.builder("flogin.outbox.events").tag("outcome", "failed").register(meterRegistry);
+        this.gapsSkipped = Counter.builder("flogin.outbox.gaps.skipped").register(meterRegistry);
+        this.gapsRecovered = Counter.builder("flogin.outbox.gaps.recovered").register(meterRegistry);
+        this.gapsAbandoned = Counter.builder("flogin.outbox.gaps.abandoned").register(meterRegistry);
+        this.delay = Timer.builder("flogin.outbox.delay").register(meterRegistry);
+        Gauge.builder("flogin.outbox.offset", offset, AtomicLong::get).register(meterRegistry);
+
+        this.relay = Thread.ofPlatform().name("product-outbox-relay").daemon().unstarted(this::run);
+    }
+
+    /**
+     * Ghi event vào outbox trong transaction hiện tại của product datasource (bắt buộc phải có)
+     */
+    @Transactional(transactionManager = "productTransactionManager", propagation = Propagation.MANDATORY)
+    public void append(ProductChangeEvent event) {
+        ProductOutboxEvent row = new ProductOutboxEvent();
+        row.setEventType(event.type());
+        row.setProductId(event.productId());
+        row.setPayload(serialize(event.product()));
+        StockLevel previous = event.previous();
+        if (previous != null) {
+            row.setPreviousCategory(previous.category());
+            row.setPreviousPriceCents(previous.priceCents());
+            row.setPreviousQuantity(previous.quantity());
+        }
+        row.setActor(AuditLog.currentActor());
+        row.setCreatedAt(event.occurredAt());
+        outboxRepository.save(row);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                LockSupport.unpark(relay);
+            }
+        });
+    }
+
+    /**
+     * Bắt đầu relay sau khi context sẵn sàng (product repositories bootstrap DEFERRED)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (inMemoryCatalog.getIfAvailable() != null || running) {
+            return;
+        }
+        offset.set(resumeFrom(Instant.now()));
+        running = true;
+        relay.start();
+    }
+
+    /**
+     * Id bắt đầu relay: offset đã lưu của consumer, nhưng không cũ hơn retention
+     */
+    long resumeFrom(Instant now) {
+        long latest = outboxRepository.findMaxId();
+        ProductOutboxOffset saved = offsetRepository.findById(consumer).orElse(null);
+        if (saved == null) {
+            return latest;
+        }
+        Long oldest = outboxRepository.findMinIdCreatedSince(now.minus(retention));
+        long floor = oldest != null ? Math.min(oldest - 1, latest) : latest;
+        long resume = Math.min(Math.max(saved.getLastId(), floor), latest);
+        if (saved.getLastId() < floor) {
+            log.warn("Product outbox consumer {} was stopped longer than {}: events {}..{} are not replayed",
+                    consumer, retention, saved.getLastId() + 1, floor);
+        } else if (resume < latest) {
+            log.info("Product outbox consumer {} resuming after id {} ({} events behind)", consumer, resume, latest - resume);
+        }
+        savedThrough = resume;
+        savedAt = saved.getUpdatedAt();
+        return resume;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(relay);
+        relay.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    @Scheduled(initialDelayString = "${app.outbox.purge-interval-ms:600000}",
+            fixedDelayString = "${app.outbox.purge-interval-ms:600000}")
+    public void purge() {
+        if (!running) {
+            return;
+        }
+        Instant cutoff = Instant.now().minus(retention);
+        int events = outboxRepository.deleteCreatedBefore(cutoff);
+        int offsets = offsetRepository.deleteUpdatedBefore(cutoff.minus(retention));
+        if (events > 0 || offsets > 0) {
+            log.debug("Product outbox purged {} events older than {} and {} stale offsets", events, cutoff, offsets);
+        }
+    }
+
+    private void run() {
+        while (running) {
+            boolean more;
+            try {
+                more = relayBatch();
+            } catch (RuntimeException e) {
+                log.warn("Product outbox relay failed, will retry", e);
+                more = false;
+            }
+            if (!more) {
+                LockSupport.parkNanos(this, pollIntervalNanos);
+            }
+        }
+    }
+
+    /**
+     * Phát lại các id đã vượt qua nay đã commit, rồi một batch các id liên tiếp sau offset
+     *
+     * @return true nếu có thể còn dòng chờ phát lại ngay (batch đầy và không dừng ở khoảng trống)
+     */
+    boolean relayBatch() {
+        Instant now = Instant.now();
+        retrySkipped(now);
+        boolean more = relayContiguous(now);
+        saveOffset(now);
+        return more;
+    }
+
+    private boolean relayContiguous(Instant now) {
+        long last = offset.get();
+        List<ProductOutboxEvent> rows = outboxRepository.findByIdGreaterThanOrderByIdAsc(last, Limit.of(batchSize));
+        for (ProductOutboxEvent row : rows) {
+            long from = last + 1;
+            long to = row.getId() - 1;
+            if (to >= from) {
+                // Id from..to chưa commit (hoặc đã rollback): chờ tới khi relay đã thấy khoảng trống đủ lâu
+                if (Duration.between(trackGap(from, to, now), now).compareTo(gapTimeout) < 0) {
+                    offset.set(last);
+                    return false;
+                }
+                gapsSkipped.increment(to - from + 1);
+                log.debug("Product outbox skipped ids {}..{} (retried for {})", from, to, skippedRetry);
+            }
+            missing.remove(row.getId());
+            publish(row, now);
+            last = row.getId();
+        }
+        offset.set(last);
+        return rows.size() == batchSize;
+    }
+
+    /**
+     * Id nhỏ nhất có thể còn được phát lại sau này: mọi event có id nhỏ hơn hoặc bằng đã được phát lại
+     * (hoặc bị bỏ hẳn)
+     */
+    public long deliveredThrough() {
+        long last = offset.get();
+        Map.Entry<Long, Instant> oldestMissing = missing.firstEntry();
+        return oldestMissing != null ? Math.min(last, oldestMissing.getKey() - 1) : last;
+    }
+
+    /**
+     * Lưu deliveredThrough() khi nó thay đổi, và ít nhất mỗi retention / 2 để offset không bị purge
+     */
+    private void saveOffset(Instant now) {
+        long through = deliveredThrough();
+        if (through == savedThrough && savedAt.isAfter(now.minus(retention.dividedBy(2)))) {
+            return;
+        }
+        offsetRepository.save(new ProductOutboxOffset(consumer, through, now));
+        savedThrough = through;
+        savedAt = now;
+    }
+
+    /**
+     * Ghi nhận khoảng trống from..to (giữ lúc thấy lần đầu của id đã biết)
+     *
+     * @return lúc thấy lần đầu muộn nhất trong khoảng - mọi id của khoảng đã chờ ít nhất từ đó
+     */
+    private Instant trackGap(long from, long to, Instant now) {
+        long tracked = Math.max(from, to - MAX_TRACKED_GAPS + 1);
+        if (tracked > from) {
+            gapsAbandoned.increment(tracked - from);
+            log.warn("Product outbox gap {}..{} too large: ids {}..{} will not be retried", from, to, from, tracked - 1);
+        }
+        Instant latest = Instant.MIN;
+        for (long id = tracked; id <= to; id++) {
+            Instant firstSeen = missing.putIfAbsent(id, now);
+            firstSeen = firstSeen != null ? firstSeen : now;
+            if (firstSeen.isAfter(latest)) {
+                latest = firstSeen;
+            }
+        }
+        while (missing.size() > MAX_TRACKED_GAPS) {
+            Map.Entry<Long, Instant> oldest = missing.pollFirstEntry();
+            gapsAbandoned.increment();
+            log.warn("Product outbox too many gaps: id {} will not be retried", oldest.getKey());
+        }
+        return latest;
+    }
+
+    /**
+     * Query lại các id đã vượt qua: id đã commit thì phát lại (muộn), id chờ quá skipped-retry thì bỏ
+     */
+    private void retrySkipped(Instant now) {
+        NavigableMap<Long, Instant> skipped = missing.headMap(offset.get(), true);
+        if (skipped.isEmpty()) {
+            return;
+        }
+        skipped.entrySet().removeIf(entry -> {
+            if (Duration.between(entry.getValue(), now).compareTo(skippedRetry) < 0) {
+                return false;
+            }
+            gapsAbandoned.increment();
+            log.debug("Product outbox id {} never committed within {}: treated as rolled back",
+                    entry.getKey(), skippedRetry);
+            return true;
+        });
+        if (skipped.isEmpty()) {
+            return;
+        }
+        List<ProductOutboxEvent> late = outboxRepository.findAllById(List.copyOf(skipped.keySet())).stream()
+                .sorted(Comparator.comparing(ProductOutboxEvent::getId))
+                .toList();
+        for (ProductOutboxEvent row : late) {
+            gapsRecovered.increment();
+            log.debug("Product outbox id {} committed after being skipped: delivered late", row.getId());
+            publish(row, now);
+            // Sau khi phát lại: deliveredThrough() không được vượt qua id còn đang phát lại
+            missing.remove(row.getId());
+        }
+    }
+
+    private void publish(ProductOutboxEvent row, Instant now) {
+        try {
+            ProductResponse product = row.getPayload() != null
+                    ? objectMapper.readValue(row.getPayload(), ProductResponse.class)
+                    : null;
+            StockLevel previous = row.getPreviousCategory() != null
+                    ? new StockLevel(row.getPreviousCategory(), row.getPreviousPriceCents(), row.getPreviousQuantity())
+                    : null;
+            eventPublisher.publishEvent(new ProductChangeEvent(row.getEventType(), row.getProductId(), product,
+                    previous, row.getCreatedAt(), row.getActor(), row.getId()));
+            delivered.increment();
+        } catch (JsonProcessingException | RuntimeException e) {
+            failed.increment();
+            log.warn("Product outbox event {} ({} product {}) could not be delivered",
+                    row.getId(), row.getEventType(), row.getProductId(), e);
+        }
+        delay.record(Duration.between(row.getCreatedAt(), now));
+    }
+
+    private String serialize(ProductResponse product) {
+        if (product == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(product);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize product " + product.getId() + " for outbox", e);
+        }
+    }
+}
@@ -1,19 +1,40 @@
 package com.flogin.service.product;
 
+import com.flogin.catalog.InMemoryProductCatalog;
+import com.flogin.dto.product.CatalogVersion;
+import com.flogin.dto.product.PriceCents;
+import com.flogin.dto.product.ProductField;
+import com.flogin.dto.product.ProductFilter;
 import com.flogin.dto.product.ProductMapper;
 import com.flogin.dto.product.ProductRequest;
 import com.flogin.dto.product.ProductResponse;
+import com.flogin.dto.product.ProductSuggestion;
+import com.flogin.dto.product.StockLevel;
 import com.flogin.entity.product.Category;
 import com.flogin.entity.product.Product;
+import com.flogin.event.ProductChangeEvent;
 import com.flogin.repository.product.ProductRepository;
+import com.flogin.repository.product.ProductSpecifications;
 import com.flogin.exception.BadRequestException;
 import com.flogin.exception.NotFoundException;
-import lombok.RequiredArgsConstructor;
+import com.flogin.jfr.PhaseEvent;
+import com.flogin.search.ProductSearchIndex;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -25,89 +46,382 @@ import java.util.stream.Collectors;
  * - Quantity: >= 0 và <= 99,999
  * - Description: <= 500 ký tự (optional)
  * - Category: Phải thuộc danh sách categories có sẵn
+ * 
+ * Mỗi create/update/delete tạo một ProductChangeEvent (SSE feed, cache, ...): với database event được ghi
+ * vào ProductOutbox trong cùng transaction (productTransactionManager) và được phát lại sau commit.
+ * Với app.catalog.mode=memory, đọc / ghi đi qua InMemoryProductCatalog thay vì ProductRepository
+ * (validation giữ nguyên, event được publish trực tiếp).
+ *
+ * Catalog được kiểm tra trước khi mở transaction: chỉ nhánh database chạy trong transaction của
+ * productTransactionManager (TransactionTemplate), nên với catalog mode memory không có thao tác nào mượn
+ * connection của product datasource hay chờ EntityManagerFactory.
  */
 @Service
-@RequiredArgsConstructor
+@Timed(value = "flogin.service", extraTags = {"datasource", "product"})
 public class ProductService {
     
     private final ProductRepository productRepository;
     private final ProductMapper productMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductOutbox productOutbox;
+    private final ProductSearchIndex productSearchIndex;
+    private final ObjectProvider<InMemoryProductCatalog> inMemoryCatalog;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
     
-    private static final BigDecimal MAX_PRICE = new BigDecimal("999999999");
+    // 999,999,999 tính theo cent (PriceCents)
+    private static final long MAX_PRICE_CENTS = 999_999_999_00L;
     private static final int MAX_QUANTITY = 99999;
     private static final int MIN_NAME_LENGTH = 3;
     private static final int MAX_NAME_LENGTH = 100;
     private static final int MAX_DESCRIPTION_LENGTH = 500;
     
-    @Transactional
+    // Số kết quả tìm kiếm mặc định / tối đa
+    public static final int DEFAULT_SEARCH_LIMIT = 20;
+    public static final int MAX_SEARCH_LIMIT = 100;
+    
+    // Số gợi ý autocomplete mặc định / tối đa
+    public static final int DEFAULT_SUGGEST_LIMIT = 10;
+    public static final int MAX_SUGGEST_LIMIT = ProductSearchIndex.MAX_SUGGESTIONS;
+    
+    // Giá trị sort của API -> thuộc tính entity
+    private static final Map<String, String> SORT_PROPERTIES = Map.of(
+            "price", "price",
+            "createdAt", "createdAt");
+    
+    // Tên operation cho PhaseEvent (JFR)
+    private static final String CREATE_OPERATION = "ProductService.createProduct";
+    private static final String UPDATE_OPERATION = "ProductService.updateProduct";
+    private static final String GET_ALL_OPERATION = "ProductService.getAllProducts";
+    
+    public ProductService(ProductRepository productRepository,
+                          ProductMapper productMapper,
+                          ApplicationEventPublisher eventPublisher,
+                          ProductOutbox productOutbox,
+                          ProductSearchIndex productSearchIndex,
+                          ObjectProvider<InMemoryProductCatalog> inMemoryCatalog,
+                          @Qualifier("productTransactionManager") PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.eventPublisher = eventPublisher;
+        this.productOutbox = productOutbox;
+        this.productSearchIndex = productSearchIndex;
+        this.inMemoryCatalog = inMemoryCatalog;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+    
     public ProductResponse createProduct(ProductRequest request) {
-        // Validate request
-        validateProductRequest(request);
+        prepareRequest(request, CREATE_OPERATION);
         
-        // Trim name and description
-        request.setName(request.getName().trim());
-        if (request.getDescription() != null) {
-            request.setDescription(request.getDescription().trim());
+        InMemoryProductCatalog catalog = inMemoryCatalog.getIfAvailable();
+        if (catalog != null) {
+            ProductChangeEvent event;
+            try (PhaseEvent phase = PhaseEvent.start(CREATE_OPERATION, "catalog")) {
+                event = catalog.create(request);
+            }
+            eventPublisher.publishEvent(event);
+            return event.product();
         }
         
-        // Create product
-        Product product = productMapper.toEntity(request);
-        Product savedProduct = productRepository.save(product);
-        
-        return productMapper.toResponse(savedProduct);
+        return writeTransaction.execute(status -> {
+            // Create product
+            Product product;
+            try (PhaseEvent phase = PhaseEvent.start(CREATE_OPERATION, "mapping")) {
+                product = productMapper.toEntity(request);
+            }
+            Product savedProduct;
+            try (PhaseEvent phase = PhaseEvent.start(CREATE_OPERATION, "repository")) {
+                savedProduct = productRepository.save(product);
+            }
+            
+            ProductResponse response;
+            try (PhaseEvent phase = PhaseEvent.start(CREATE_OPERATION, "mapping")) {
+                response = productMapper.toResponse(savedProduct);
+            }
+            productOutbox.append(ProductChangeEvent.created(response));
+            return response;
+        });
     }
     
-    @Transactional(readOnly = true)
     public List<ProductResponse> getAllProducts() {
-        return productRepository.findAll().stream()
-                .map(productMapper::toResponse)
-                .collect(Collectors.toList());
+        InMemoryProductCatalog catalog = inMemoryCatalog.getIfAvailable();
+        if (catalog != null) {
+            return catalog.findAll();
+        }
+        return readTransaction.execute(status -> {
+            List<Product> products;
+            try (PhaseEvent phase = PhaseEvent.start(GET_ALL_OPERATION, "repository")) {
+                products = productRepository.findAll();
+            }
+            try (PhaseEvent phase = PhaseEvent.start(GET_ALL_OPERATION, "mapping")) {
+                return products.stream()
+                        .map(productMapper::toResponse)
+                        .collect(Collectors.toList());
+            }
+        });
     }
     
-    @Transactional(readOnly = true)
     public List<ProductResponse> searchProducts(String keyword) {
-        return productRepository.findByNameContainingIgnoreCase(keyword).stream()
-                .map(productMapper::toResponse)
+        return searchProducts(keyword, DEFAULT_SEARCH_LIMIT);
+    }
+    
+    /**
+     * Tìm theo tên / mô tả qua ProductSearchIndex (prefix, không phân biệt hoa thường / dấu, xếp hạng):
+     * không chạm database, không mở transaction. Trong lúc index chưa dựng xong (khởi động) thì tìm
+     * tên chứa keyword như trước, trả tối đa limit kết quả đầu tiên.
+     */
+    public List<ProductResponse> searchProducts(String keyword, int limit) {
+        if (limit < 1 || limit > MAX_SEARCH_LIMIT) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_SEARCH_LIMIT);
+        }
+        if (keyword == null || keyword.isBlank()) {
+            return List.of();
+        }
+        if (productSearchIndex.isReady()) {
+            return productSearchIndex.search(keyword, limit);
+        }
+        InMemoryProductCatalog catalog = inMemoryCatalog.getIfAvailable();
+        List<ProductResponse> products = catalog != null
+                ? catalog.search(keyword)
+                : productRepository.findByNameContainingIgnoreCase(keyword).stream()
+                        .map(productMapper::toResponse)
+                        .collect(Collectors.toList());
+        return products.size() > limit ? products.subList(0, limit) : products;
+    }
+    
+    /**
+     * Gợi ý tên sản phẩm cho autocomplete (NameTrie trong ProductSearchIndex): sản phẩm có một từ trong tên
+     * bắt đầu bằng prefix, không chạm database. Trong lúc index chưa dựng xong thì lấy tên chứa prefix.
+     */
+    public List<ProductSuggestion> suggestProductNames(String prefix, int limit) {
+        if (limit < 1 || limit > MAX_SUGGEST_LIMIT) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_SUGGEST_LIMIT);
+        }
+        if (prefix == null || prefix.isBlank()) {
+            return List.of();
+        }
+        if (productSearchIndex.isReady()) {
+            return productSearchIndex.suggest(prefix, limit);
+        }
+        InMemoryProductCatalog catalog = inMemoryCatalog.getIfAvailable();
+        List<ProductResponse> products = catalog != null
+                ? catalog.search(prefix)
+                : productRepository.findByNameContainingIgnoreCase(prefix).stream()
+                        .map(productMapper::toResponse)
+                        .collect(Collectors.toList());
+        return products.stream()
+                .limit(limit)
+                .map(product -> new ProductSuggestion(product.getId(), product.getName()))
                 .collect(Collectors.toList());
     }
     
-    @Transactional(readOnly = true)
-    public ProductResponse getProductById(Long id) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new NotFoundException("Product not found with id: " + id));
+    /**
+     * Lọc theo category / khoảng giá / còn hàng và sắp xếp theo price hoặc createdAt (id làm tie-breaker)
+     */
+    public List<ProductResponse> filterProducts(ProductFilter filter) {
+        Category category = toCategory(filter);
         
-        return productMapper.toResponse(product);
+        InMemoryProductCatalog catalog = inMemoryCatalog.getIfAvailable();
+        if (catalog != null) {
+            return catalog.filter(category, filter.getMinPrice(), filter.getMaxPrice(), filter.getInStock(),
+                    toSort(filter));
+        }
+        
+        return readTransaction.execute(status ->
+                productRepository.findAll(toSpecification(filter, category), toSort(filter)).stream()
+                        .map(productMapper::toResponse)
+                        .collect(Collectors.toList()));
     }
     
-    @Transactional
-    public ProductResponse updateProduct(Long id, ProductRequest request) {
-        // Find existing product
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new NotFoundException("Product not found with id: " + id));
-        
-        // Validate request
-        validateProductRequest(request);
+    /**
+     * Như filterProducts (filter rỗng = toàn bộ catalog theo id) nhưng chỉ trả các field được chọn:
+     * với database chỉ các cột đó được SELECT (ProductProjectionRepository), không load entity
+     */
+    public List<Map<String, Object>> findProductFields(ProductFilter filter, Set<ProductField> fields) {
+        Category category = toCategory(filter);
         
-        // Trim name and description
-        request.setName(request.getName().trim());
-        if (request.getDescription() != null) {
-            request.setDescription(request.getDescription().trim());
+        InMemoryProductCatalog catalog = inMemoryCatalog.getIfAvailable();
+        if (catalog != null) {
+            List<ProductResponse> products = filter.isEmpty()
+                    ? catalog.findAll()
+                    : catalog.filter(category, filter.getMinPrice(), filter.getMaxPrice(), filter.getInStock(),
+                            toSort(filter));
+            return products.stream()
+                    .map(product -> ProductField.project(product, fields))
+                    .collect(Collectors.toList());
         }
         
-        // Update product
-        productMapper.updateEntity(product, request);
-        Product updatedProduct = productRepository.save(product);
+        return readTransaction.execute(status ->
+                productRepository.findAllProjected(toSpecification(filter, category), toSort(filter), fields));
+    }
+    
+    private static Category toCategory(ProductFilter filter) {
+        Category category = null;
+        if (filter.getCategory() != null) {
+            if (!Category.isValid(filter.getCategory())) {
+                throw new BadRequestException("Invalid category: " + filter.getCategory());
+            }
+            category = Category.fromString(filter.getCategory());
+        }
+        if (filter.getMinPrice() != null && filter.getMaxPrice() != null
+                && filter.getMinPrice().compareTo(filter.getMaxPrice()) > 0) {
+            throw new BadRequestException("minPrice must not be greater than maxPrice");
+        }
+        return category;
+    }
+    
+    private static Specification<Product> toSpecification(ProductFilter filter, Category category) {
+        List<Specification<Product>> conditions = new ArrayList<>();
+        if (category != null) {
+            conditions.add(ProductSpecifications.hasCategory(category));
+        }
+        if (filter.getMinPrice() != null) {
+            conditions.add(ProductSpecifications.priceAtLeast(filter.getMinPrice()));
+        }
+        if (filter.getMaxPrice() != null) {
+            conditions.add(ProductSpecifications.priceAtMost(filter.getMaxPrice()));
+        }
+        if (filter.getInStock() != null) {
+            conditions.add(ProductSpecifications.inStock(filter.getInStock()));
+        }
+        return Specification.allOf(conditions);
+    }
+    
+    private static Sort toSort(ProductFilter filter) {
+        Sort.Direction direction = Sort.Direction.ASC;
+        if (filter.getDirection() != null) {
+            direction = Sort.Direction.fromOptionalString(filter.getDirection())
+                    .orElseThrow(() -> new BadRequestException("Invalid direction: " + filter.getDirection()
+                            + ". Valid values are: asc, desc"));
+        }
+        if (filter.getSort() == null) {
+            return Sort.by(direction, "id");
+        }
+        String property = SORT_PROPERTIES.get(filter.getSort());
+        if (property == null) {
+            throw new BadRequestException("Invalid sort: " + filter.getSort() + ". Valid values are: price, createdAt");
+        }
+        return Sort.by(direction, property).and(Sort.by(direction, "id"));
+    }
+    
+    public ProductResponse getProductById(Long id) {
+        InMemoryProductCatalog catalog = inMemoryCatalog.getIfAvailable();
+        if (catalog != null) {
+            return catalog.findById(id)
+                    .orElseThrow(() -> new NotFoundException("Product not found with id: " + id));
+        }
+        return readTransaction.execute(status -> {
+            Product product = productRepository.findById(id)
+                    .orElseThrow(() -> new NotFoundException("Product not found with id: " + id));
+            
+            return productMapper.toResponse(product);
+        });
+    }
+    
+    /**
+     * updatedAt hiện tại của sản phẩm (empty nếu không tồn tại) - dùng cho conditional GET
+     */
+    public Optional<LocalDateTime> getProductVersion(Long id) {
+        InMemoryProductCatalog catalog = inMemoryCatalog.getIfAvailable();
+        if (catalog != null) {
+            return catalog.findUpdatedAtById(id);
+        }
+        return readTransaction.execute(status -> productRepository.findUpdatedAtById(id));
+    }
+    
+    /**
+     * Version của catalog cho conditional GET danh sách (empty khi catalog rỗng)
+     */
+    public Optional<CatalogVersion> getCatalogVersion() {
+        InMemoryProductCatalog catalog = inMemoryCatalog.getIfAvailable();
+        CatalogVersion version = catalog != null
+                ? catalog.getCatalogVersion()
+                : readTransaction.execute(status -> productRepository.findCatalogVersion());
+        if (version == null || version.count() == 0 || version.lastModified() == null) {
+            return Optional.empty();
+        }
+        return Optional.of(version);
+    }
+    
+    public ProductResponse updateProduct(Long id, ProductRequest request) {
+        InMemoryProductCatalog catalog = inMemoryCatalog.getIfAvailable();
+        if (catalog != null) {
+            try (PhaseEvent phase = PhaseEvent.start(UPDATE_OPERATION, "repository")) {
+                if (!catalog.contains(id)) {
+                    throw new NotFoundException("Product not found with id: " + id);
+                }
+            }
+            prepareRequest(request, UPDATE_OPERATION);
+            
+            ProductChangeEvent event;
+            try (PhaseEvent phase = PhaseEvent.start(UPDATE_OPERATION, "catalog")) {
+                event = catalog.update(id, request);
+            }
+            eventPublisher.publishEvent(event);
+            return event.product();
+        }
         
-        return productMapper.toResponse(updatedProduct);
+        return writeTransaction.execute(status -> {
+            // Find existing product
+            Product product;
+            try (PhaseEvent phase = PhaseEvent.start(UPDATE_OPERATION, "repository")) {
+                product = productRepository.findById(id)
+                        .orElseThrow(() -> new NotFoundException("Product not found with id: " + id));
+            }
+            prepareRequest(request, UPDATE_OPERATION);
+            
+            // Update product
+            StockLevel previous = StockLevel.of(product);
+            try (PhaseEvent phase = PhaseEvent.start(UPDATE_OPERATION, "mapping")) {
+                productMapper.updateEntity(product, request);
+            }
+            Product updatedProduct;
+            try (PhaseEvent phase = PhaseEvent.start(UPDATE_OPERATION, "repository")) {
+                updatedProduct = productRepository.save(product);
+            }
+            
+            ProductResponse response;
+            try (PhaseEvent phase = PhaseEvent.start(UPDATE_OPERATION, "mapping")) {
+                response = productMapper.toResponse(updatedProduct);
+            }
+            productOutbox.append(ProductChangeEvent.updated(response, previous));
+            return response;
+        });
     }
     
-    @Transactional
     public void deleteProduct(Long id) {
-        if (!productRepository.existsById(id)) {
-            throw new NotFoundException("Product not found with id: " + id);
+        InMemoryProductCatalog catalog = inMemoryCatalog.getIfAvailable();
+        if (catalog != null) {
+            eventPublisher.publishEvent(catalog.delete(id));
+            return;
         }
         
-        productRepository.deleteById(id);
+        writeTransaction.executeWithoutResult(status -> {
+            // Một query: entity vừa kiểm tra tồn tại, vừa cho StockLevel trước khi xóa
+            Product product = productRepository.findById(id)
+                    .orElseThrow(() -> new NotFoundException("Product not found with id: " + id));
+            StockLevel previous = StockLevel.of(product);
+            productRepository.delete(product);
+            productOutbox.append(ProductChangeEvent.deleted(id, previous));
+        });
+    }
+    
+    /**
+     * Validate request rồi trim name và description
+     */
+    private void prepareRequest(ProductRequest request, String operation) {
+        try (PhaseEvent phase = PhaseEvent.start(operation, "validation")) {
+            // Validate request
+            validateProductRequest(request);
+            
+            // Trim name and description
+            request.setName(request.getName().trim());
+            if (request.getDescription() != null) {
+                request.setDescription(request.getDescription().trim());
+            }
+        }
     }
     
     /**
@@ -133,11 +447,13 @@ public class ProductService {
             throw new BadRequestException("Price is required");
         }
         
-        if (request.getPrice().compareTo(BigDecimal.ZERO) <= 0) {
+        // Giá được so sánh theo cent (đã làm tròn như khi lưu vào NUMERIC(12,2))
+        long priceCents = PriceCents.of(request.getPrice());
+        if (priceCents <= 0) {
             throw new BadRequestException("Price must be greater than 0");
         }
         
-        if (request.getPrice().compareTo(MAX_PRICE) > 0) {
+        if (priceCents > MAX_PRICE_CENTS) {
             throw new BadRequestException("Price must not exceed 999,999,999");
         }
         
@@ -146,11 +462,12 @@ public class ProductService {
             throw new BadRequestException("Quantity is required");
         }
         
-        if (request.getQuantity() < 0) {
+        int quantity = request.getQuantity();
+        if (quantity < 0) {
             throw new BadRequestException("Quantity must be greater than or equal to 0");
         }
         
-        if (request.getQuantity() > MAX_QUANTITY) {
+        if (quantity > MAX_QUANTITY) {
             throw new BadRequestException("Quantity must not exceed " + MAX_QUANTITY);
         }
         
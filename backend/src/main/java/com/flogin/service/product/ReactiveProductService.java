@@ -0,0 +1,38 @@
+package com.flogin.service.product;
+
+import com.flogin.dto.product.ProductResponse;
+import com.flogin.exception.NotFoundException;
+import com.flogin.repository.product.ProductReactiveRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive Product Service - read path không block thread khi chờ I/O.
+ *
+ * Song song với ProductService (JPA): create/update/delete vẫn đi qua ProductService,
+ * service này chỉ phục vụ list, get-by-id và search.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReactiveProductService {
+
+    private final ProductReactiveRepository productReactiveRepository;
+
+    public Flux<ProductResponse> getAllProducts() {
+        return productReactiveRepository.findAll();
+    }
+
+    public Mono<ProductResponse> getProductById(Long id) {
+        return productReactiveRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("Product not found with id: " + id)));
+    }
+
+    public Flux<ProductResponse> searchProducts(String keyword) {
+        if (keyword == null || keyword.trim().isEmpty()) {
+            return getAllProducts();
+        }
+        return productReactiveRepository.findByNameContainingIgnoreCase(keyword.trim());
+    }
+}
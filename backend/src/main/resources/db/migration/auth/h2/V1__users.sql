@@ -0,0 +1,17 @@
+-- Schema users cho H2 (profile dev / test), cùng cấu trúc với db/migration/auth/oracle.
+
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 50 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS users (
+    id         BIGINT        NOT NULL,
+    username   VARCHAR(50)   NOT NULL,
+    email      VARCHAR(100)  NOT NULL,
+    password   VARCHAR(255)  NOT NULL,
+    full_name  VARCHAR(100)  NOT NULL,
+    created_at TIMESTAMP(6)  NOT NULL,
+    updated_at TIMESTAMP(6),
+    CONSTRAINT pk_users PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email),
+    CONSTRAINT chk_users_username_length CHECK (LENGTH(username) >= 3)
+);
@@ -0,0 +1,51 @@
+-- Bảng users + users_seq cho auth datasource.
+-- Viết idempotent: schema cũ có bảng users do Hibernate ddl-auto=update tạo (id IDENTITY)
+-- được baseline ở version 0 rồi chạy file này: bỏ identity và bắt đầu sequence sau MAX(id).
+
+DECLARE
+   v_count NUMBER;
+BEGIN
+   SELECT COUNT(*) INTO v_count FROM user_tables WHERE table_name = 'USERS';
+   IF v_count = 0 THEN
+      -- Bảng gần như chỉ INSERT (UPDATE không làm dài dòng): PCTFREE 5 thay vì mặc định 10
+      EXECUTE IMMEDIATE q'[
+         CREATE TABLE users (
+            id         NUMBER(19)         NOT NULL,
+            username   VARCHAR2(50 CHAR)  NOT NULL,
+            email      VARCHAR2(100 CHAR) NOT NULL,
+            password   VARCHAR2(255 CHAR) NOT NULL,
+            full_name  VARCHAR2(100 CHAR) NOT NULL,
+            created_at TIMESTAMP(6)       NOT NULL,
+            updated_at TIMESTAMP(6),
+            CONSTRAINT pk_users PRIMARY KEY (id),
+            CONSTRAINT uk_users_username UNIQUE (username),
+            CONSTRAINT uk_users_email UNIQUE (email),
+            CONSTRAINT chk_users_username_length CHECK (LENGTH(username) >= 3)
+         ) PCTFREE 5]';
+   END IF;
+END;
+/
+
+DECLARE
+   v_start NUMBER;
+   v_count NUMBER;
+BEGIN
+   BEGIN
+      EXECUTE IMMEDIATE 'ALTER TABLE users MODIFY id DROP IDENTITY';
+   EXCEPTION
+      WHEN OTHERS THEN
+         -- ORA-30673: cột không phải identity (bảng mới hoặc đã migrate)
+         IF SQLCODE != -30673 THEN
+            RAISE;
+         END IF;
+   END;
+
+   -- Pooled optimizer dùng block (giá trị - 49 .. giá trị): giá trị đầu tiên phải >= MAX(id) + 50
+   EXECUTE IMMEDIATE 'SELECT NVL(MAX(id), 0) + 50 FROM users' INTO v_start;
+
+   SELECT COUNT(*) INTO v_count FROM user_sequences WHERE sequence_name = 'USERS_SEQ';
+   IF v_count = 0 THEN
+      EXECUTE IMMEDIATE 'CREATE SEQUENCE users_seq START WITH ' || v_start || ' INCREMENT BY 50 CACHE 20';
+   END IF;
+END;
+/
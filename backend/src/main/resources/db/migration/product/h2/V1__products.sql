@@ -0,0 +1,26 @@
+-- Schema products cho H2 (profile dev / test), cùng cấu trúc với db/migration/product/postgresql.
+-- H2 không có fillfactor, partial index hay trigram index: chỉ giữ các index B-tree.
+
+CREATE SEQUENCE IF NOT EXISTS products_seq START WITH 50 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS products (
+    id          BIGINT         NOT NULL,
+    name        VARCHAR(100)   NOT NULL,
+    description VARCHAR(500),
+    price       NUMERIC(12, 2) NOT NULL,
+    quantity    INTEGER        NOT NULL,
+    category    VARCHAR(20)    NOT NULL,
+    created_at  TIMESTAMP(6)   NOT NULL,
+    updated_at  TIMESTAMP(6),
+    CONSTRAINT products_pkey PRIMARY KEY (id),
+    CONSTRAINT chk_products_price CHECK (price > 0),
+    CONSTRAINT chk_products_quantity CHECK (quantity >= 0),
+    CONSTRAINT chk_products_category
+        CHECK (category IN ('ELECTRONICS', 'CLOTHING', 'FOOD', 'BOOKS', 'SPORTS', 'HOME', 'OTHER'))
+);
+
+CREATE INDEX IF NOT EXISTS idx_products_name ON products (name);
+CREATE INDEX IF NOT EXISTS idx_products_category_price ON products (category, price);
+CREATE INDEX IF NOT EXISTS idx_products_category_created_at ON products (category, created_at);
+CREATE INDEX IF NOT EXISTS idx_products_price ON products (price);
+CREATE INDEX IF NOT EXISTS idx_products_created_at ON products (created_at);
@@ -0,0 +1,23 @@
+-- Outbox cho H2 (profile dev / test), cùng cấu trúc với db/migration/product/postgresql.
+
+CREATE TABLE IF NOT EXISTS product_outbox (
+    id                   BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    event_type           VARCHAR(10)                 NOT NULL,
+    product_id           BIGINT                      NOT NULL,
+    payload              VARCHAR(4000),
+    previous_category    VARCHAR(20),
+    previous_price_cents BIGINT,
+    previous_quantity    INTEGER,
+    actor                VARCHAR(100),
+    created_at           TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT product_outbox_pkey PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_product_outbox_created_at ON product_outbox (created_at);
+
+CREATE TABLE IF NOT EXISTS product_outbox_offsets (
+    consumer   VARCHAR(100)                NOT NULL,
+    last_id    BIGINT                      NOT NULL,
+    updated_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT product_outbox_offsets_pkey PRIMARY KEY (consumer)
+);
@@ -0,0 +1,79 @@
+-- Bảng products + sequence + index cho các truy vấn của ProductService.
+-- Viết idempotent: database cũ có bảng do Hibernate ddl-auto=update tạo (id IDENTITY, thiếu index)
+-- được baseline ở version 0 rồi chạy file này để đưa về cùng schema.
+
+-- Id lấy từ products_seq với pooled optimizer: INCREMENT BY phải bằng app.jpa.id-allocation-size (50)
+CREATE SEQUENCE IF NOT EXISTS products_seq START WITH 50 INCREMENT BY 50;
+ALTER SEQUENCE products_seq INCREMENT BY 50;
+
+-- fillfactor 90: chừa chỗ trong page cho UPDATE (quantity, updated_at) để Postgres ghi
+-- phiên bản mới cùng page (HOT update) thay vì rải sang page khác
+CREATE TABLE IF NOT EXISTS products (
+    id          BIGINT         NOT NULL,
+    name        VARCHAR(100)   NOT NULL,
+    description VARCHAR(500),
+    price       NUMERIC(12, 2) NOT NULL,
+    quantity    INTEGER        NOT NULL,
+    category    VARCHAR(20)    NOT NULL,
+    created_at  TIMESTAMP(6)   NOT NULL,
+    updated_at  TIMESTAMP(6),
+    CONSTRAINT products_pkey PRIMARY KEY (id)
+) WITH (fillfactor = 90);
+
+ALTER TABLE products SET (fillfactor = 90);
+
+-- id do ứng dụng cấp từ sequence, không còn do cột identity
+ALTER TABLE products ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+-- Pooled optimizer dùng block (giá trị - 49 .. giá trị): giá trị tiếp theo phải >= MAX(id) + 50
+SELECT setval('products_seq',
+              GREATEST(COALESCE((SELECT MAX(id) FROM products), 0) + 50,
+                       (SELECT last_value FROM products_seq)),
+              false);
+
+-- Cùng ràng buộc với ProductRequest / Category
+DO $$
+BEGIN
+    ALTER TABLE products ADD CONSTRAINT chk_products_price CHECK (price > 0);
+EXCEPTION
+    WHEN duplicate_object THEN NULL;
+END $$;
+
+DO $$
+BEGIN
+    ALTER TABLE products ADD CONSTRAINT chk_products_quantity CHECK (quantity >= 0);
+EXCEPTION
+    WHEN duplicate_object THEN NULL;
+END $$;
+
+DO $$
+BEGIN
+    ALTER TABLE products ADD CONSTRAINT chk_products_category
+        CHECK (category IN ('ELECTRONICS', 'CLOTHING', 'FOOD', 'BOOKS', 'SPORTS', 'HOME', 'OTHER'));
+EXCEPTION
+    WHEN duplicate_object THEN NULL;
+END $$;
+
+-- existsByName: name = ?
+CREATE INDEX IF NOT EXISTS idx_products_name ON products (name);
+
+-- search: LOWER(name) LIKE '%keyword%' - B-tree không dùng được với wildcard đầu chuỗi, trigram GIN thì dùng được
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_products_name_trgm ON products USING gin (LOWER(name) gin_trgm_ops);
+
+-- category = ? [AND price BETWEEN ? AND ?] [ORDER BY price]
+CREATE INDEX IF NOT EXISTS idx_products_category_price ON products (category, price);
+
+-- category = ? ORDER BY created_at
+CREATE INDEX IF NOT EXISTS idx_products_category_created_at ON products (category, created_at);
+
+-- price BETWEEN ? AND ? / ORDER BY price (không kèm category)
+CREATE INDEX IF NOT EXISTS idx_products_price ON products (price);
+
+-- ORDER BY created_at (không kèm category); created_at chỉ tăng nên page cuối luôn đầy, fillfactor 100
+CREATE INDEX IF NOT EXISTS idx_products_created_at ON products (created_at) WITH (fillfactor = 100);
+
+-- inStock=true: partial index chỉ chứa sản phẩm còn hàng (quantity > 0)
+CREATE INDEX IF NOT EXISTS idx_products_in_stock_category_price ON products (category, price) WHERE quantity > 0;
+
+ANALYZE products;
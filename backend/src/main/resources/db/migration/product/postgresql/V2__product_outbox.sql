@@ -0,0 +1,28 @@
+-- Transactional outbox của product datasource: ProductService ghi một dòng cho mỗi create / update / delete
+-- trong cùng transaction với thay đổi sản phẩm; ProductOutbox của từng instance đọc theo id tăng dần và
+-- phát lại ProductChangeEvent cho các listener trong process (cache, SSE, catalog statistics, audit).
+
+-- id IDENTITY (không phải sequence pooled): mỗi insert lấy một giá trị nên id tăng theo thứ tự ghi trên mọi instance
+CREATE TABLE IF NOT EXISTS product_outbox (
+    id                   BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    event_type           VARCHAR(10)                 NOT NULL,
+    product_id           BIGINT                      NOT NULL,
+    payload              VARCHAR(4000),
+    previous_category    VARCHAR(20),
+    previous_price_cents BIGINT,
+    previous_quantity    INTEGER,
+    actor                VARCHAR(100),
+    created_at           TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT product_outbox_pkey PRIMARY KEY (id)
+);
+
+-- Purge theo retention: created_at < ?
+CREATE INDEX IF NOT EXISTS idx_product_outbox_created_at ON product_outbox (created_at);
+
+-- Vị trí đã phát lại (id cuối cùng) của từng consumer (instance)
+CREATE TABLE IF NOT EXISTS product_outbox_offsets (
+    consumer   VARCHAR(100)                NOT NULL,
+    last_id    BIGINT                      NOT NULL,
+    updated_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT product_outbox_offsets_pkey PRIMARY KEY (consumer)
+);
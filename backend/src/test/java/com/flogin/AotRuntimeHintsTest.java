@@ -0,0 +1,100 @@
+package com.flogin;
+
+import com.flogin.audit.AuditLog;
+import com.flogin.catalog.InMemoryProductCatalog;
+import com.flogin.dto.product.CategoryAggregate;
+import com.flogin.dto.product.ProductResponse;
+import com.flogin.entity.PooledSequenceGenerator;
+import com.flogin.entity.product.Category;
+import org.flywaydb.core.api.ResourceProvider;
+import org.flywaydb.core.api.resource.LoadableResource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Tests cho runtime hints của build AOT / native (AotConfig) và resource provider Flyway dùng trong native image
+ */
+@DisplayName("AOT Runtime Hints Unit Tests")
+class AotRuntimeHintsTest {
+
+    private RuntimeHints hints;
+
+    @BeforeEach
+    void setUp() {
+        hints = new RuntimeHints();
+        new AotConfig.ApplicationRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    @DisplayName("hints: DTO Lombok được đăng ký cho Jackson (getter)")
+    void registerHints_ShouldRegisterDtoAccessors() throws NoSuchMethodException {
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onMethod(ProductResponse.class.getMethod("getName")).invoke().test(hints));
+    }
+
+    @Test
+    @DisplayName("hints: constructor của projection JPQL, id generator và values() của Category")
+    void registerHints_ShouldRegisterReflectiveConstructorsAndEnum() throws NoSuchMethodException {
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onConstructor(CategoryAggregate.class.getDeclaredConstructors()[0]).invoke().test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onConstructor(PooledSequenceGenerator.class.getDeclaredConstructors()[0]).invoke().test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onMethod(Category.class.getMethod("values")).invoke().test(hints));
+    }
+
+    @Test
+    @DisplayName("BuildTimeConditionCheck: property lúc chạy phải khớp bean đã đăng ký lúc build AOT")
+    void verify_ShouldFailWhenRuntimePropertiesDifferFromBuild() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("auditLog", new RootBeanDefinition(AuditLog.class));
+
+        // Build với mặc định: catalog database, audit bật
+        assertDoesNotThrow(() -> AotConfig.BuildTimeConditionCheck.verify(new MockEnvironment(), beanFactory));
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> AotConfig.BuildTimeConditionCheck.verify(new MockEnvironment()
+                        .withProperty("app.catalog.mode", "memory")
+                        .withProperty("app.audit.enabled", "false"), beanFactory));
+        assertTrue(e.getMessage().contains("app.catalog.mode, app.audit.enabled"), e.getMessage());
+
+        beanFactory.registerBeanDefinition("inMemoryProductCatalog", new RootBeanDefinition(InMemoryProductCatalog.class));
+        assertThrows(IllegalStateException.class,
+                () -> AotConfig.BuildTimeConditionCheck.verify(new MockEnvironment(), beanFactory));
+        assertDoesNotThrow(() -> AotConfig.BuildTimeConditionCheck.verify(new MockEnvironment()
+                .withProperty("app.catalog.mode", "memory"), beanFactory));
+    }
+
+    @Test
+    @DisplayName("hints: migration Flyway của cả hai persistence unit được đưa vào image")
+    void registerHints_ShouldIncludeMigrations() {
+        assertTrue(RuntimeHintsPredicates.resource().forResource("db/migration/product/postgresql/V1__products.sql").test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource("db/migration/auth/oracle/V1__users.sql").test(hints));
+    }
+
+    @Test
+    @DisplayName("classpathResources: liệt kê migration theo prefix / suffix như scanner của Flyway")
+    void classpathResources_ShouldListMigrationsOfLocation() {
+        ResourceProvider provider = SchemaMigrations.classpathResources(
+                "classpath:db/migration/product/h2", getClass().getClassLoader());
+
+        Collection<LoadableResource> migrations = provider.getResources("V", new String[] {".sql"});
+
+        assertEquals(List.of("V1__products.sql", "V2__product_outbox.sql"),
+                migrations.stream().map(LoadableResource::getFilename).sorted().toList());
+        for (LoadableResource migration : migrations) {
+            assertNotNull(provider.getResource(migration.getRelativePath()));
+        }
+        assertTrue(provider.getResources("R", new String[] {".sql"}).isEmpty());
+    }
+}
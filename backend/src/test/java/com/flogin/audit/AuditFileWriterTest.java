@@ -0,0 +1,69 @@
+package com.flogin.audit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Tests cho AuditFileWriter: append theo batch, xoay vòng file theo dung lượng và giới hạn số file
+ */
+@DisplayName("Audit File Writer Unit Tests")
+class AuditFileWriterTest {
+
+    @TempDir
+    Path directory;
+
+    private static List<byte[]> lines(String... lines) {
+        return Stream.of(lines).map(line -> (line + "\n").getBytes(StandardCharsets.UTF_8)).toList();
+    }
+
+    private List<String> files() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    @Test
+    @DisplayName("write: các batch được append vào cùng file tới khi vượt max-file-size")
+    void write_ShouldAppendUntilMaxFileSize() throws Exception {
+        AuditFileWriter writer = new AuditFileWriter(directory, 10, 5, true);
+
+        writer.write(lines("a", "b"));
+        writer.write(lines("c"));
+        writer.write(lines("0123456789"));
+        writer.write(lines("d"));
+        writer.close();
+
+        List<String> files = files();
+        assertEquals(List.of("audit-00000000000000000001.jsonl", "audit-00000000000000000002.jsonl"), files);
+        assertEquals(List.of("a", "b", "c", "0123456789"), Files.readAllLines(directory.resolve(files.get(0))));
+        assertEquals(List.of("d"), Files.readAllLines(directory.resolve(files.get(1))));
+    }
+
+    @Test
+    @DisplayName("rotate: chỉ giữ max-files file mới nhất; lần khởi động sau ghi vào file mới")
+    void write_ShouldKeepMaxFilesAndStartNewFileOnRestart() throws Exception {
+        AuditFileWriter writer = new AuditFileWriter(directory, 1, 2, false);
+        for (int i = 1; i <= 5; i++) {
+            writer.write(lines("line " + i));
+        }
+        writer.close();
+
+        AuditFileWriter restarted = new AuditFileWriter(directory, 1, 2, false);
+        restarted.write(lines("after restart"));
+        restarted.close();
+
+        List<String> files = files();
+        assertEquals(List.of("audit-00000000000000000005.jsonl", "audit-00000000000000000006.jsonl"), files);
+        assertEquals(List.of("line 5"), Files.readAllLines(directory.resolve(files.get(0))));
+        assertEquals(List.of("after restart"), Files.readAllLines(directory.resolve(files.get(1))));
+    }
+}
@@ -0,0 +1,157 @@
+package com.flogin.audit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flogin.dto.product.ProductResponse;
+import com.flogin.event.AuthEvent;
+import com.flogin.event.ProductChangeEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Tests cho AuditLog: buffer -> writer thread -> file JSON Lines, chính sách overflow và metrics
+ *
+ * Các test overflow ghi vào buffer trước khi start writer (afterPropertiesSet) để kết quả xác định.
+ */
+@DisplayName("Audit Log Unit Tests")
+class AuditLogTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @TempDir
+    Path directory;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AuditLog auditLog;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (auditLog != null) {
+            auditLog.destroy();
+        }
+    }
+
+    private AuditLog auditLog(int bufferSize, AuditLog.Overflow overflow) {
+        auditLog = new AuditLog(objectMapper, meterRegistry, directory, bufferSize, 100, 10, overflow, 1,
+                DataSize.ofMegabytes(1), 3, false);
+        return auditLog;
+    }
+
+    private static AuditEvent event(int i) {
+        return new AuditEvent(Instant.now(), "test", "ACTION", String.valueOf(i), null, null);
+    }
+
+    private List<JsonNode> lines() throws IOException {
+        List<JsonNode> lines = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.sorted().toList()) {
+                for (String line : Files.readAllLines(file)) {
+                    lines.add(objectMapper.readTree(line));
+                }
+            }
+        }
+        return lines;
+    }
+
+    private double events(String outcome) {
+        return meterRegistry.get("flogin.audit.events").tag("outcome", outcome).counter().count();
+    }
+
+    @Test
+    @DisplayName("product / auth event: ghi thành một dòng JSON mỗi event, không có field null")
+    void onEvents_ShouldWriteJsonLines() throws Exception {
+        AuditLog log = auditLog(64, AuditLog.Overflow.DROP_NEWEST);
+        log.afterPropertiesSet();
+        ProductResponse product = ProductResponse.builder()
+                .id(7L).name("Laptop").price(new BigDecimal("999.00")).quantity(3).category("ELECTRONICS").build();
+
+        log.onProductChange(ProductChangeEvent.created(product));
+        log.onProductChange(ProductChangeEvent.deleted(7L, null));
+        log.onAuthFailure(AuthEvent.loginFailed("alice"));
+        log.destroy();
+
+        List<JsonNode> lines = lines();
+        assertEquals(3, lines.size());
+        assertEquals("product", lines.get(0).get("source").asText());
+        assertEquals("CREATED", lines.get(0).get("action").asText());
+        assertEquals("7", lines.get(0).get("subject").asText());
+        assertEquals("Laptop", lines.get(0).get("data").get("name").asText());
+        assertFalse(lines.get(0).has("actor"));
+        assertFalse(lines.get(1).has("data"));
+        assertEquals("LOGIN_FAILED", lines.get(2).get("action").asText());
+        assertEquals("alice", lines.get(2).get("subject").asText());
+        assertEquals(3, events("written"));
+        assertEquals(0, meterRegistry.get("flogin.audit.buffer.size").gauge().value());
+        assertTrue(meterRegistry.get("flogin.audit.lag").timer().count() >= 1);
+    }
+
+    @Test
+    @DisplayName("DROP_NEWEST: buffer đầy thì bỏ event mới và đếm dropped")
+    void record_DropNewest_ShouldRejectWhenFull() throws Exception {
+        AuditLog log = auditLog(4, AuditLog.Overflow.DROP_NEWEST);
+        for (int i = 1; i <= 6; i++) {
+            assertEquals(i <= 4, log.record(event(i)));
+        }
+        assertEquals(4, meterRegistry.get("flogin.audit.buffer.size").gauge().value());
+
+        log.afterPropertiesSet();
+        log.destroy();
+
+        assertEquals(List.of("1", "2", "3", "4"), lines().stream().map(line -> line.get("subject").asText()).toList());
+        assertEquals(2, events("dropped"));
+        assertEquals(4, events("written"));
+    }
+
+    @Test
+    @DisplayName("DROP_OLDEST: buffer đầy thì bỏ event cũ nhất để nhận event mới")
+    void record_DropOldest_ShouldEvictOldest() throws Exception {
+        AuditLog log = auditLog(4, AuditLog.Overflow.DROP_OLDEST);
+        for (int i = 1; i <= 6; i++) {
+            assertTrue(log.record(event(i)));
+        }
+
+        log.afterPropertiesSet();
+        log.destroy();
+
+        assertEquals(List.of("3", "4", "5", "6"), lines().stream().map(line -> line.get("subject").asText()).toList());
+        assertEquals(2, events("dropped"));
+    }
+
+    @Test
+    @DisplayName("BLOCK: chờ writer giải phóng chỗ; sau shutdown không nhận thêm event")
+    void record_Block_ShouldWaitForWriter() throws Exception {
+        AuditLog log = new AuditLog(objectMapper, meterRegistry, directory, 4, 4, 10_000, AuditLog.Overflow.BLOCK,
+                5_000, DataSize.ofMegabytes(1), 3, false);
+        auditLog = log;
+        log.afterPropertiesSet();
+        for (int i = 1; i <= 100; i++) {
+            assertTrue(log.record(event(i)));
+        }
+        log.destroy();
+
+        assertEquals(100, lines().size());
+        assertEquals(0, events("dropped"));
+        assertFalse(log.record(event(101)));
+    }
+}
@@ -0,0 +1,92 @@
+package com.flogin.audit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Tests cho RingBuffer (hàng đợi vòng lock-free của AuditLog)
+ */
+@DisplayName("Ring Buffer Unit Tests")
+class RingBufferTest {
+
+    @Test
+    @DisplayName("offer / poll: FIFO, đầy thì offer trả false, rỗng thì poll trả null")
+    void offerAndPoll_ShouldBeFifoAndBounded() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(3);
+
+        assertEquals(4, buffer.capacity());
+        for (int i = 1; i <= 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(5));
+        assertEquals(4, buffer.size());
+
+        assertEquals(1, buffer.poll());
+        assertTrue(buffer.offer(5));
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(3, buffer.drainTo(drained, 3));
+        assertEquals(List.of(2, 3, 4), drained);
+        assertEquals(5, buffer.poll());
+        assertNull(buffer.poll());
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    @DisplayName("nhiều producer + một consumer song song: không mất, không trùng phần tử")
+    void concurrentProducers_ShouldDeliverEveryElementOnce() throws Exception {
+        int producers = 4;
+        int perProducer = 50_000;
+        RingBuffer<Integer> buffer = new RingBuffer<>(1024);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            for (int p = 0; p < producers; p++) {
+                int base = p * perProducer;
+                executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perProducer; i++) {
+                        while (!buffer.offer(base + i)) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+
+            Set<Integer> received = new HashSet<>();
+            int[] lastByProducer = new int[producers];
+            Arrays.fill(lastByProducer, -1);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (received.size() < producers * perProducer && System.nanoTime() < deadline) {
+                Integer element = buffer.poll();
+                if (element == null) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                assertTrue(received.add(element), "duplicate " + element);
+                // Thứ tự của từng producer được giữ nguyên
+                int producer = element / perProducer;
+                assertTrue(element > lastByProducer[producer]);
+                lastByProducer[producer] = element;
+            }
+
+            assertEquals(producers * perProducer, received.size());
+            assertTrue(buffer.isEmpty());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.flogin.catalog;
+
+import com.flogin.dto.product.PriceCents;
+import com.flogin.entity.product.Category;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Tests cho OffHeapProductTable: layout record 64 byte + arena UTF-8 trong file memory-mapped
+ */
+@DisplayName("Off-Heap Product Table Unit Tests")
+class OffHeapProductTableTest {
+
+    // Chunk nhỏ để test việc map thêm chunk và compact arena với ít dữ liệu
+    private static final int CHUNK_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    private OffHeapProductTable table;
+
+    @BeforeEach
+    void setUp() {
+        table = new OffHeapProductTable(directory, CHUNK_SIZE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        table.close();
+    }
+
+    private static CatalogProduct product(long id, String name, String description, String price, int quantity) {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 1, 15, 10, 30, 45, 123_456_000);
+        return new CatalogProduct(id, name, description, PriceCents.of(new BigDecimal(price)), quantity, Category.BOOKS,
+                createdAt, createdAt.plusDays(id));
+    }
+
+    @Test
+    @DisplayName("put / get: decode lại đúng mọi field (price theo scale 2, timestamp tới micro giây)")
+    void put_ShouldRoundTripAllFields() {
+        CatalogProduct product = product(7, "Sách Lập Trình Java", "Tái bản lần 3 ✓", "199.90", 12);
+        CatalogProduct withoutDescription = new CatalogProduct(8, "Notebook", null, 500, 0,
+                Category.OTHER, product.createdAt(), null);
+
+        assertNull(table.put(product));
+        assertNull(table.put(withoutDescription));
+
+        assertEquals(product, table.get(7));
+        assertEquals(new BigDecimal("5.00"), table.get(8).price());
+        assertNull(table.get(8).description());
+        assertNull(table.get(8).updatedAt());
+        assertNull(table.get(9));
+        assertEquals(2, table.size());
+    }
+
+    @Test
+    @DisplayName("put cùng id: ghi đè record tại chỗ và trả về bản cũ")
+    void put_ExistingId_ShouldReplaceInPlace() {
+        table.put(product(1, "Old name", "Old description", "10.00", 1));
+        long mappedBefore = table.mappedBytes();
+
+        CatalogProduct previous = table.put(product(1, "New name", null, "20.00", 2));
+
+        assertEquals("Old name", previous.name());
+        assertEquals("New name", table.get(1).name());
+        assertNull(table.get(1).description());
+        assertEquals(1, table.size());
+        // Không cấp slot mới, chỉ thêm string mới vào arena
+        assertEquals(mappedBefore + "New name".length(), table.mappedBytes());
+    }
+
+    @Test
+    @DisplayName("remove: slot được dùng lại cho sản phẩm sau, forEach bỏ qua slot trống")
+    void remove_ShouldFreeSlotForReuse() {
+        table.put(product(1, "First", null, "1.00", 1));
+        table.put(product(2, "Second", null, "2.00", 2));
+
+        assertEquals("First", table.remove(1).name());
+        assertNull(table.remove(1));
+        assertFalse(table.contains(1));
+        table.put(product(3, "Third", null, "3.00", 3));
+
+        assertEquals(2L * OffHeapProductTable.RECORD_SIZE, table.mappedBytes() - "FirstSecondThird".length());
+        List<Long> ids = new ArrayList<>();
+        table.forEach(product -> ids.add(product.id()));
+        assertEquals(List.of(3L, 2L), ids);
+    }
+
+    @Test
+    @DisplayName("forEachStock / visitStock: đọc category, giá (cent), số lượng mà không cần decode string")
+    void forEachStock_ShouldVisitPrimitiveFields() {
+        table.put(product(1, "First", "Description", "10.50", 4));
+        table.put(product(2, "Second", null, "0.99", 0));
+        table.remove(1);
+        table.put(product(3, "Third", null, "1234567.89", 99999));
+
+        List<String> visited = new ArrayList<>();
+        table.forEachStock((id, category, priceCents, quantity) ->
+                visited.add(id + ":" + category + ":" + priceCents + ":" + quantity));
+        table.visitStock(3, (id, category, priceCents, quantity) -> visited.add("visit " + id + ":" + priceCents));
+        table.visitStock(1, (id, category, priceCents, quantity) -> fail("removed product visited"));
+
+        assertEquals(List.of("3:BOOKS:123456789:99999", "2:BOOKS:99:0", "visit 3:123456789"), visited);
+    }
+
+    @Test
+    @DisplayName("nhiều chunk: record và string được map thêm khi vượt quá một chunk")
+    void put_ManyProducts_ShouldSpanChunks() {
+        int count = 3 * CHUNK_SIZE / OffHeapProductTable.RECORD_SIZE;
+        for (int id = 1; id <= count; id++) {
+            table.put(product(id, "Product number " + id, "Description of product " + id, id + ".25", id % 100));
+        }
+
+        assertEquals(count, table.size());
+        assertEquals("Product number 150", table.get(150).name());
+        assertEquals("Description of product " + count, table.get(count).description());
+        assertEquals(new BigDecimal(count + ".25"), table.get(count).price());
+    }
+
+    @Test
+    @DisplayName("update liên tục: arena được compact, dữ liệu vẫn đúng và file arena cũ bị xóa")
+    void put_RepeatedUpdates_ShouldCompactStringArena() throws Exception {
+        for (int id = 1; id <= 10; id++) {
+            table.put(product(id, "Product " + id, null, "1.00", 1));
+        }
+        for (int round = 0; round < 200; round++) {
+            for (int id = 1; id <= 10; id++) {
+                table.put(product(id, "Product " + id + " revision " + round, "Some longer description text", "1.00", 1));
+            }
+        }
+
+        assertEquals("Product 3 revision 199", table.get(3).name());
+        assertTrue(table.mappedBytes() < 10L * OffHeapProductTable.RECORD_SIZE + 4 * CHUNK_SIZE);
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(2, files.count()); // products.dat + arena hiện tại
+        }
+    }
+}
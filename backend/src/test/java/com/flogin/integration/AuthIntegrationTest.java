@@ -1,6 +1,7 @@
 package com.flogin.integration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flogin.cache.IdempotencyStore;
 import com.flogin.controller.AuthController;
 import com.flogin.dto.auth.LoginRequest;
 import com.flogin.dto.auth.RegisterRequest;
@@ -14,6 +15,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -39,6 +41,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * - POST /api/auth/register - Validation Error (400)
  */
 @WebMvcTest(AuthController.class)
+@Import(IdempotencyStore.class)
 @AutoConfigureMockMvc(addFilters = false) // Bỏ qua Spring Security filters để test đơn giản
 @DisplayName("AuthController Integration Tests")
 class AuthIntegrationTest {
@@ -226,6 +229,31 @@ class AuthIntegrationTest {
         verify(authService, times(1)).register(any(RegisterRequest.class));
     }
 
+    @Test
+    @DisplayName("POST /api/auth/register - Retry với cùng Idempotency-Key: trả lại response cũ, không đăng ký lại")
+    void register_RetryWithSameIdempotencyKey_ShouldReplayWithoutRegisteringAgain() throws Exception {
+        // Arrange
+        User newUser = new User();
+        newUser.setId(3L);
+        newUser.setEmail("newuser@example.com");
+        newUser.setFullName("New User");
+
+        when(authService.register(any(RegisterRequest.class))).thenReturn(newUser);
+        String body = objectMapper.writeValueAsString(validRegisterRequest);
+
+        // Act & Assert
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(post("/api/auth/register")
+                    .header(IdempotencyStore.HEADER, "register-1")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(body))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.userId").value(newUser.getId()));
+        }
+
+        verify(authService, times(1)).register(any(RegisterRequest.class));
+    }
+
     @Test
     @DisplayName("POST /api/auth/register - Failure: Email đã tồn tại -> 400 Bad Request")
     void register_WithExistingEmail_ShouldReturn400() throws Exception {
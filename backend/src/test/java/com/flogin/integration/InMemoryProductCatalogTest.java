@@ -0,0 +1,235 @@
+package com.flogin.integration;
+
+import com.flogin.catalog.InMemoryProductCatalog;
+import com.flogin.dto.product.CatalogAggregates;
+import com.flogin.dto.product.CatalogVersion;
+import com.flogin.dto.product.CategoryAggregate;
+import com.flogin.dto.product.ProductRequest;
+import com.flogin.dto.product.ProductResponse;
+import com.flogin.entity.product.Category;
+import com.flogin.event.ProductChangeEvent;
+import com.flogin.exception.NotFoundException;
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration Tests cho InMemoryProductCatalog (catalog mode memory)
+ *
+ * Bảng products trên H2 (migration Flyway của profile test), write-ahead log trong thư mục tạm.
+ * "Crash" được giả lập bằng cách bỏ instance cũ mà không gọi destroy() (không flush)
+ * rồi khởi động instance mới trên cùng database và thư mục WAL.
+ */
+@DisplayName("In-Memory Product Catalog Integration Tests")
+class InMemoryProductCatalogTest {
+
+    @TempDir
+    Path walDirectory;
+
+    @TempDir
+    Path offHeapDirectory;
+
+    private JdbcDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private InMemoryProductCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:in_memory_catalog_test;DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/product/h2")
+                .cleanDisabled(false)
+                .load()
+                .clean();
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/product/h2")
+                .load()
+                .migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        catalog = start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        catalog.destroy();
+    }
+
+    private InMemoryProductCatalog start() {
+        return start(InMemoryProductCatalog.Storage.HEAP);
+    }
+
+    private InMemoryProductCatalog start(InMemoryProductCatalog.Storage storage) {
+        InMemoryProductCatalog instance = new InMemoryProductCatalog(dataSource, walDirectory, true, 100, 50,
+                storage, offHeapDirectory);
+        instance.afterPropertiesSet();
+        return instance;
+    }
+
+    private static ProductRequest request(String name, String price, int quantity, String category) {
+        return new ProductRequest(name, null, new BigDecimal(price), quantity, category);
+    }
+
+    private int rowCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products", Integer.class);
+    }
+
+    @Test
+    @DisplayName("create / update / delete: đọc được ngay từ bộ nhớ, database chỉ thay đổi sau flush()")
+    void writes_ShouldBeServedFromMemoryAndPersistedOnFlush() {
+        ProductResponse laptop = catalog.create(request("Laptop Dell", "1500.00", 10, "ELECTRONICS")).product();
+        ProductResponse book = catalog.create(request("Clean Code", "40.00", 3, "BOOKS")).product();
+        ProductChangeEvent updated = catalog.update(laptop.getId(), request("Laptop Dell XPS", "1800.00", 8, "ELECTRONICS"));
+        catalog.delete(book.getId());
+
+        assertEquals(ProductChangeEvent.Type.UPDATED, updated.type());
+        assertEquals(10, updated.previous().quantity());
+        assertEquals(List.of("Laptop Dell XPS"), catalog.findAll().stream().map(ProductResponse::getName).toList());
+        assertEquals(0, rowCount());
+        assertEquals(2, catalog.getPendingWrites());
+
+        catalog.flush();
+
+        assertEquals(0, catalog.getPendingWrites());
+        assertEquals(1, rowCount());
+        assertEquals(new BigDecimal("1800.00"), jdbcTemplate.queryForObject(
+                "SELECT price FROM products WHERE id = ?", BigDecimal.class, laptop.getId()));
+        assertEquals(laptop.getCreatedAt(), updated.product().getCreatedAt());
+        assertThrows(NotFoundException.class, () -> catalog.delete(book.getId()));
+    }
+
+    @Test
+    @DisplayName("id: cấp theo khối từ products_seq như pooled optimizer của Hibernate")
+    void create_ShouldAllocateIdsFromSequenceBlocks() {
+        List<Long> ids = Stream.of("Alpha", "Bravo", "Charlie")
+                .map(name -> catalog.create(request(name + " item", "10.00", 1, "OTHER")).product().getId())
+                .toList();
+
+        assertEquals(List.of(1L, 2L, 3L), ids);
+    }
+
+    @Test
+    @DisplayName("search: khớp chuỗi con không phân biệt hoa thường, kể cả keyword nhiều từ")
+    void search_ShouldMatchSubstringsLikeContainingIgnoreCase() {
+        catalog.create(request("iPhone 15 Pro", "999.00", 5, "ELECTRONICS"));
+        catalog.create(request("Smartphone X", "300.00", 5, "ELECTRONICS"));
+        catalog.create(request("Phone Case", "9.00", 50, "OTHER"));
+        catalog.create(request("Running Shoes", "80.00", 7, "SPORTS"));
+
+        assertEquals(List.of("iPhone 15 Pro", "Smartphone X", "Phone Case"),
+                catalog.search("PHONE").stream().map(ProductResponse::getName).toList());
+        assertEquals(List.of("iPhone 15 Pro"),
+                catalog.search("ne 15 p").stream().map(ProductResponse::getName).toList());
+        assertEquals(4, catalog.search(" ").size());
+        assertTrue(catalog.search("tablet").isEmpty());
+    }
+
+    @Test
+    @DisplayName("filter: category qua index, khoảng giá, còn hàng và sort price desc / id")
+    void filter_ShouldApplyCriteriaAndSort() {
+        catalog.create(request("Cheap Cable", "5.00", 0, "ELECTRONICS"));
+        catalog.create(request("Monitor 27", "250.00", 4, "ELECTRONICS"));
+        catalog.create(request("Keyboard", "250.00", 9, "ELECTRONICS"));
+        catalog.create(request("Desk Lamp", "30.00", 2, "HOME"));
+
+        List<ProductResponse> result = catalog.filter(Category.ELECTRONICS, new BigDecimal("10"), null, true,
+                Sort.by(Sort.Direction.DESC, "price").and(Sort.by(Sort.Direction.DESC, "id")));
+
+        assertEquals(List.of("Keyboard", "Monitor 27"), result.stream().map(ProductResponse::getName).toList());
+        assertEquals(List.of("Cheap Cable"), catalog.filter(null, null, null, false, Sort.by("id")).stream()
+                .map(ProductResponse::getName).toList());
+    }
+
+    @Test
+    @DisplayName("version / aggregate: giống truy vấn COUNT / MAX(updated_at) / GROUP BY category")
+    void versionAndAggregates_ShouldReflectCatalog() {
+        assertEquals(new CatalogVersion(0, null), catalog.getCatalogVersion());
+        catalog.create(request("Laptop Dell", "1500.00", 2, "ELECTRONICS"));
+        ProductResponse last = catalog.create(request("Clean Code", "40.00", 3, "BOOKS")).product();
+
+        assertEquals(new CatalogVersion(2, last.getUpdatedAt()), catalog.getCatalogVersion());
+        assertEquals(new CatalogAggregates(List.of(
+                        new CategoryAggregate(Category.ELECTRONICS, 1, 2, new BigDecimal("3000.00")),
+                        new CategoryAggregate(Category.BOOKS, 1, 3, new BigDecimal("120.00"))), 2),
+                catalog.aggregateByCategory());
+    }
+
+    @Test
+    @DisplayName("crash trước khi flush: thay đổi được khôi phục từ write-ahead log và ghi xuống database")
+    void restart_ShouldRecoverUnflushedWritesFromWriteAheadLog() throws IOException {
+        ProductResponse kept = catalog.create(request("Laptop Dell", "1500.00", 10, "ELECTRONICS")).product();
+        catalog.flush();
+        ProductResponse removed = catalog.create(request("Clean Code", "40.00", 3, "BOOKS")).product();
+        catalog.update(kept.getId(), request("Laptop Dell XPS", "1800.00", 8, "ELECTRONICS"));
+        catalog.delete(removed.getId());
+        ProductResponse added = catalog.create(request("Desk Lamp", "30.00", 2, "HOME")).product();
+
+        // Crash: không destroy(), database vẫn là trạng thái của lần flush trước
+        catalog = start();
+
+        assertEquals(List.of("Laptop Dell XPS", "Desk Lamp"),
+                catalog.findAll().stream().map(ProductResponse::getName).toList());
+        assertEquals(added.getUpdatedAt(), catalog.findUpdatedAtById(added.getId()).orElseThrow());
+        assertEquals(0, catalog.getPendingWrites());
+        assertEquals(2, rowCount());
+        try (Stream<Path> segments = Files.list(walDirectory)) {
+            assertEquals(1, segments.count());
+        }
+    }
+
+    @Test
+    @DisplayName("storage off-heap: nạp, đọc, lọc và khôi phục giống storage heap (price theo scale của cột)")
+    void offHeapStorage_ShouldServeSameCatalog() throws IOException {
+        ProductResponse laptop = catalog.create(request("Laptop Dell", "1500", 10, "ELECTRONICS")).product();
+        catalog.flush();
+        catalog.create(new ProductRequest("Bàn làm việc gỗ sồi", "Mô tả tiếng Việt", new BigDecimal("250.5"), 0, "HOME"));
+        catalog.destroy();
+
+        catalog = start(InMemoryProductCatalog.Storage.OFF_HEAP);
+        catalog.update(laptop.getId(), request("Laptop Dell XPS", "1800.00", 8, "ELECTRONICS"));
+
+        List<ProductResponse> all = catalog.findAll();
+        assertEquals(List.of("Laptop Dell XPS", "Bàn làm việc gỗ sồi"), all.stream().map(ProductResponse::getName).toList());
+        assertEquals(new BigDecimal("250.50"), all.get(1).getPrice());
+        assertEquals("Mô tả tiếng Việt", all.get(1).getDescription());
+        assertEquals(laptop.getCreatedAt(), all.get(0).getCreatedAt());
+        assertEquals(List.of("Bàn làm việc gỗ sồi"), catalog.search("GỖ").stream().map(ProductResponse::getName).toList());
+        assertEquals(List.of("Bàn làm việc gỗ sồi"), catalog.filter(Category.HOME, null, null, false, Sort.by("id"))
+                .stream().map(ProductResponse::getName).toList());
+        assertEquals(new CatalogVersion(2, all.get(0).getUpdatedAt()), catalog.getCatalogVersion());
+    }
+
+    @Test
+    @DisplayName("record cuối bị ghi dở trong write-ahead log được bỏ qua")
+    void restart_ShouldIgnoreTornWriteAheadLogTail() throws IOException {
+        catalog.create(request("Laptop Dell", "1500.00", 10, "ELECTRONICS"));
+        try (Stream<Path> segments = Files.list(walDirectory)) {
+            Path segment = segments.sorted().reduce((first, second) -> second).orElseThrow();
+            Files.write(segment, new byte[] {0, 0, 0, 42, 1, 2, 3}, StandardOpenOption.APPEND);
+        }
+
+        catalog = start();
+
+        assertEquals(List.of("Laptop Dell"), catalog.findAll().stream().map(ProductResponse::getName).toList());
+        assertEquals(1, rowCount());
+    }
+}
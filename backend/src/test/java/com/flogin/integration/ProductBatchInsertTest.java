@@ -0,0 +1,115 @@
+package com.flogin.integration;
+
+import com.flogin.entity.PooledSequenceGenerator;
+import com.flogin.entity.product.Category;
+import com.flogin.entity.product.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test: id từ products_seq (pooled) cho phép Hibernate gom INSERT thành JDBC batch
+ *
+ * Dựng persistence unit product trên H2 (không cần Spring context), đếm số lần thực thi INSERT
+ * và số lần gọi sequence qua datasource-proxy.
+ */
+@DisplayName("Product Batch Insert Integration Tests")
+class ProductBatchInsertTest {
+
+    private static final int ALLOCATION_SIZE = 50;
+    private static final int BATCH_SIZE = 50;
+    private static final int PRODUCTS = 1000;
+
+    private final List<ExecutionInfo> inserts = new CopyOnWriteArrayList<>();
+    private final List<ExecutionInfo> sequenceCalls = new CopyOnWriteArrayList<>();
+    private LocalContainerEntityManagerFactoryBean factoryBean;
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:batch_insert_test;DB_CLOSE_DELAY=-1");
+        h2.setUser("sa");
+
+        factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(ProxyDataSourceBuilder.create(h2).listener(new RecordingListener()).build());
+        factoryBean.setPackagesToScan("com.flogin.entity.product");
+        factoryBean.setPersistenceUnitName("product-batch-test");
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaPropertyMap(Map.of(
+                "hibernate.hbm2ddl.auto", "create-drop",
+                "hibernate.jdbc.batch_size", BATCH_SIZE,
+                "hibernate.order_inserts", "true",
+                PooledSequenceGenerator.ALLOCATION_SIZE_SETTING, ALLOCATION_SIZE));
+        factoryBean.afterPropertiesSet();
+        entityManagerFactory = factoryBean.getObject();
+        inserts.clear();
+        sequenceCalls.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        factoryBean.destroy();
+    }
+
+    @Test
+    @DisplayName("persist 1000 sản phẩm: INSERT chạy theo batch, sequence gọi ~1 lần / allocation-size id")
+    void persist_ShouldBatchInsertsAndPoolSequenceCalls() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        entityManager.getTransaction().begin();
+        for (int i = 0; i < PRODUCTS; i++) {
+            entityManager.persist(product(i));
+        }
+        entityManager.getTransaction().commit();
+        entityManager.close();
+
+        assertEquals(PRODUCTS / BATCH_SIZE, inserts.size());
+        assertTrue(inserts.stream().allMatch(ExecutionInfo::isBatch));
+        assertEquals(PRODUCTS, inserts.stream().mapToInt(ExecutionInfo::getBatchSize).sum());
+        // pooled optimizer: lần gọi đầu tiên chỉ khởi tạo, sau đó mỗi lần cấp ALLOCATION_SIZE id
+        assertEquals(PRODUCTS / ALLOCATION_SIZE + 1, sequenceCalls.size());
+    }
+
+    private static Product product(int i) {
+        Product product = new Product();
+        product.setName("Product " + i);
+        product.setPrice(new BigDecimal("9.99"));
+        product.setQuantity(i % 10);
+        product.setCategory(Category.values()[i % Category.values().length]);
+        return product;
+    }
+
+    private class RecordingListener implements QueryExecutionListener {
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            String sql = queryInfoList.get(0).getQuery().toLowerCase();
+            if (sql.startsWith("insert into products")) {
+                inserts.add(execInfo);
+            } else if (sql.contains("products_seq") && !sql.contains("sequence")) {
+                sequenceCalls.add(execInfo);
+            }
+        }
+    }
+}
@@ -1,7 +1,12 @@
 package com.flogin.integration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flogin.BinaryContentConfig;
+import com.flogin.cache.CompressedPayloadCache;
+import com.flogin.cache.IdempotencyStore;
+import com.flogin.cache.ProductJsonCache;
 import com.flogin.controller.ProductController;
+import com.flogin.controller.ProductEncodings;
 import com.flogin.dto.product.ProductRequest;
 import com.flogin.dto.product.ProductResponse;
 import com.flogin.service.product.ProductService;
@@ -13,6 +18,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -37,6 +43,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * Tests full request/response cycle qua HTTP endpoints
  */
 @WebMvcTest(ProductController.class)
+@Import({BinaryContentConfig.class, ProductEncodings.class, CompressedPayloadCache.class, IdempotencyStore.class,
+        ProductJsonCache.class})
 @AutoConfigureMockMvc(addFilters = false)
 @DisplayName("Product API Integration Tests")
 class ProductIntegrationTest {
@@ -0,0 +1,88 @@
+package com.flogin.integration;
+
+import com.flogin.dto.product.ProductResponse;
+import com.flogin.repository.product.ProductReactiveRepository;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration Tests cho ProductReactiveRepository
+ *
+ * Chạy SQL thật trên H2 in-memory qua R2DBC (không cần Spring context)
+ */
+@DisplayName("Product Reactive Repository Integration Tests")
+class ProductReactiveRepositoryTest {
+
+    private DatabaseClient databaseClient;
+    private ProductReactiveRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        ConnectionFactory connectionFactory =
+            ConnectionFactories.get("r2dbc:h2:mem:///reactive_repo_test?options=DB_CLOSE_DELAY=-1");
+        databaseClient = DatabaseClient.create(connectionFactory);
+        repository = new ProductReactiveRepository(databaseClient);
+
+        databaseClient.sql("DROP TABLE IF EXISTS products").then().block();
+        databaseClient.sql("CREATE TABLE products (id BIGINT PRIMARY KEY, name VARCHAR(100) NOT NULL, "
+                + "description VARCHAR(500), price NUMERIC(12,2) NOT NULL, quantity INT NOT NULL, "
+                + "category VARCHAR(20) NOT NULL, created_at TIMESTAMP NOT NULL, updated_at TIMESTAMP)")
+                .then().block();
+
+        insert(1, "Laptop Dell", "ELECTRONICS");
+        insert(2, "Laptop 100% Cotton Bag", "CLOTHING");
+        insert(3, "Java Book", "BOOKS");
+    }
+
+    private void insert(long id, String name, String category) {
+        databaseClient.sql("INSERT INTO products VALUES (:id, :name, 'desc', 99.99, 10, :category, "
+                + "CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)")
+                .bind("id", id)
+                .bind("name", name)
+                .bind("category", category)
+                .then().block();
+    }
+
+    @Test
+    @DisplayName("findAll: trả về toàn bộ sản phẩm theo thứ tự id")
+    void findAll_ShouldStreamAllProductsOrderedById() {
+        List<ProductResponse> products = repository.findAll().collectList().block();
+
+        assertNotNull(products);
+        assertEquals(List.of(1L, 2L, 3L), products.stream().map(ProductResponse::getId).toList());
+        assertEquals(new BigDecimal("99.99"), products.get(0).getPrice());
+        assertEquals("ELECTRONICS", products.get(0).getCategory());
+        assertNotNull(products.get(0).getCreatedAt());
+    }
+
+    @Test
+    @DisplayName("findById: trả về sản phẩm khi tồn tại, empty khi không")
+    void findById_ShouldReturnProductOrEmpty() {
+        ProductResponse product = repository.findById(3L).block();
+
+        assertNotNull(product);
+        assertEquals("Java Book", product.getName());
+        assertNull(repository.findById(999L).block());
+    }
+
+    @Test
+    @DisplayName("search: không phân biệt hoa thường và escape ký tự LIKE")
+    void findByNameContainingIgnoreCase_ShouldMatchCaseInsensitiveAndEscapeWildcards() {
+        List<ProductResponse> laptops = repository.findByNameContainingIgnoreCase("laptop").collectList().block();
+        List<ProductResponse> percent = repository.findByNameContainingIgnoreCase("100%").collectList().block();
+        List<ProductResponse> wildcard = repository.findByNameContainingIgnoreCase("%").collectList().block();
+
+        assertEquals(2, laptops.size());
+        assertEquals(1, percent.size());
+        assertEquals(1, wildcard.size());
+    }
+}
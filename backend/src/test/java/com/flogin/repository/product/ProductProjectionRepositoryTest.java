@@ -0,0 +1,132 @@
+package com.flogin.repository.product;
+
+import com.flogin.dto.product.ProductField;
+import com.flogin.entity.product.Category;
+import com.flogin.entity.product.Product;
+import jakarta.persistence.EntityManager;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests cho ProductProjectionRepositoryImpl: Criteria tuple query chạy thật trên H2
+ *
+ * Dựng persistence unit product (không cần Spring context), ghi lại SELECT qua datasource-proxy
+ * để kiểm tra chỉ các cột của fieldset được đọc.
+ */
+@DisplayName("Product Projection Repository Tests")
+class ProductProjectionRepositoryTest {
+
+    private final List<String> selects = new CopyOnWriteArrayList<>();
+    private LocalContainerEntityManagerFactoryBean factoryBean;
+    private EntityManager entityManager;
+    private ProductProjectionRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:projection_test;DB_CLOSE_DELAY=-1");
+        h2.setUser("sa");
+
+        factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(ProxyDataSourceBuilder.create(h2).listener(new RecordingListener()).build());
+        factoryBean.setPackagesToScan("com.flogin.entity.product");
+        factoryBean.setPersistenceUnitName("product-projection-test");
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaPropertyMap(Map.of("hibernate.hbm2ddl.auto", "create-drop"));
+        factoryBean.afterPropertiesSet();
+
+        entityManager = factoryBean.getObject().createEntityManager();
+        entityManager.getTransaction().begin();
+        entityManager.persist(product("Laptop Dell", "1500.00", Category.ELECTRONICS));
+        entityManager.persist(product("Java Book", "25.50", Category.BOOKS));
+        entityManager.persist(product("Phone", "800.00", Category.ELECTRONICS));
+        entityManager.getTransaction().commit();
+        entityManager.clear();
+
+        repository = new ProductProjectionRepositoryImpl();
+        ReflectionTestUtils.setField(repository, "entityManager", entityManager);
+        selects.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        entityManager.close();
+        factoryBean.destroy();
+    }
+
+    private static Product product(String name, String price, Category category) {
+        Product product = new Product();
+        product.setName(name);
+        product.setDescription("Description of " + name);
+        product.setPrice(new BigDecimal(price));
+        product.setQuantity(5);
+        product.setCategory(category);
+        return product;
+    }
+
+    @Test
+    @DisplayName("findAllProjected: chỉ SELECT cột của fieldset, key theo thứ tự ProductField")
+    void findAllProjected_ShouldSelectOnlyRequestedColumns() {
+        List<Map<String, Object>> products = repository.findAllProjected(
+                Specification.unrestricted(), Sort.by("price"), EnumSet.of(ProductField.PRICE, ProductField.NAME));
+
+        assertEquals(3, products.size());
+        assertEquals(List.of("name", "price"), List.copyOf(products.get(0).keySet()));
+        assertEquals("Java Book", products.get(0).get("name"));
+        assertEquals(0, new BigDecimal("25.50").compareTo((BigDecimal) products.get(0).get("price")));
+
+        assertEquals(1, selects.size());
+        String sql = selects.get(0);
+        assertTrue(sql.contains("name") && sql.contains("price"), sql);
+        assertFalse(sql.contains("description") || sql.contains("quantity") || sql.contains("created_at"), sql);
+    }
+
+    @Test
+    @DisplayName("findAllProjected: áp dụng Specification / Sort, category trả về dạng tên enum")
+    void findAllProjected_ShouldApplySpecificationAndSort() {
+        Specification<Product> electronics = (root, query, cb) -> cb.equal(root.get("category"), Category.ELECTRONICS);
+
+        List<Map<String, Object>> products = repository.findAllProjected(
+                electronics, Sort.by(Sort.Direction.DESC, "price"), EnumSet.of(ProductField.ID, ProductField.CATEGORY));
+
+        assertEquals(2, products.size());
+        assertEquals(List.of("id", "category"), List.copyOf(products.get(0).keySet()));
+        assertEquals("ELECTRONICS", products.get(0).get("category"));
+        assertTrue((Long) products.get(0).get("id") < (Long) products.get(1).get("id"));
+    }
+
+    private class RecordingListener implements QueryExecutionListener {
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            String sql = queryInfoList.get(0).getQuery().toLowerCase();
+            if (sql.startsWith("select") && sql.contains("products")) {
+                selects.add(sql);
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.flogin.search;
+
+import com.flogin.dto.product.ProductSuggestion;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Tests cho NameTrie: prefix theo từ, xếp hạng, top-k giữ sẵn đúng sau thêm / xóa, nén lại cây
+ */
+@DisplayName("Name Trie Unit Tests")
+class NameTrieTest {
+
+    private static List<Long> ids(NameTrie trie, String prefix, int limit) {
+        return trie.suggest(prefix, limit).stream().map(ProductSuggestion::id).toList();
+    }
+
+    @Test
+    @DisplayName("suggest: khớp prefix của tên hoặc của từ bất kỳ trong tên, không phân biệt hoa thường / dấu")
+    void suggest_ShouldMatchPrefixOfAnyWord() {
+        NameTrie trie = new NameTrie(10);
+        trie.add(1, "Điện thoại Samsung");
+        trie.add(2, "Máy tính xách tay");
+        trie.add(3, "Tai nghe không dây");
+
+        assertEquals(List.of(new ProductSuggestion(1, "Điện thoại Samsung")), trie.suggest("ĐIỆN", 10));
+        assertEquals(List.of(1L), ids(trie, "sams", 10));
+        assertEquals(List.of(1L), ids(trie, "dien  thoai s", 10));
+        assertEquals(List.of(3L, 2L), ids(trie, "ta", 10));
+        assertEquals(List.of(), ids(trie, "samsung x", 10));
+        assertEquals(List.of(), ids(trie, "  ", 10));
+    }
+
+    @Test
+    @DisplayName("suggest: khớp từ đầu tên trước, rồi tên ngắn hơn; mỗi sản phẩm một lần; tối đa limit")
+    void suggest_ShouldRankAndDeduplicate() {
+        NameTrie trie = new NameTrie(10);
+        trie.add(1, "Balo laptop");
+        trie.add(2, "Laptop Gaming Pro");
+        trie.add(3, "Laptop Dell");
+        trie.add(4, "Lap lap lap");
+
+        assertEquals(List.of(4L, 3L, 2L, 1L), ids(trie, "lap", 10));
+        assertEquals(List.of(3L, 2L, 1L), ids(trie, "lapt", 10));
+        assertEquals(List.of(4L, 3L), ids(trie, "lap", 2));
+    }
+
+    @Test
+    @DisplayName("remove: gỡ mọi key của sản phẩm, top-k tính lại, cây nén về như trước khi thêm")
+    void remove_ShouldRecomputeTopAndCompressTree() {
+        NameTrie trie = new NameTrie(2);
+        trie.add(1, "Bàn phím cơ");
+        trie.add(2, "Bàn phím không dây");
+        int nodes = trie.nodeCount();
+        trie.add(3, "Bàn di chuột");
+        trie.add(4, "Bàn");
+        assertEquals(List.of(4L, 1L), ids(trie, "ban", 10));
+
+        trie.remove(4, "Bàn");
+        trie.remove(3, "Bàn di chuột");
+
+        assertEquals(List.of(1L, 2L), ids(trie, "ban", 10));
+        assertEquals(List.of(), ids(trie, "chuot", 10));
+        assertEquals(nodes, trie.nodeCount());
+        trie.remove(1, "Bàn phím cơ");
+        trie.remove(2, "Bàn phím không dây");
+        assertEquals(1, trie.nodeCount());
+    }
+
+    @Test
+    @DisplayName("top-k giữ sẵn khớp với duyệt toàn bộ sau chuỗi thêm / xóa ngẫu nhiên")
+    void suggest_ShouldMatchBruteForceAfterRandomChanges() {
+        String[] words = {"an", "anh", "ao", "ba", "ban", "bang", "bo", "ca", "cam", "cap"};
+        Random random = new Random(42);
+        NameTrie trie = new NameTrie(5);
+        List<ProductSuggestion> products = new ArrayList<>();
+        for (int step = 0; step < 2000; step++) {
+            if (!products.isEmpty() && random.nextInt(3) == 0) {
+                ProductSuggestion removed = products.remove(random.nextInt(products.size()));
+                trie.remove(removed.id(), removed.name());
+            } else {
+                String name = String.join(" ", IntStream.range(0, 1 + random.nextInt(3))
+                        .mapToObj(i -> words[random.nextInt(words.length)])
+                        .toList());
+                ProductSuggestion product = new ProductSuggestion(step, name);
+                products.add(product);
+                trie.add(product.id(), product.name());
+            }
+        }
+        for (String prefix : List.of("a", "an", "b", "ban", "ca", "ao b", "cap c")) {
+            assertEquals(bruteForce(products, prefix, 5), trie.suggest(prefix, 5), prefix);
+        }
+    }
+
+    private static List<ProductSuggestion> bruteForce(List<ProductSuggestion> products, String prefix, int limit) {
+        record Match(ProductSuggestion product, int wordIndex) {
+        }
+        List<Match> matches = new ArrayList<>();
+        for (ProductSuggestion product : products) {
+            List<String> tokens = SearchText.tokens(product.name());
+            for (int i = 0; i < tokens.size(); i++) {
+                if (String.join(" ", tokens.subList(i, tokens.size())).startsWith(prefix)) {
+                    matches.add(new Match(product, i));
+                    break;
+                }
+            }
+        }
+        return matches.stream()
+                .sorted(Comparator.comparingInt(Match::wordIndex)
+                        .thenComparingInt(match -> match.product().name().length())
+                        .thenComparing(match -> match.product().name())
+                        .thenComparingLong(match -> match.product().id()))
+                .limit(limit)
+                .map(Match::product)
+                .toList();
+    }
+}
@@ -1,8 +1,13 @@
 package com.flogin.security;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flogin.BinaryContentConfig;
+import com.flogin.cache.CompressedPayloadCache;
+import com.flogin.cache.IdempotencyStore;
+import com.flogin.cache.ProductJsonCache;
 import com.flogin.controller.AuthController;
 import com.flogin.controller.ProductController;
+import com.flogin.controller.ProductEncodings;
 import com.flogin.dto.auth.LoginRequest;
 import com.flogin.dto.auth.RegisterRequest;
 import com.flogin.dto.product.ProductRequest;
@@ -17,6 +22,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
@@ -40,6 +46,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * 5. Password Security
  */
 @WebMvcTest({AuthController.class, ProductController.class})
+@Import({BinaryContentConfig.class, ProductEncodings.class, CompressedPayloadCache.class, IdempotencyStore.class,
+        ProductJsonCache.class})
 @AutoConfigureMockMvc(addFilters = false)
 @ActiveProfiles("test")
 @DisplayName("Security Tests")
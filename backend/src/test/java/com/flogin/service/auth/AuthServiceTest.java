@@ -3,6 +3,7 @@ package com.flogin.service.auth;
 import com.flogin.dto.auth.LoginRequest;
 import com.flogin.dto.auth.RegisterRequest;
 import com.flogin.entity.auth.User;
+import com.flogin.event.AuthEvent;
 import com.flogin.exception.BadRequestException;
 import com.flogin.repository.auth.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,6 +16,7 @@ import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.Optional;
@@ -43,6 +45,9 @@ class AuthServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private AuthService authService;
 
@@ -98,6 +103,7 @@ class AuthServiceTest {
             // Verify interactions
             verify(userRepository, times(1)).findByUsername("testuser");
             verify(passwordEncoder, times(1)).matches("Pass123", testUser.getPassword());
+            verify(eventPublisher).publishEvent(authEvent(AuthEvent.Type.LOGIN_SUCCEEDED));
         }
 
         @Test
@@ -116,6 +122,7 @@ class AuthServiceTest {
             assertEquals("Invalid username or password", exception.getMessage());
             verify(userRepository, times(1)).findByUsername("testuser");
             verify(passwordEncoder, never()).matches(anyString(), anyString());
+            verify(eventPublisher).publishEvent(authEvent(AuthEvent.Type.LOGIN_FAILED));
         }
 
         @Test
@@ -135,6 +142,7 @@ class AuthServiceTest {
             assertEquals("Invalid username or password", exception.getMessage());
             verify(userRepository, times(1)).findByUsername("testuser");
             verify(passwordEncoder, times(1)).matches("Pass123", testUser.getPassword());
+            verify(eventPublisher).publishEvent(authEvent(AuthEvent.Type.LOGIN_FAILED));
         }
 
         @Test
@@ -153,6 +161,7 @@ class AuthServiceTest {
 
             assertEquals("Username is required", exception.getMessage());
             verify(userRepository, never()).findByUsername(anyString());
+            verifyNoInteractions(eventPublisher);
         }
 
         @Test
@@ -314,6 +323,7 @@ class AuthServiceTest {
             verify(userRepository, times(1)).existsByEmail("newuser@example.com");
             verify(passwordEncoder, times(1)).encode("Pass123");
             verify(userRepository, times(1)).save(any(User.class));
+            verify(eventPublisher).publishEvent(authEvent(AuthEvent.Type.REGISTERED));
         }
 
         @Test
@@ -1095,4 +1105,8 @@ class AuthServiceTest {
             verify(passwordEncoder, times(1)).matches(password, testUser.getPassword());
         }
     }
-}
\ No newline at end of file
+
+    private static Object authEvent(AuthEvent.Type type) {
+        return argThat((Object event) -> event instanceof AuthEvent authEvent && authEvent.type() == type);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,310 @@
+package com.flogin.service.product;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flogin.catalog.InMemoryProductCatalog;
+import com.flogin.dto.product.ProductResponse;
+import com.flogin.dto.product.StockLevel;
+import com.flogin.entity.product.Category;
+import com.flogin.entity.product.ProductOutboxEvent;
+import com.flogin.entity.product.ProductOutboxOffset;
+import com.flogin.event.ProductChangeEvent;
+import com.flogin.repository.product.ProductOutboxOffsetRepository;
+import com.flogin.repository.product.ProductOutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit Tests cho ProductOutbox: ghi outbox và relay theo id liên tiếp (khoảng trống, id commit muộn,
+ * listener lỗi, offset lưu theo consumer và tiếp tục sau khi khởi động lại)
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Product Outbox Unit Tests")
+class ProductOutboxTest {
+
+    @Mock
+    private ProductOutboxRepository outboxRepository;
+
+    @Mock
+    private ProductOutboxOffsetRepository offsetRepository;
+
+    @Mock
+    private ObjectProvider<InMemoryProductCatalog> inMemoryCatalog;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private MeterRegistry meterRegistry;
+    private ProductOutbox outbox;
+
+    @BeforeEach
+    void setUp() {
+        outbox = outbox(5000, Duration.ofMinutes(10));
+    }
+
+    private ProductOutbox outbox(long gapTimeoutMillis, Duration skippedRetry) {
+        meterRegistry = new SimpleMeterRegistry();
+        return new ProductOutbox(outboxRepository, offsetRepository, inMemoryCatalog, eventPublisher, objectMapper,
+                meterRegistry, "node-1", 3, 1000, gapTimeoutMillis, skippedRetry, Duration.ofHours(24));
+    }
+
+    private ProductOutboxEvent row(long id, ProductChangeEvent.Type type, Instant createdAt) throws Exception {
+        ProductResponse product = ProductResponse.builder()
+                .id(id)
+                .name("Laptop " + id)
+                .price(new BigDecimal("15000000.00"))
+                .quantity(10)
+                .category("ELECTRONICS")
+                .build();
+        ProductOutboxEvent row = new ProductOutboxEvent();
+        row.setId(id);
+        row.setEventType(type);
+        row.setProductId(id);
+        row.setPayload(type == ProductChangeEvent.Type.DELETED ? null : objectMapper.writeValueAsString(product));
+        if (type != ProductChangeEvent.Type.CREATED) {
+            row.setPreviousCategory(Category.BOOKS);
+            row.setPreviousPriceCents(1_000L);
+            row.setPreviousQuantity(2);
+        }
+        row.setActor("admin");
+        row.setCreatedAt(createdAt);
+        return row;
+    }
+
+    private List<ProductChangeEvent> publishedEvents(int count) {
+        ArgumentCaptor<ProductChangeEvent> captor = ArgumentCaptor.forClass(ProductChangeEvent.class);
+        verify(eventPublisher, times(count)).publishEvent(captor.capture());
+        return captor.getAllValues();
+    }
+
+    private long offset() {
+        return (long) meterRegistry.get("flogin.outbox.offset").gauge().value();
+    }
+
+    private double counter(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+
+    @Test
+    @DisplayName("relay: phát lại các id liên tiếp theo thứ tự, dựng lại product / previous / actor, tăng offset")
+    void relayBatch_ShouldPublishContiguousEventsAndAdvanceOffset() throws Exception {
+        Instant now = Instant.now();
+        when(outboxRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(3))).thenReturn(List.of(
+                row(1, ProductChangeEvent.Type.CREATED, now),
+                row(2, ProductChangeEvent.Type.UPDATED, now),
+                row(3, ProductChangeEvent.Type.DELETED, now)));
+
+        assertTrue(outbox.relayBatch(), "batch đầy -> còn dòng chờ phát lại");
+
+        List<ProductChangeEvent> events = publishedEvents(3);
+        assertEquals(List.of(1L, 2L, 3L), events.stream().map(ProductChangeEvent::productId).toList());
+        assertEquals("Laptop 1", events.get(0).product().getName());
+        assertNull(events.get(0).previous());
+        assertEquals(new StockLevel(Category.BOOKS, 1_000L, 2), events.get(1).previous());
+        assertNull(events.get(2).product());
+        assertEquals("admin", events.get(2).actor());
+        assertEquals(now, events.get(2).occurredAt());
+        assertEquals(3, offset());
+        assertEquals(3, outbox.deliveredThrough());
+        assertEquals(3, meterRegistry.get("flogin.outbox.events").tag("outcome", "delivered").counter().count());
+    }
+
+    @Test
+    @DisplayName("relay: dừng trước khoảng trống còn mới theo đồng hồ của relay, không theo created_at của instance ghi")
+    void relayBatch_ShouldWaitForGapUsingRelayClock() throws Exception {
+        // Đồng hồ của instance ghi chạy chậm: created_at đã "cũ" hơn gap-timeout ngay khi relay thấy dòng
+        Instant skewed = Instant.now().minusSeconds(60);
+        when(outboxRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(3))).thenReturn(List.of(
+                row(1, ProductChangeEvent.Type.CREATED, skewed),
+                row(3, ProductChangeEvent.Type.CREATED, skewed)));
+
+        assertFalse(outbox.relayBatch());
+        when(outboxRepository.findByIdGreaterThanOrderByIdAsc(1L, Limit.of(3))).thenReturn(List.of(
+                row(3, ProductChangeEvent.Type.CREATED, skewed)));
+        assertFalse(outbox.relayBatch());
+
+        assertEquals(1, publishedEvents(1).get(0).productId());
+        assertEquals(1, offset());
+        assertEquals(1, outbox.deliveredThrough());
+        assertEquals(0, counter("flogin.outbox.gaps.skipped"));
+    }
+
+    @Test
+    @DisplayName("relay: id đã vượt qua (quá gap-timeout) mà commit muộn vẫn được query lại và phát lại")
+    void relayBatch_SkippedIdCommittedLate_ShouldBeDeliveredLate() throws Exception {
+        outbox = outbox(0, Duration.ofMinutes(10));
+        Instant now = Instant.now();
+        when(outboxRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(3))).thenReturn(List.of(
+                row(1, ProductChangeEvent.Type.CREATED, now),
+                row(3, ProductChangeEvent.Type.CREATED, now)));
+
+        assertFalse(outbox.relayBatch());
+        assertEquals(3, offset());
+        assertEquals(1, outbox.deliveredThrough(), "id 2 có thể còn được phát lại");
+        assertEquals(1, counter("flogin.outbox.gaps.skipped"));
+
+        // Transaction giữ id 2 chạy lâu hơn gap-timeout rồi mới commit
+        when(outboxRepository.findAllById(List.of(2L))).thenReturn(List.of(row(2, ProductChangeEvent.Type.CREATED, now)));
+        when(outboxRepository.findByIdGreaterThanOrderByIdAsc(3L, Limit.of(3))).thenReturn(List.of());
+
+        assertFalse(outbox.relayBatch());
+        assertEquals(List.of(1L, 3L, 2L), publishedEvents(3).stream().map(ProductChangeEvent::productId).toList());
+        assertEquals(3, outbox.deliveredThrough());
+        assertEquals(1, counter("flogin.outbox.gaps.recovered"));
+
+        // Đã phát lại: không query lại nữa
+        assertFalse(outbox.relayBatch());
+        verify(outboxRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    @DisplayName("relay: id đã vượt qua không xuất hiện sau skipped-retry thì bỏ hẳn (coi như rollback)")
+    void relayBatch_SkippedIdNeverCommitted_ShouldBeAbandonedAfterRetryWindow() throws Exception {
+        outbox = outbox(0, Duration.ZERO);
+        Instant now = Instant.now();
+        when(outboxRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(3))).thenReturn(List.of(
+                row(1, ProductChangeEvent.Type.CREATED, now),
+                row(3, ProductChangeEvent.Type.CREATED, now)));
+        assertFalse(outbox.relayBatch());
+        when(outboxRepository.findByIdGreaterThanOrderByIdAsc(3L, Limit.of(3))).thenReturn(List.of());
+
+        assertFalse(outbox.relayBatch());
+
+        verify(outboxRepository, never()).findAllById(any());
+        assertEquals(3, outbox.deliveredThrough());
+        assertEquals(1, counter("flogin.outbox.gaps.abandoned"));
+    }
+
+    @Test
+    @DisplayName("relay: lưu deliveredThrough (không vượt qua id còn có thể commit muộn) khi nó thay đổi")
+    void relayBatch_ShouldSaveDeliveredThroughWhenChanged() throws Exception {
+        outbox = outbox(0, Duration.ofMinutes(10));
+        Instant now = Instant.now();
+        when(outboxRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(3))).thenReturn(List.of(
+                row(1, ProductChangeEvent.Type.CREATED, now),
+                row(3, ProductChangeEvent.Type.CREATED, now)));
+        assertFalse(outbox.relayBatch());
+        when(outboxRepository.findAllById(List.of(2L))).thenReturn(List.of());
+        when(outboxRepository.findByIdGreaterThanOrderByIdAsc(3L, Limit.of(3))).thenReturn(List.of());
+        assertFalse(outbox.relayBatch());
+
+        ArgumentCaptor<ProductOutboxOffset> captor = ArgumentCaptor.forClass(ProductOutboxOffset.class);
+        verify(offsetRepository, times(1)).save(captor.capture());
+        assertEquals("node-1", captor.getValue().getConsumer());
+        assertEquals(1L, captor.getValue().getLastId(), "id 2 chưa phát lại -> không lưu offset 3");
+    }
+
+    @Test
+    @DisplayName("resumeFrom: tiếp tục từ offset đã lưu của consumer - event commit ngay trước khi dừng vẫn được phát lại")
+    void resumeFrom_ShouldContinueFromSavedOffset() {
+        Instant now = Instant.now();
+        when(outboxRepository.findMaxId()).thenReturn(10L);
+        when(offsetRepository.findById("node-1"))
+                .thenReturn(Optional.of(new ProductOutboxOffset("node-1", 7L, now.minusSeconds(5))));
+        when(outboxRepository.findMinIdCreatedSince(now.minus(Duration.ofHours(24)))).thenReturn(1L);
+
+        assertEquals(7, outbox.resumeFrom(now));
+    }
+
+    @Test
+    @DisplayName("resumeFrom: không phát lại xa hơn retention; consumer mới bắt đầu từ id lớn nhất")
+    void resumeFrom_ShouldCapAtRetentionAndStartNewConsumerAtLatest() {
+        Instant now = Instant.now();
+        when(outboxRepository.findMaxId()).thenReturn(10L);
+        when(offsetRepository.findById("node-1")).thenReturn(Optional.empty());
+        assertEquals(10, outbox.resumeFrom(now));
+
+        when(offsetRepository.findById("node-1"))
+                .thenReturn(Optional.of(new ProductOutboxOffset("node-1", 2L, now.minus(Duration.ofHours(30)))));
+        when(outboxRepository.findMinIdCreatedSince(now.minus(Duration.ofHours(24)))).thenReturn(6L);
+        assertEquals(5, outbox.resumeFrom(now));
+
+        // Không còn dòng nào trong retention
+        when(outboxRepository.findMinIdCreatedSince(now.minus(Duration.ofHours(24)))).thenReturn(null);
+        assertEquals(10, outbox.resumeFrom(now));
+    }
+
+    @Test
+    @DisplayName("relay: listener lỗi không chặn các event sau, event được tính là failed")
+    void relayBatch_ListenerFailure_ShouldContinueWithNextEvent() throws Exception {
+        Instant now = Instant.now();
+        when(outboxRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(3))).thenReturn(List.of(
+                row(1, ProductChangeEvent.Type.CREATED, now),
+                row(2, ProductChangeEvent.Type.CREATED, now)));
+        doThrow(new IllegalStateException("listener failed"))
+                .doNothing()
+                .when(eventPublisher).publishEvent(any(Object.class));
+
+        assertFalse(outbox.relayBatch());
+
+        publishedEvents(2);
+        assertEquals(2, offset());
+        assertEquals(1, meterRegistry.get("flogin.outbox.events").tag("outcome", "failed").counter().count());
+        assertEquals(1, meterRegistry.get("flogin.outbox.events").tag("outcome", "delivered").counter().count());
+    }
+
+    @Test
+    @DisplayName("relay: không có dòng mới thì không phát gì, offset giữ nguyên")
+    void relayBatch_NoRows_ShouldNotPublish() {
+        when(outboxRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class))).thenReturn(List.of());
+
+        assertFalse(outbox.relayBatch());
+
+        verifyNoInteractions(eventPublisher);
+        assertEquals(0, offset());
+    }
+
+    @Test
+    @DisplayName("append: ghi đủ thông tin event và đăng ký đánh thức relay sau commit")
+    void append_ShouldSaveRowAndRegisterAfterCommit() throws Exception {
+        ProductResponse product = ProductResponse.builder()
+                .id(7L)
+                .name("Laptop")
+                .price(new BigDecimal("10.00"))
+                .quantity(3)
+                .category("ELECTRONICS")
+                .build();
+        ProductChangeEvent event = ProductChangeEvent.updated(product, new StockLevel(Category.BOOKS, 500L, 1));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            outbox.append(event);
+            assertEquals(1, TransactionSynchronizationManager.getSynchronizations().size());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        ArgumentCaptor<ProductOutboxEvent> captor = ArgumentCaptor.forClass(ProductOutboxEvent.class);
+        verify(outboxRepository).save(captor.capture());
+        ProductOutboxEvent row = captor.getValue();
+        assertEquals(ProductChangeEvent.Type.UPDATED, row.getEventType());
+        assertEquals(7L, row.getProductId());
+        assertEquals(product, objectMapper.readValue(row.getPayload(), ProductResponse.class));
+        assertEquals(Category.BOOKS, row.getPreviousCategory());
+        assertEquals(500L, row.getPreviousPriceCents());
+        assertEquals(1, row.getPreviousQuantity());
+        assertEquals(event.occurredAt(), row.getCreatedAt());
+    }
+}
@@ -1,5 +1,6 @@
 package com.flogin.service.product;
 
+import com.flogin.catalog.InMemoryProductCatalog;
 import com.flogin.dto.product.ProductMapper;
 import com.flogin.dto.product.ProductRequest;
 import com.flogin.dto.product.ProductResponse;
@@ -8,6 +9,7 @@ import com.flogin.entity.product.Product;
 import com.flogin.exception.BadRequestException;
 import com.flogin.exception.NotFoundException;
 import com.flogin.repository.product.ProductRepository;
+import com.flogin.search.ProductSearchIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -19,6 +21,9 @@ import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -54,6 +59,21 @@ class ProductServiceTest {
     @Mock
     private ProductMapper productMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ProductOutbox productOutbox;
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @Mock
+    private ObjectProvider<InMemoryProductCatalog> inMemoryCatalog;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private ProductService productService;
 
@@ -503,6 +523,26 @@ class ProductServiceTest {
 
             assertEquals("Price must not exceed 999,999,999", exception.getMessage());
         }
+
+        @Test
+        @DisplayName("TC_PRICE_007: Price = 0.004 (làm tròn thành 0.00 khi lưu) -> BadRequestException")
+        void createProduct_WithPriceRoundingToZero_ShouldThrowBadRequestException() {
+            // Arrange
+            ProductRequest request = new ProductRequest();
+            request.setName("Product Name");
+            request.setDescription("Description");
+            request.setPrice(new BigDecimal("0.004"));
+            request.setQuantity(10);
+            request.setCategory("ELECTRONICS");
+
+            // Act & Assert
+            BadRequestException exception = assertThrows(
+                BadRequestException.class,
+                () -> productService.createProduct(request)
+            );
+
+            assertEquals("Price must be greater than 0", exception.getMessage());
+        }
     }
 
     // ==================== QUANTITY VALIDATION TESTS ====================
@@ -984,19 +1024,18 @@ class ProductServiceTest {
     // ==================== DELETE PRODUCT TESTS ====================
 
     @Test
-    @DisplayName("Delete Product - Success: ID tồn tại -> Gọi deleteById")
+    @DisplayName("Delete Product - Success: ID tồn tại -> Xóa entity đã load")
     void deleteProduct_WhenProductExists_ShouldDeleteSuccessfully() {
         // Arrange
         Long productId = 1L;
-        when(productRepository.existsById(productId)).thenReturn(true);
-        doNothing().when(productRepository).deleteById(productId);
+        when(productRepository.findById(productId)).thenReturn(Optional.of(testProduct));
 
         // Act
         productService.deleteProduct(productId);
 
         // Assert
-        verify(productRepository, times(1)).existsById(productId);
-        verify(productRepository, times(1)).deleteById(productId);
+        verify(productRepository, times(1)).findById(productId);
+        verify(productRepository, times(1)).delete(testProduct);
     }
 
     @Test
@@ -1004,7 +1043,7 @@ class ProductServiceTest {
     void deleteProduct_WhenProductNotExists_ShouldThrowNotFoundException() {
         // Arrange
         Long productId = 999L;
-        when(productRepository.existsById(productId)).thenReturn(false);
+        when(productRepository.findById(productId)).thenReturn(Optional.empty());
 
         // Act & Assert
         NotFoundException exception = assertThrows(
@@ -1014,8 +1053,8 @@ class ProductServiceTest {
         );
 
         assertEquals("Product not found with id: " + productId, exception.getMessage());
-        verify(productRepository, times(1)).existsById(productId);
-        verify(productRepository, never()).deleteById(anyLong());
+        verify(productRepository, times(1)).findById(productId);
+        verify(productRepository, never()).delete(any(Product.class));
     }
 
     // ==================== INTEGRATION-LIKE TESTS ====================
@@ -1172,4 +1211,4 @@ class ProductServiceTest {
         assertNotNull(result);
         verify(productRepository, times(1)).save(any(Product.class));
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
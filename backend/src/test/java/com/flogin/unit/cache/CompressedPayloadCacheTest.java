@@ -0,0 +1,74 @@
+package com.flogin.unit.cache;
+
+import com.flogin.cache.CompressedPayloadCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Tests cho CompressedPayloadCache
+ */
+@DisplayName("CompressedPayloadCache Unit Tests")
+class CompressedPayloadCacheTest {
+
+    private CompressedPayloadCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new CompressedPayloadCache(DataSize.ofBytes(100), 2);
+    }
+
+    @Test
+    @DisplayName("Payload lớn hơn ngưỡng được lưu kèm bản gzip giải nén ra đúng nội dung")
+    void put_AboveThreshold_StoresGzipCopy() throws IOException {
+        byte[] json = "[{\"name\":\"Laptop\"},{\"name\":\"Laptop\"}]".repeat(10).getBytes(StandardCharsets.UTF_8);
+
+        CompressedPayloadCache.Payload payload = cache.put("products", "\"v1\"", json);
+
+        assertTrue(payload.hasGzip());
+        assertTrue(payload.gzip().length < json.length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(payload.gzip()))) {
+            assertArrayEquals(json, in.readAllBytes());
+        }
+    }
+
+    @Test
+    @DisplayName("Payload nhỏ hơn ngưỡng không được nén")
+    void put_BelowThreshold_StoresIdentityOnly() {
+        CompressedPayloadCache.Payload payload = cache.put("products", "\"v1\"", "[]".getBytes(StandardCharsets.UTF_8));
+
+        assertFalse(payload.hasGzip());
+    }
+
+    @Test
+    @DisplayName("get chỉ trả payload khi ETag khớp")
+    void get_ReturnsPayloadOnlyForMatchingETag() {
+        cache.put("products", "\"v1\"", "[]".getBytes(StandardCharsets.UTF_8));
+
+        assertNotNull(cache.get("products", "\"v1\""));
+        assertNull(cache.get("products", "\"v2\""));
+        assertNull(cache.get("other", "\"v1\""));
+    }
+
+    @Test
+    @DisplayName("Vượt max-entries thì entry ít dùng nhất bị loại")
+    void put_BeyondMaxEntries_EvictsLeastRecentlyUsed() {
+        byte[] body = "[]".getBytes(StandardCharsets.UTF_8);
+        cache.put("a", "\"1\"", body);
+        cache.put("b", "\"1\"", body);
+        cache.get("a", "\"1\"");
+        cache.put("c", "\"1\"", body);
+
+        assertNotNull(cache.get("a", "\"1\""));
+        assertNull(cache.get("b", "\"1\""));
+        assertNotNull(cache.get("c", "\"1\""));
+    }
+}
@@ -0,0 +1,192 @@
+package com.flogin.unit.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flogin.cache.IdempotencyStore;
+import com.flogin.dto.product.ProductResponse;
+import com.flogin.exception.BadRequestException;
+import com.flogin.exception.ConflictException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Tests cho IdempotencyStore
+ */
+@DisplayName("IdempotencyStore Unit Tests")
+class IdempotencyStoreTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private IdempotencyStore store;
+    private AtomicInteger executions;
+
+    @BeforeEach
+    void setUp() {
+        store = new IdempotencyStore(objectMapper, Duration.ofHours(1), 2);
+        executions = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static void authenticateAs(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated(username, null, List.of()));
+    }
+
+    /**
+     * toString giống nhau cho mọi giá trị: fingerprint không được dựa vào toString
+     */
+    private record Credentials(String username, String password) {
+        @Override
+        public String toString() {
+            return "Credentials[username=" + username + "]";
+        }
+    }
+
+    private ResponseEntity<String> create() {
+        return ResponseEntity.status(HttpStatus.CREATED).body("created-" + executions.incrementAndGet());
+    }
+
+    @Test
+    @DisplayName("Không có key: action luôn được chạy")
+    void execute_WithoutKey_AlwaysRunsAction() {
+        store.execute("scope", null, "request", this::create);
+        store.execute("scope", null, "request", this::create);
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    @DisplayName("Cùng key + cùng request: trả lại response đầu tiên, đánh dấu replay")
+    void execute_SameKeyAndRequest_ReplaysFirstResponse() {
+        ResponseEntity<String> first = store.execute("scope", "k1", "request", this::create);
+        ResponseEntity<String> retry = store.execute("scope", "k1", "request", this::create);
+
+        assertEquals(1, executions.get());
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+        assertEquals(first.getBody(), retry.getBody());
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        assertNull(first.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+    }
+
+    @Test
+    @DisplayName("Key được tách theo scope")
+    void execute_SameKeyDifferentScope_RunsAgain() {
+        store.execute("products", "k1", "request", this::create);
+        store.execute("register", "k1", "request", this::create);
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    @DisplayName("Key được tách theo người dùng: cùng key của người dùng khác chạy riêng")
+    void execute_SameKeyDifferentPrincipal_RunsAgain() {
+        authenticateAs("alice");
+        ResponseEntity<String> alice = store.execute("scope", "k1", "request", this::create);
+        authenticateAs("bob");
+        ResponseEntity<String> bob = store.execute("scope", "k1", "other", this::create);
+        ResponseEntity<String> bobRetry = store.execute("scope", "k1", "other", this::create);
+
+        assertEquals(2, executions.get());
+        assertNotEquals(alice.getBody(), bob.getBody());
+        assertEquals(bob.getBody(), bobRetry.getBody());
+    }
+
+    @Test
+    @DisplayName("Fingerprint từ JSON của request: khác field nhưng cùng toString vẫn là request khác")
+    void execute_SameToStringDifferentFields_Throws() {
+        store.execute("scope", "k1", new Credentials("alice", "secret1"), this::create);
+
+        assertThrows(BadRequestException.class,
+                () -> store.execute("scope", "k1", new Credentials("alice", "secret2"), this::create));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    @DisplayName("Replay trả bản sao của response: sửa body đã trả không ảnh hưởng lần replay sau")
+    void execute_Replay_ReturnsIndependentCopy() {
+        ProductResponse product = ProductResponse.builder().id(1L).name("Laptop").price(new BigDecimal("10.00")).build();
+        ResponseEntity<ProductResponse> first = store.execute("scope", "k1", "request",
+                () -> ResponseEntity.status(HttpStatus.CREATED).body(product));
+        first.getBody().setName("changed");
+
+        ResponseEntity<ProductResponse> retry = store.execute("scope", "k1", "request",
+                () -> ResponseEntity.ok(product));
+        ResponseEntity<ProductResponse> again = store.execute("scope", "k1", "request",
+                () -> ResponseEntity.ok(product));
+
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+        assertEquals("Laptop", retry.getBody().getName());
+        assertEquals(new BigDecimal("10.00"), retry.getBody().getPrice());
+        assertNotSame(retry.getBody(), again.getBody());
+    }
+
+    @Test
+    @DisplayName("Cùng key cho request khác: BadRequestException")
+    void execute_SameKeyDifferentRequest_Throws() {
+        store.execute("scope", "k1", "request", this::create);
+
+        assertThrows(BadRequestException.class, () -> store.execute("scope", "k1", "other", this::create));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    @DisplayName("Retry trong lúc lần đầu còn chạy: ConflictException")
+    void execute_WhileFirstAttemptInProgress_Throws() {
+        store.execute("scope", "k1", "request", () -> {
+            assertThrows(ConflictException.class, () -> store.execute("scope", "k1", "request", this::create));
+            return create();
+        });
+
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    @DisplayName("Action ném exception: key được giải phóng để retry chạy lại")
+    void execute_WhenActionFails_ReleasesKey() {
+        assertThrows(IllegalStateException.class, () -> store.execute("scope", "k1", "request", () -> {
+            throw new IllegalStateException("database down");
+        }));
+
+        store.execute("scope", "k1", "request", this::create);
+
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    @DisplayName("Key quá dài hoặc rỗng: BadRequestException")
+    void execute_InvalidKey_Throws() {
+        assertThrows(BadRequestException.class, () -> store.execute("scope", "x".repeat(256), "request", this::create));
+        assertThrows(BadRequestException.class, () -> store.execute("scope", " ", "request", this::create));
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    @DisplayName("Entry hết hạn hoặc bị đẩy khỏi LRU: chạy lại action")
+    void execute_ExpiredOrEvictedEntry_RunsAgain() {
+        IdempotencyStore expiring = new IdempotencyStore(objectMapper, Duration.ZERO, 2);
+        expiring.execute("scope", "k1", "request", this::create);
+        expiring.execute("scope", "k1", "request", this::create);
+        assertEquals(2, executions.get());
+
+        store.execute("scope", "k1", "request", this::create);
+        store.execute("scope", "k2", "request", this::create);
+        store.execute("scope", "k3", "request", this::create);
+        store.execute("scope", "k1", "request", this::create);
+        assertEquals(6, executions.get());
+    }
+}
@@ -0,0 +1,85 @@
+package com.flogin.unit.cache;
+
+import com.flogin.cache.ProductJsonCache;
+import com.flogin.dto.product.ProductResponse;
+import com.flogin.dto.product.StockLevel;
+import com.flogin.entity.product.Category;
+import com.flogin.event.ProductChangeEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Tests cho ProductJsonCache
+ */
+@DisplayName("ProductJsonCache Unit Tests")
+class ProductJsonCacheTest {
+
+    private static final LocalDateTime VERSION = LocalDateTime.of(2025, 1, 15, 10, 30);
+    private static final byte[] JSON = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+
+    private ProductJsonCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ProductJsonCache(2);
+    }
+
+    private static ProductResponse product(long id) {
+        return ProductResponse.builder()
+                .id(id)
+                .name("Laptop")
+                .price(new BigDecimal("10.00"))
+                .quantity(1)
+                .category("ELECTRONICS")
+                .updatedAt(VERSION)
+                .build();
+    }
+
+    @Test
+    @DisplayName("get chỉ trả bytes khi version (updatedAt) khớp")
+    void get_ReturnsJsonOnlyForMatchingVersion() {
+        cache.put(1L, VERSION, JSON);
+
+        assertArrayEquals(JSON, cache.get(1L, VERSION));
+        assertNull(cache.get(1L, VERSION.plusNanos(1_000)));
+        assertNull(cache.get(2L, VERSION));
+    }
+
+    @Test
+    @DisplayName("Vượt max-entries: entry ít dùng nhất bị loại")
+    void put_BeyondMaxEntries_EvictsLeastRecentlyUsed() {
+        cache.put(1L, VERSION, JSON);
+        cache.put(2L, VERSION, JSON);
+        cache.get(1L, VERSION);
+        cache.put(3L, VERSION, JSON);
+
+        assertNotNull(cache.get(1L, VERSION));
+        assertNull(cache.get(2L, VERSION));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    @DisplayName("Update / delete xóa entry của sản phẩm, create không đụng tới cache")
+    void onProductChange_UpdateOrDelete_EvictsEntry() {
+        cache.put(1L, VERSION, JSON);
+        cache.put(2L, VERSION, JSON);
+
+        cache.onProductChange(ProductChangeEvent.created(product(3)));
+        assertEquals(2, cache.size());
+
+        cache.onProductChange(ProductChangeEvent.updated(product(1),
+                new StockLevel(Category.ELECTRONICS, new BigDecimal("9.00"), 1)));
+        cache.onProductChange(ProductChangeEvent.deleted(2L, null));
+
+        assertNull(cache.get(1L, VERSION));
+        assertNull(cache.get(2L, VERSION));
+        assertEquals(0, cache.size());
+    }
+}
@@ -1,6 +1,7 @@
 package com.flogin.unit.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flogin.cache.IdempotencyStore;
 import com.flogin.controller.AuthController;
 import com.flogin.dto.auth.LoginRequest;
 import com.flogin.dto.auth.RegisterRequest;
@@ -15,6 +16,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -33,6 +35,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * Note: addFilters = false để disable Spring Security filters
  */
 @WebMvcTest(AuthController.class)
+@Import(IdempotencyStore.class)
 @AutoConfigureMockMvc(addFilters = false)
 @DisplayName("AuthController Unit Tests")
 class LoginControllerTest {
@@ -1,9 +1,21 @@
 package com.flogin.unit.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.flogin.BinaryContentConfig;
+import com.flogin.cache.CompressedPayloadCache;
+import com.flogin.cache.IdempotencyStore;
+import com.flogin.cache.ProductJsonCache;
 import com.flogin.controller.ProductController;
+import com.flogin.controller.ProductEncodings;
+import com.flogin.dto.product.CatalogVersion;
+import com.flogin.dto.product.ProductField;
+import com.flogin.dto.product.ProductFilter;
 import com.flogin.dto.product.ProductRequest;
 import com.flogin.dto.product.ProductResponse;
+import com.flogin.dto.product.ProductSuggestion;
 import com.flogin.exception.BadRequestException;
 import com.flogin.exception.NotFoundException;
 import com.flogin.service.product.ProductService;
@@ -15,16 +27,23 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -42,6 +61,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * - DELETE /api/products/{id} - Delete product
  */
 @WebMvcTest(ProductController.class)
+@Import({BinaryContentConfig.class, ProductEncodings.class, CompressedPayloadCache.class, IdempotencyStore.class,
+        ProductJsonCache.class})
 @AutoConfigureMockMvc(addFilters = false)
 class ProductControllerTest {
     
@@ -149,6 +170,100 @@ class ProductControllerTest {
     }
     
     // ==================== GET PRODUCT BY ID ====================
+    @Nested
+    @DisplayName("GET /api/products?category=... - Filter Products")
+    class FilterProductsTests {
+        
+        @Test
+        @DisplayName("Should bind filter parameters and skip catalog cache path")
+        void getAllProducts_WithFilter_CallsFilterProducts() throws Exception {
+            when(productService.filterProducts(any(ProductFilter.class)))
+                    .thenReturn(Collections.singletonList(sampleResponse));
+            
+            mockMvc.perform(get("/api/products")
+                            .param("category", "ELECTRONICS")
+                            .param("minPrice", "10")
+                            .param("maxPrice", "2000.50")
+                            .param("inStock", "true")
+                            .param("sort", "price")
+                            .param("direction", "desc"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist("ETag"))
+                    .andExpect(jsonPath("$", hasSize(1)));
+            
+            verify(productService).filterProducts(new ProductFilter("ELECTRONICS",
+                    new BigDecimal("10"), new BigDecimal("2000.50"), true, "price", "desc"));
+            verify(productService, never()).getCatalogVersion();
+            verify(productService, never()).getAllProducts();
+        }
+        
+        @Test
+        @DisplayName("Should return 400 when filter is invalid")
+        void getAllProducts_InvalidFilter_Returns400() throws Exception {
+            when(productService.filterProducts(any(ProductFilter.class)))
+                    .thenThrow(new BadRequestException("Invalid sort: name. Valid values are: price, createdAt"));
+            
+            mockMvc.perform(get("/api/products").param("sort", "name"))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+    
+    // ==================== SPARSE FIELDSET ====================
+    @Nested
+    @DisplayName("GET /api/products?fields=... - Sparse Fieldset")
+    class SparseFieldsetTests {
+        
+        @Test
+        @DisplayName("Should return only requested fields with fieldset-specific ETag")
+        void getAllProducts_WithFields_ReturnsProjectedProducts() throws Exception {
+            Set<ProductField> fields = EnumSet.of(ProductField.ID, ProductField.NAME);
+            when(productService.getCatalogVersion()).thenReturn(Optional.of(new CatalogVersion(1, now)));
+            when(productService.getAllProducts()).thenReturn(Collections.singletonList(sampleResponse));
+            when(productService.findProductFields(any(ProductFilter.class), eq(fields)))
+                    .thenReturn(List.of(ProductField.project(sampleResponse, fields)));
+            
+            String fullEtag = mockMvc.perform(get("/api/products"))
+                    .andReturn().getResponse().getHeader("ETag");
+            String etag = mockMvc.perform(get("/api/products").param("fields", "name, id"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].id").value(1))
+                    .andExpect(jsonPath("$[0].name").value("Test Product"))
+                    .andExpect(jsonPath("$[0].price").doesNotExist())
+                    .andExpect(jsonPath("$[0].description").doesNotExist())
+                    .andReturn().getResponse().getHeader("ETag");
+            mockMvc.perform(get("/api/products").param("fields", "id,name").header("If-None-Match", etag))
+                    .andExpect(status().isNotModified());
+            
+            assertNotEquals(fullEtag, etag);
+            verify(productService, times(1)).findProductFields(any(ProductFilter.class), eq(fields));
+        }
+        
+        @Test
+        @DisplayName("Should combine fields with filter without caching")
+        void getAllProducts_WithFieldsAndFilter_CallsFindProductFields() throws Exception {
+            Set<ProductField> fields = EnumSet.of(ProductField.PRICE);
+            when(productService.findProductFields(any(ProductFilter.class), eq(fields)))
+                    .thenReturn(List.of(ProductField.project(sampleResponse, fields)));
+            
+            mockMvc.perform(get("/api/products").param("category", "ELECTRONICS").param("fields", "price"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist("ETag"))
+                    .andExpect(jsonPath("$[0].price").value(99.99))
+                    .andExpect(jsonPath("$[0].name").doesNotExist());
+            
+            verify(productService, never()).filterProducts(any(ProductFilter.class));
+        }
+        
+        @Test
+        @DisplayName("Should return 400 for unknown field")
+        void getAllProducts_UnknownField_Returns400() throws Exception {
+            mockMvc.perform(get("/api/products").param("fields", "id,password"))
+                    .andExpect(status().isBadRequest());
+            
+            verifyNoInteractions(productService);
+        }
+    }
+    
     @Nested
     @DisplayName("GET /api/products/{id} - Get Product by ID")
     class GetProductByIdTests {
@@ -181,6 +296,211 @@ class ProductControllerTest {
         }
     }
     
+    // ==================== CONDITIONAL GET ====================
+    @Nested
+    @DisplayName("Conditional GET - ETag / Last-Modified")
+    class ConditionalGetTests {
+        
+        @Test
+        @DisplayName("Should return ETag and Last-Modified for product")
+        void getProductById_ReturnsValidators() throws Exception {
+            when(productService.getProductById(1L)).thenReturn(sampleResponse);
+            
+            mockMvc.perform(get("/api/products/1"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", org.hamcrest.Matchers.startsWith("\"p1-")))
+                    .andExpect(header().exists("Last-Modified"));
+        }
+        
+        @Test
+        @DisplayName("Should return 304 without loading product when If-None-Match matches")
+        void getProductById_MatchingETag_Returns304() throws Exception {
+            when(productService.getProductById(1L)).thenReturn(sampleResponse);
+            String etag = mockMvc.perform(get("/api/products/1"))
+                    .andReturn().getResponse().getHeader("ETag");
+            when(productService.getProductVersion(1L)).thenReturn(Optional.of(now));
+            
+            mockMvc.perform(get("/api/products/1").header("If-None-Match", etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().string(""));
+            
+            verify(productService, times(1)).getProductById(1L);
+        }
+        
+        @Test
+        @DisplayName("Should return 200 when product changed since ETag")
+        void getProductById_StaleETag_Returns200() throws Exception {
+            when(productService.getProductVersion(1L)).thenReturn(Optional.of(now));
+            when(productService.getProductById(1L)).thenReturn(sampleResponse);
+            
+            mockMvc.perform(get("/api/products/1").header("If-None-Match", "\"p1-0\""))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id").value(1));
+        }
+        
+        @Test
+        @DisplayName("Should serve cached JSON bytes while product version unchanged")
+        void getProductById_SameVersion_ServesCachedJson() throws Exception {
+            when(productService.getProductVersion(1L)).thenReturn(Optional.of(now));
+            when(productService.getProductById(1L)).thenReturn(sampleResponse);
+            
+            String first = mockMvc.perform(get("/api/products/1"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            mockMvc.perform(get("/api/products/1"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(header().string("ETag", org.hamcrest.Matchers.startsWith("\"p1-")))
+                    .andExpect(header().exists("Last-Modified"))
+                    .andExpect(content().json(first, true));
+            verify(productService, times(1)).getProductById(1L);
+            
+            // Version mới: bytes cũ không được dùng
+            LocalDateTime updatedAt = now.plusSeconds(1);
+            sampleResponse.setUpdatedAt(updatedAt);
+            sampleResponse.setName("Renamed Product");
+            when(productService.getProductVersion(1L)).thenReturn(Optional.of(updatedAt));
+            mockMvc.perform(get("/api/products/1"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.name").value("Renamed Product"));
+            verify(productService, times(2)).getProductById(1L);
+        }
+        
+        @Test
+        @DisplayName("Should return 304 for list when catalog version unchanged")
+        void getAllProducts_MatchingCatalogETag_Returns304() throws Exception {
+            when(productService.getCatalogVersion())
+                    .thenReturn(Optional.of(new CatalogVersion(1, now)));
+            when(productService.getAllProducts()).thenReturn(Collections.singletonList(sampleResponse));
+            
+            String etag = mockMvc.perform(get("/api/products"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist("Last-Modified"))
+                    .andReturn().getResponse().getHeader("ETag");
+            
+            mockMvc.perform(get("/api/products").header("If-None-Match", etag))
+                    .andExpect(status().isNotModified());
+            
+            verify(productService, times(1)).getAllProducts();
+        }
+        
+        @Test
+        @DisplayName("Should serve precompressed gzip list when client accepts gzip")
+        void getAllProducts_AcceptsGzip_ReturnsPrecompressedBody() throws Exception {
+            List<ProductResponse> products = Collections.nCopies(50, sampleResponse);
+            when(productService.getCatalogVersion()).thenReturn(Optional.of(new CatalogVersion(50, now)));
+            when(productService.getAllProducts()).thenReturn(products);
+            
+            String gzipEtag = mockMvc.perform(get("/api/products").header("Accept-Encoding", "gzip, deflate"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Content-Encoding", "gzip"))
+                    .andExpect(header().stringValues("Vary", hasItem("Accept-Encoding")))
+                    .andExpect(header().stringValues("ETag", iterableWithSize(1)))
+                    .andReturn().getResponse().getHeader("ETag");
+            String identityEtag = mockMvc.perform(get("/api/products"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist("Content-Encoding"))
+                    .andExpect(jsonPath("$", hasSize(50)))
+                    .andReturn().getResponse().getHeader("ETag");
+            
+            // Strong ETag khác nhau cho bản gzip và bản gốc; cả hai đều revalidate được
+            assertEquals(identityEtag.substring(0, identityEtag.length() - 1) + "-gzip\"", gzipEtag);
+            mockMvc.perform(get("/api/products").header("Accept-Encoding", "gzip").header("If-None-Match", gzipEtag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string("ETag", gzipEtag));
+            mockMvc.perform(get("/api/products").header("If-None-Match", identityEtag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string("ETag", identityEtag));
+            
+            // cùng catalog version -> serialize đúng một lần
+            verify(productService, times(1)).getAllProducts();
+        }
+    }
+    
+    // ==================== BINARY ENCODINGS ====================
+    @Nested
+    @DisplayName("CBOR / Smile content negotiation")
+    class BinaryEncodingTests {
+        
+        private final ObjectMapper cbor = new CBORMapper().findAndRegisterModules();
+        private final ObjectMapper smile = new SmileMapper().findAndRegisterModules();
+        
+        @Test
+        @DisplayName("Should serve list as CBOR with its own ETag and payload cache entry")
+        void getAllProducts_AcceptCbor_ReturnsCbor() throws Exception {
+            when(productService.getCatalogVersion()).thenReturn(Optional.of(new CatalogVersion(2, now)));
+            when(productService.getAllProducts()).thenReturn(List.of(sampleResponse, sampleResponse));
+            
+            MockHttpServletResponse response = mockMvc.perform(get("/api/products").accept(MediaType.APPLICATION_CBOR))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                    .andExpect(header().string("ETag", org.hamcrest.Matchers.endsWith("-cbor\"")))
+                    .andExpect(header().stringValues("Vary", hasItem("Accept")))
+                    .andReturn().getResponse();
+            JsonNode products = cbor.readTree(response.getContentAsByteArray());
+            assertEquals(2, products.size());
+            assertEquals("Test Product", products.get(0).get("name").asText());
+            assertEquals(0, new BigDecimal("99.99").compareTo(products.get(0).get("price").decimalValue()));
+            
+            // JSON và CBOR không dùng chung ETag / payload
+            String jsonEtag = mockMvc.perform(get("/api/products"))
+                    .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andReturn().getResponse().getHeader("ETag");
+            assertNotEquals(response.getHeader("ETag"), jsonEtag);
+            mockMvc.perform(get("/api/products").accept(MediaType.APPLICATION_CBOR)
+                            .header("If-None-Match", response.getHeader("ETag")))
+                    .andExpect(status().isNotModified());
+            verify(productService, times(2)).getAllProducts();
+        }
+        
+        @Test
+        @DisplayName("Should serve single product as Smile")
+        void getProductById_AcceptSmile_ReturnsSmile() throws Exception {
+            when(productService.getProductVersion(1L)).thenReturn(Optional.of(now));
+            when(productService.getProductById(1L)).thenReturn(sampleResponse);
+            
+            MockHttpServletResponse response = mockMvc.perform(get("/api/products/1")
+                            .accept(ProductEncodings.APPLICATION_SMILE))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(ProductEncodings.APPLICATION_SMILE))
+                    .andExpect(header().string("ETag", org.hamcrest.Matchers.endsWith("-smile\"")))
+                    .andReturn().getResponse();
+            JsonNode product = smile.readTree(response.getContentAsByteArray());
+            assertEquals(1, product.get("id").asLong());
+            assertEquals(now, LocalDateTime.parse(product.get("updatedAt").asText()));
+        }
+        
+        @Test
+        @DisplayName("Should accept CBOR request body and answer in CBOR")
+        void createProduct_CborBody_ReturnsCbor() throws Exception {
+            when(productService.createProduct(any(ProductRequest.class))).thenReturn(sampleResponse);
+            
+            MockHttpServletResponse response = mockMvc.perform(post("/api/products")
+                            .contentType(MediaType.APPLICATION_CBOR)
+                            .accept(MediaType.APPLICATION_CBOR)
+                            .content(cbor.writeValueAsBytes(validRequest)))
+                    .andExpect(status().isCreated())
+                    .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                    .andReturn().getResponse();
+            
+            assertEquals("Test Product", cbor.readTree(response.getContentAsByteArray()).get("name").asText());
+            verify(productService).createProduct(argThat(request -> "Test Product".equals(request.getName())
+                    && new BigDecimal("99.99").equals(request.getPrice())));
+        }
+        
+        @Test
+        @DisplayName("Should validate CBOR request body like JSON")
+        void createProduct_InvalidCborBody_Returns400() throws Exception {
+            validRequest.setName("");
+            
+            mockMvc.perform(post("/api/products")
+                            .contentType(MediaType.APPLICATION_CBOR)
+                            .content(cbor.writeValueAsBytes(validRequest)))
+                    .andExpect(status().isBadRequest());
+            verify(productService, never()).createProduct(any());
+        }
+    }
+    
     // ==================== CREATE PRODUCT ====================
     @Nested
     @DisplayName("POST /api/products - Create Product")
@@ -369,6 +689,49 @@ class ProductControllerTest {
                             .content(objectMapper.writeValueAsString(validRequest)))
                     .andExpect(status().isCreated());
         }
+        
+        @Test
+        @DisplayName("Retry với cùng Idempotency-Key trả lại response cũ, không tạo sản phẩm lần nữa")
+        void createProduct_RetryWithSameIdempotencyKey_ReplaysResponse() throws Exception {
+            when(productService.createProduct(any(ProductRequest.class))).thenReturn(sampleResponse);
+            String body = objectMapper.writeValueAsString(validRequest);
+            
+            mockMvc.perform(post("/api/products")
+                            .header(IdempotencyStore.HEADER, "create-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(body))
+                    .andExpect(status().isCreated())
+                    .andExpect(header().doesNotExist(IdempotencyStore.REPLAYED_HEADER));
+            mockMvc.perform(post("/api/products")
+                            .header(IdempotencyStore.HEADER, "create-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(body))
+                    .andExpect(status().isCreated())
+                    .andExpect(header().string(IdempotencyStore.REPLAYED_HEADER, "true"))
+                    .andExpect(jsonPath("$.id").value(1));
+            
+            verify(productService, times(1)).createProduct(any(ProductRequest.class));
+        }
+        
+        @Test
+        @DisplayName("Idempotency-Key dùng lại cho body khác - returns 400")
+        void createProduct_SameIdempotencyKeyDifferentBody_Returns400() throws Exception {
+            when(productService.createProduct(any(ProductRequest.class))).thenReturn(sampleResponse);
+            
+            mockMvc.perform(post("/api/products")
+                            .header(IdempotencyStore.HEADER, "create-2")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(validRequest)))
+                    .andExpect(status().isCreated());
+            validRequest.setQuantity(validRequest.getQuantity() + 1);
+            mockMvc.perform(post("/api/products")
+                            .header(IdempotencyStore.HEADER, "create-2")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(validRequest)))
+                    .andExpect(status().isBadRequest());
+            
+            verify(productService, times(1)).createProduct(any(ProductRequest.class));
+        }
     }
     
     // ==================== UPDATE PRODUCT ====================
@@ -475,6 +838,67 @@ class ProductControllerTest {
         }
     }
     
+    // ==================== SEARCH PRODUCTS ====================
+    @Nested
+    @DisplayName("GET /api/products/search - Search Products")
+    class SearchProductsTests {
+        
+        @Test
+        @DisplayName("Should return ranked results with default limit")
+        void searchProducts_DefaultLimit_ReturnsResults() throws Exception {
+            when(productService.searchProducts("test", ProductService.DEFAULT_SEARCH_LIMIT))
+                    .thenReturn(List.of(sampleResponse));
+            
+            mockMvc.perform(get("/api/products/search").param("keyword", "test"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(1))
+                    .andExpect(jsonPath("$[0].name").value("Test Product"));
+            
+            verify(productService).searchProducts("test", ProductService.DEFAULT_SEARCH_LIMIT);
+        }
+        
+        @Test
+        @DisplayName("Should pass limit and return 400 when it is out of range")
+        void searchProducts_InvalidLimit_Returns400() throws Exception {
+            when(productService.searchProducts("test", 500))
+                    .thenThrow(new BadRequestException("limit must be between 1 and 100"));
+            
+            mockMvc.perform(get("/api/products/search").param("keyword", "test").param("limit", "500"))
+                    .andExpect(status().isBadRequest());
+            
+            verify(productService, never()).getProductById(any());
+        }
+    }
+    
+    // ==================== AUTOCOMPLETE ====================
+    @Nested
+    @DisplayName("GET /api/products/autocomplete - Autocomplete Tests")
+    class AutocompleteTests {
+        
+        @Test
+        @DisplayName("Should return suggestions with default limit")
+        void autocomplete_DefaultLimit_ReturnsSuggestions() throws Exception {
+            when(productService.suggestProductNames("tes", ProductService.DEFAULT_SUGGEST_LIMIT))
+                    .thenReturn(List.of(new ProductSuggestion(1L, "Test Product")));
+            
+            mockMvc.perform(get("/api/products/autocomplete").param("prefix", "tes"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(1))
+                    .andExpect(jsonPath("$[0].id").value(1))
+                    .andExpect(jsonPath("$[0].name").value("Test Product"));
+        }
+        
+        @Test
+        @DisplayName("Should return 400 when limit is out of range")
+        void autocomplete_InvalidLimit_Returns400() throws Exception {
+            when(productService.suggestProductNames("tes", 50))
+                    .thenThrow(new BadRequestException("limit must be between 1 and 10"));
+            
+            mockMvc.perform(get("/api/products/autocomplete").param("prefix", "tes").param("limit", "50"))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+    
     // ==================== CATEGORY VALIDATION ====================
     @Nested
     @DisplayName("Category Validation Tests")
@@ -0,0 +1,60 @@
+package com.flogin.unit.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.flogin.controller.ProductEncodings;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Tests cho ProductEncodings (chọn JSON / CBOR / Smile theo header Accept)
+ */
+@DisplayName("ProductEncodings Unit Tests")
+class ProductEncodingsTest {
+
+    private final ProductEncodings encodings = new ProductEncodings(new ObjectMapper(),
+            new MappingJackson2CborHttpMessageConverter(new CBORMapper()),
+            new MappingJackson2SmileHttpMessageConverter(new SmileMapper()));
+
+    private String negotiate(String accept) {
+        return encodings.negotiate(accept).name();
+    }
+
+    @Test
+    @DisplayName("Không có Accept, */* hoặc Accept không hợp lệ -> JSON")
+    void negotiate_DefaultsToJson() {
+        assertEquals("json", negotiate(null));
+        assertEquals("json", negotiate(""));
+        assertEquals("json", negotiate("*/*"));
+        assertEquals("json", negotiate("application/*"));
+        assertEquals("json", negotiate("text/html;;;"));
+    }
+
+    @Test
+    @DisplayName("Chọn media type được yêu cầu cụ thể")
+    void negotiate_ExplicitBinaryType() {
+        assertEquals("cbor", negotiate("application/cbor"));
+        assertEquals("smile", negotiate("application/x-jackson-smile, */*;q=0.1"));
+        assertTrue(encodings.negotiate("application/json").isJson());
+    }
+
+    @Test
+    @DisplayName("q-value của media range cụ thể nhất quyết định")
+    void negotiate_UsesQualityOfMostSpecificRange() {
+        assertEquals("json", negotiate("application/cbor;q=0.5, application/json"));
+        assertEquals("cbor", negotiate("application/json;q=0, application/*"));
+        assertEquals("smile", negotiate("application/*;q=0.2, application/x-jackson-smile;q=0.9"));
+    }
+
+    @Test
+    @DisplayName("ETag của CBOR / Smile có hậu tố riêng, JSON giữ nguyên")
+    void etag_AddsSuffixForBinaryEncodings() {
+        assertEquals("\"p1-abc\"", encodings.negotiate("application/json").etag("\"p1-abc\""));
+        assertEquals("\"p1-abc-cbor\"", encodings.negotiate("application/cbor").etag("\"p1-abc\""));
+    }
+}
@@ -0,0 +1,146 @@
+package com.flogin.unit.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flogin.controller.ProductEventController;
+import com.flogin.dto.product.ProductResponse;
+import com.flogin.event.ProductChangeEvent;
+import com.flogin.service.product.ProductEventBroadcaster;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Unit Tests cho SSE feed GET /api/products/events
+ *
+ * Executor chạy đồng bộ để nội dung stream có thể kiểm tra ngay trên MockHttpServletResponse.
+ */
+@DisplayName("Product Events (SSE) Tests")
+class ProductEventControllerTest {
+
+    private static final Executor DIRECT = Runnable::run;
+
+    private ProductEventBroadcaster broadcaster(Executor executor, int clientBufferSize, int replaySize) {
+        return new ProductEventBroadcaster(executor, new ObjectMapper().findAndRegisterModules(),
+                clientBufferSize, replaySize, 60_000);
+    }
+
+    private MockMvc mockMvc(ProductEventBroadcaster broadcaster) {
+        return MockMvcBuilders.standaloneSetup(new ProductEventController(broadcaster)).build();
+    }
+
+    private static ProductResponse product(long id) {
+        return ProductResponse.builder()
+                .id(id)
+                .name("Product " + id)
+                .price(new BigDecimal("10.00"))
+                .quantity(1)
+                .category("OTHER")
+                .build();
+    }
+
+    @Test
+    @DisplayName("Client nhận event created/updated/deleted theo thứ tự với id tăng dần")
+    void stream_ReceivesChangeEvents() throws Exception {
+        ProductEventBroadcaster broadcaster = broadcaster(DIRECT, 16, 16);
+
+        MvcResult result = mockMvc(broadcaster).perform(get("/api/products/events"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        broadcaster.onProductChange(ProductChangeEvent.created(product(1)));
+        broadcaster.onProductChange(ProductChangeEvent.updated(product(1), null));
+        broadcaster.onProductChange(ProductChangeEvent.deleted(1L, null));
+
+        String body = result.getResponse().getContentAsString();
+        String epoch = broadcaster.getEpoch();
+        int created = body.indexOf("id:" + epoch + "-1\nevent:created");
+        assertTrue(created >= 0);
+        assertTrue(created < body.indexOf("id:" + epoch + "-2\nevent:updated"));
+        assertTrue(body.indexOf("id:" + epoch + "-2\nevent:updated") < body.indexOf("id:" + epoch + "-3\nevent:deleted"));
+        assertTrue(body.contains("\"name\":\"Product 1\""));
+    }
+
+    @Test
+    @DisplayName("Reconnect với Last-Event-ID chỉ nhận các event bị lỡ")
+    void stream_WithLastEventId_ReplaysMissedEventsOnly() throws Exception {
+        ProductEventBroadcaster broadcaster = broadcaster(DIRECT, 16, 16);
+        for (long id = 1; id <= 3; id++) {
+            broadcaster.onProductChange(ProductChangeEvent.created(product(id)));
+        }
+
+        String epoch = broadcaster.getEpoch();
+        MvcResult result = mockMvc(broadcaster)
+                .perform(get("/api/products/events").header("Last-Event-ID", epoch + "-1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = result.getResponse().getContentAsString();
+        assertFalse(body.contains("id:" + epoch + "-1\n"));
+        assertTrue(body.contains("id:" + epoch + "-2\n"));
+        assertTrue(body.contains("id:" + epoch + "-3\n"));
+        assertFalse(body.contains("event:reset"));
+    }
+
+    @Test
+    @DisplayName("Last-Event-ID của lần chạy trước (epoch khác, kể cả số thứ tự còn trong buffer) thì nhận reset")
+    void stream_WithLastEventIdFromPreviousBoot_ReceivesReset() throws Exception {
+        ProductEventBroadcaster broadcaster = broadcaster(DIRECT, 16, 16);
+        for (long id = 1; id <= 3; id++) {
+            broadcaster.onProductChange(ProductChangeEvent.created(product(id)));
+        }
+
+        for (String lastEventId : List.of("previousboot-1", "1", "garbage")) {
+            MvcResult result = mockMvc(broadcaster)
+                    .perform(get("/api/products/events").header("Last-Event-ID", lastEventId))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            String body = result.getResponse().getContentAsString();
+            assertTrue(body.contains("id:" + broadcaster.getEpoch() + "-3\nevent:reset"), lastEventId);
+            assertFalse(body.contains("event:created"), lastEventId);
+        }
+    }
+
+    @Test
+    @DisplayName("Last-Event-ID đã rơi khỏi replay buffer thì nhận event reset")
+    void stream_WithExpiredLastEventId_ReceivesReset() throws Exception {
+        ProductEventBroadcaster broadcaster = broadcaster(DIRECT, 16, 2);
+        for (long id = 1; id <= 5; id++) {
+            broadcaster.onProductChange(ProductChangeEvent.created(product(id)));
+        }
+
+        MvcResult result = mockMvc(broadcaster)
+                .perform(get("/api/products/events?lastEventId=" + broadcaster.getEpoch() + "-1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = result.getResponse().getContentAsString();
+        assertTrue(body.contains("event:reset"));
+        assertFalse(body.contains("event:created"));
+    }
+
+    @Test
+    @DisplayName("Client chậm (hàng đợi đầy) bị ngắt kết nối")
+    void slowConsumer_IsDisconnectedWhenBufferFull() {
+        List<Runnable> pending = new ArrayList<>();
+        ProductEventBroadcaster broadcaster = broadcaster(pending::add, 2, 16);
+        broadcaster.subscribe(null);
+        assertEquals(1, broadcaster.getSubscriberCount());
+
+        for (long id = 1; id <= 3; id++) {
+            broadcaster.onProductChange(ProductChangeEvent.created(product(id)));
+        }
+
+        assertEquals(0, broadcaster.getSubscriberCount());
+    }
+}
@@ -0,0 +1,52 @@
+package com.flogin.unit.dto;
+
+import com.flogin.dto.product.PriceCents;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Tests cho PriceCents (giá dạng long cent trên đường xử lý nóng)
+ */
+@DisplayName("PriceCents Unit Tests")
+class PriceCentsTest {
+
+    @Test
+    @DisplayName("of: mọi scale đổi về cent, làm tròn HALF_UP như NUMERIC(12,2)")
+    void of_ShouldConvertAndRoundHalfUp() {
+        assertEquals(199_990, PriceCents.of(new BigDecimal("1999.9")));
+        assertEquals(150_000, PriceCents.of(new BigDecimal("1500")));
+        assertEquals(150_000, PriceCents.of(new BigDecimal("1.5E+3")));
+        assertEquals(1, PriceCents.of(new BigDecimal("0.005")));
+        assertEquals(0, PriceCents.of(new BigDecimal("0.004")));
+        assertEquals(-1, PriceCents.of(new BigDecimal("-0.005")));
+        assertEquals(999_999_999_00L, PriceCents.of(new BigDecimal("999999999.00")));
+    }
+
+    @Test
+    @DisplayName("of: giá trị ngoài phạm vi long được chặn về Long.MAX_VALUE / Long.MIN_VALUE")
+    void of_OutOfRange_ShouldSaturate() {
+        assertEquals(999_999_999_999_999_999L, PriceCents.of(new BigDecimal("9999999999999999.99")));
+        assertEquals(Long.MAX_VALUE, PriceCents.of(new BigDecimal("1E+30")));
+        assertEquals(Long.MIN_VALUE, PriceCents.of(new BigDecimal("-99999999999999999999.99")));
+    }
+
+    @Test
+    @DisplayName("ceil / floor: cận của khoảng giá không làm rơi sản phẩm nằm đúng biên")
+    void ceilAndFloor_ShouldRoundTowardsRange() {
+        assertEquals(1_001, PriceCents.ceil(new BigDecimal("10.001")));
+        assertEquals(1_000, PriceCents.floor(new BigDecimal("10.009")));
+        assertEquals(1_000, PriceCents.ceil(new BigDecimal("10")));
+        assertEquals(1_000, PriceCents.floor(new BigDecimal("10.00")));
+    }
+
+    @Test
+    @DisplayName("toPrice: BigDecimal scale 2 cho biên JSON / database")
+    void toPrice_ShouldUseScaleTwo() {
+        assertEquals(new BigDecimal("1999.90"), PriceCents.toPrice(199_990));
+        assertEquals(new BigDecimal("0.00"), PriceCents.toPrice(0));
+    }
+}
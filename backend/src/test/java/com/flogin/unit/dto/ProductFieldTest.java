@@ -0,0 +1,60 @@
+package com.flogin.unit.dto;
+
+import com.flogin.dto.product.ProductField;
+import com.flogin.dto.product.ProductResponse;
+import com.flogin.exception.BadRequestException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Tests cho ProductField (sparse fieldset ?fields= của GET /api/products)
+ */
+@DisplayName("ProductField Unit Tests")
+class ProductFieldTest {
+
+    @Test
+    @DisplayName("parse: bỏ qua khoảng trắng / trùng lặp, rỗng -> null (trả đủ field)")
+    void parse_ShouldIgnoreWhitespaceAndDuplicates() {
+        assertEquals(EnumSet.of(ProductField.ID, ProductField.PRICE, ProductField.CREATED_AT),
+                ProductField.parse(" price,id , createdAt,price,"));
+        assertNull(ProductField.parse(null));
+        assertNull(ProductField.parse(" "));
+        assertNull(ProductField.parse(",,"));
+    }
+
+    @Test
+    @DisplayName("parse: field không tồn tại -> BadRequestException liệt kê field hợp lệ")
+    void parse_UnknownField_ShouldThrowBadRequest() {
+        BadRequestException exception = assertThrows(BadRequestException.class,
+                () -> ProductField.parse("id,Name"));
+
+        assertTrue(exception.getMessage().startsWith("Invalid field: Name. Valid values are: id, name,"),
+                exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("mask / project: định danh theo ordinal, key theo thứ tự ProductResponse")
+    void project_ShouldKeepSelectedFieldsInResponseOrder() {
+        ProductResponse product = ProductResponse.builder()
+                .id(7L)
+                .name("Laptop")
+                .price(new BigDecimal("999.00"))
+                .category("ELECTRONICS")
+                .build();
+        EnumSet<ProductField> fields = EnumSet.of(ProductField.CATEGORY, ProductField.ID, ProductField.DESCRIPTION);
+
+        Map<String, Object> projected = ProductField.project(product, fields);
+
+        assertEquals(List.of("id", "description", "category"), List.copyOf(projected.keySet()));
+        assertEquals(7L, projected.get("id"));
+        assertNull(projected.get("description"));
+        assertEquals(0b100101, ProductField.mask(fields));
+    }
+}
@@ -0,0 +1,92 @@
+package com.flogin.unit.jfr;
+
+import com.flogin.jfr.JfrRecordingEndpoint;
+import com.flogin.jfr.PhaseEvent;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+import org.springframework.util.unit.DataSize;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Tests cho JfrRecordingEndpoint
+ */
+@DisplayName("JFR Recording Endpoint Unit Tests")
+class JfrRecordingEndpointTest {
+
+    private JfrRecordingEndpoint endpoint;
+
+    @BeforeEach
+    void setUp() {
+        endpoint = new JfrRecordingEndpoint(Duration.ofMinutes(1), DataSize.ofMegabytes(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        endpoint.stop();
+    }
+
+    @Test
+    @DisplayName("dump: 404 khi chưa start recording")
+    void dump_WhenNotStarted_ShouldReturnNotFound() {
+        WebEndpointResponse<Resource> response = endpoint.dump();
+
+        assertEquals(WebEndpointResponse.STATUS_NOT_FOUND, response.getStatus());
+        assertFalse(endpoint.stop().running());
+    }
+
+    @Test
+    @DisplayName("start + dump: file .jfr chứa PhaseEvent đã phát")
+    void startAndDump_ShouldContainEmittedPhaseEvents() throws Exception {
+        assertTrue(endpoint.start().running());
+
+        try (PhaseEvent phase = PhaseEvent.start("AuthService.login", "lookup")) {
+            Thread.sleep(1);
+        }
+
+        WebEndpointResponse<Resource> response = endpoint.dump();
+        assertEquals(WebEndpointResponse.STATUS_OK, response.getStatus());
+
+        List<RecordedEvent> phases = RecordingFile.readAllEvents(response.getBody().getFile().toPath()).stream()
+                .filter(event -> event.getEventType().getName().equals("com.flogin.Phase"))
+                .toList();
+        assertEquals(1, phases.size());
+        assertEquals("AuthService.login", phases.get(0).getString("operation"));
+        assertEquals("lookup", phases.get(0).getString("phase"));
+        assertFalse(phases.get(0).getDuration().isNegative());
+    }
+
+    @Test
+    @DisplayName("dump: mỗi request một file riêng, file bị xóa khi stream xong")
+    void dump_ShouldUseFreshFilePerRequestAndDeleteAfterStreaming() throws Exception {
+        endpoint.start();
+
+        Resource first = endpoint.dump().getBody();
+        Resource second = endpoint.dump().getBody();
+        Path firstFile = first.getFile().toPath();
+        assertNotEquals(firstFile, second.getFile().toPath());
+
+        byte[] secondBytes;
+        try (InputStream in = second.getInputStream()) {
+            secondBytes = in.readAllBytes();
+        }
+        assertFalse(Files.exists(second.getFile().toPath()));
+        assertTrue(Files.exists(firstFile), "dump khác vẫn đang chờ stream");
+        assertTrue(secondBytes.length > 0);
+
+        first.getInputStream().close();
+        assertFalse(Files.exists(firstFile));
+    }
+}
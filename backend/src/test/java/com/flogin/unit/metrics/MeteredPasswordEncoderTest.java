@@ -0,0 +1,54 @@
+package com.flogin.unit.metrics;
+
+import com.flogin.metrics.MeteredPasswordEncoder;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit Tests cho MeteredPasswordEncoder
+ */
+@DisplayName("Metered Password Encoder Unit Tests")
+class MeteredPasswordEncoderTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PasswordEncoder delegate;
+    private MeteredPasswordEncoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        delegate = mock(PasswordEncoder.class);
+        encoder = new MeteredPasswordEncoder(delegate, meterRegistry);
+    }
+
+    private Timer timer(String operation) {
+        return meterRegistry.get("flogin.password.encoder").tag("operation", operation).timer();
+    }
+
+    @Test
+    @DisplayName("encode: ủy quyền cho delegate và ghi nhận timer encode")
+    void encode_ShouldDelegateAndRecordTimer() {
+        when(delegate.encode("Test123")).thenReturn("hashed");
+
+        assertEquals("hashed", encoder.encode("Test123"));
+        assertEquals(1, timer("encode").count());
+        assertEquals(0, timer("matches").count());
+    }
+
+    @Test
+    @DisplayName("matches: ủy quyền cho delegate và ghi nhận timer matches")
+    void matches_ShouldDelegateAndRecordTimer() {
+        when(delegate.matches("Test123", "hashed")).thenReturn(true);
+
+        assertTrue(encoder.matches("Test123", "hashed"));
+        assertFalse(encoder.matches("wrong", "hashed"));
+        assertEquals(2, timer("matches").count());
+    }
+}
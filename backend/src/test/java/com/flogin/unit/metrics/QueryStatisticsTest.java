@@ -0,0 +1,112 @@
+package com.flogin.unit.metrics;
+
+import com.flogin.metrics.QueryStatistics;
+import com.flogin.metrics.QueryStatistics.QueryStat;
+import com.flogin.metrics.QueryStatisticsListener;
+import com.flogin.metrics.SqlFingerprint;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Tests cho QueryStatistics, SqlFingerprint và số dòng do QueryStatisticsListener đếm
+ */
+@DisplayName("Query Statistics Unit Tests")
+class QueryStatisticsTest {
+
+    private QueryStatistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = new QueryStatistics(3);
+    }
+
+    @Test
+    @DisplayName("fingerprint: thay literal bằng ?, gom IN-list và thu gọn khoảng trắng")
+    void fingerprint_ShouldRedactLiteralsAndNormalize() {
+        String fingerprint = SqlFingerprint.of(
+                "select p1_0.id from products p1_0\n  where p1_0.name = 'O''Reilly' and p1_0.price > 10.5 "
+                        + "and p1_0.id in (?, ?,?)");
+
+        assertEquals("select p1_0.id from products p1_0 where p1_0.name = ? and p1_0.price > ? "
+                + "and p1_0.id in (...)", fingerprint);
+    }
+
+    @Test
+    @DisplayName("top: sắp xếp theo thời gian lớn nhất và theo số lần chạy, lọc theo datasource")
+    void top_ShouldOrderByMaxTimeOrCountAndFilterByDatasource() {
+        statistics.recordExecution("product", "select a", 5_000_000, true);
+        statistics.recordExecution("product", "select a", 1_000_000, true);
+        statistics.recordExecution("product", "select b", 9_000_000, false);
+        statistics.recordRows("product", "select a", 7);
+        statistics.recordExecution("auth", "select u", 1_000_000, true);
+
+        List<QueryStat> slowest = statistics.top("product", QueryStatistics.Order.SLOWEST, 10);
+        List<QueryStat> frequent = statistics.top(null, QueryStatistics.Order.MOST_FREQUENT, 1);
+
+        assertEquals(List.of("select b", "select a"), slowest.stream().map(QueryStat::fingerprint).toList());
+        assertEquals(1, slowest.get(0).errors());
+        assertEquals(1, frequent.size());
+        QueryStat selectA = frequent.get(0);
+        assertEquals("select a", selectA.fingerprint());
+        assertEquals(2, selectA.count());
+        assertEquals(6.0, selectA.totalMillis(), 0.001);
+        assertEquals(3.0, selectA.meanMillis(), 0.001);
+        assertEquals(5.0, selectA.maxMillis(), 0.001);
+        assertEquals(7, selectA.rows());
+    }
+
+    @Test
+    @DisplayName("max-fingerprints: fingerprint vượt giới hạn được gom vào <other>")
+    void recordExecution_ShouldGroupOverflowFingerprints() {
+        for (int i = 0; i < 5; i++) {
+            statistics.recordExecution("product", "select " + i, 1_000_000, true);
+        }
+
+        List<QueryStat> all = statistics.top("product", QueryStatistics.Order.MOST_FREQUENT, 10);
+
+        assertEquals(4, all.size());
+        assertEquals("<other>", all.get(0).fingerprint());
+        assertEquals(2, all.get(0).count());
+    }
+
+    @Test
+    @DisplayName("listener: số dòng SELECT đếm trên proxy của ResultSet, ghi một lần khi close")
+    void listener_ShouldCountResultSetRowsOnClose() throws Exception {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:query-statistics-rows;DB_CLOSE_DELAY=-1");
+        QueryStatisticsListener listener = new QueryStatisticsListener("product", statistics, 60_000);
+        DataSource dataSource = ProxyDataSourceBuilder.create("product", h2)
+                .listener(listener)
+                .proxyResultSet(listener.resultSetProxyLogicFactory())
+                .build();
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("create table items (id int)");
+            statement.executeUpdate("insert into items values (1), (2), (3)");
+            ResultSet resultSet = statement.executeQuery("select id from items");
+            while (resultSet.next()) {
+                assertTrue(resultSet.getInt(1) > 0);
+            }
+            resultSet.close();
+            resultSet.close();
+        }
+
+        List<QueryStat> all = statistics.top("product", QueryStatistics.Order.MOST_FREQUENT, 10);
+        QueryStat select = all.stream().filter(stat -> stat.fingerprint().startsWith("select")).findFirst().orElseThrow();
+        QueryStat insert = all.stream().filter(stat -> stat.fingerprint().startsWith("insert")).findFirst().orElseThrow();
+        assertEquals(3, select.rows());
+        assertEquals(3, insert.rows());
+    }
+}
@@ -0,0 +1,162 @@
+package com.flogin.unit.search;
+
+import com.flogin.catalog.InMemoryProductCatalog;
+import com.flogin.dto.product.ProductMapper;
+import com.flogin.dto.product.ProductResponse;
+import com.flogin.dto.product.ProductSuggestion;
+import com.flogin.dto.product.StockLevel;
+import com.flogin.entity.product.Category;
+import com.flogin.entity.product.Product;
+import com.flogin.event.ProductChangeEvent;
+import com.flogin.repository.product.ProductRepository;
+import com.flogin.search.ProductSearchIndex;
+import com.flogin.search.SearchText;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit Tests cho ProductSearchIndex / SearchText: chuẩn hóa tiếng Việt, prefix, xếp hạng, cập nhật tăng dần
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Product Search Index Unit Tests")
+class ProductSearchIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductMapper productMapper;
+
+    @Mock
+    private ObjectProvider<InMemoryProductCatalog> inMemoryCatalog;
+
+    @Mock
+    private InMemoryProductCatalog catalog;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(productRepository, productMapper, inMemoryCatalog, meterRegistry);
+    }
+
+    private static ProductResponse product(long id, String name, String description) {
+        return ProductResponse.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .price(new BigDecimal("100.00"))
+                .quantity(1)
+                .category("ELECTRONICS")
+                .build();
+    }
+
+    private void rebuildFrom(ProductResponse... products) {
+        when(inMemoryCatalog.getIfAvailable()).thenReturn(catalog);
+        when(catalog.findAll()).thenReturn(List.of(products));
+        index.rebuild();
+    }
+
+    private List<Long> ids(String query, int limit) {
+        return index.search(query, limit).stream().map(ProductResponse::getId).toList();
+    }
+
+    @Test
+    @DisplayName("SearchText: chữ thường, bỏ dấu tiếng Việt (kể cả đ), tách theo ký tự không phải chữ / số")
+    void searchText_ShouldFoldVietnameseAndTokenize() {
+        assertEquals("dien thoai ao dai", SearchText.fold("Điện THOẠI Áo dài"));
+        assertEquals(List.of("may", "tinh", "xach", "tay", "15", "6"), SearchText.tokens("Máy tính xách-tay 15.6\""));
+        assertTrue(SearchText.tokens("  -- ").isEmpty());
+        assertTrue(SearchText.tokens(null).isEmpty());
+    }
+
+    @Test
+    @DisplayName("search: chưa dựng thì chưa ready; sau rebuild khớp prefix (từ 2 ký tự), mọi token, không phân biệt dấu")
+    void search_ShouldMatchPrefixOfEveryTokenWithoutDiacritics() {
+        assertFalse(index.isReady());
+        rebuildFrom(
+                product(1, "Điện thoại Samsung", "Màn hình lớn"),
+                product(2, "Máy tính xách tay", "Dùng cho văn phòng"),
+                product(3, "Tai nghe không dây", null));
+
+        assertTrue(index.isReady());
+        assertEquals(List.of(1L), ids("dien", 10));
+        assertEquals(List.of(1L), ids("ĐIỆN THO", 10));
+        assertEquals(List.of(2L), ids("may tinh van", 10));
+        assertEquals(List.of(), ids("may samsung", 10));
+        assertEquals(List.of(), ids("   ", 10));
+        // Token 1 ký tự chỉ khớp nguyên term
+        assertEquals(List.of(), ids("d", 10));
+        assertEquals(3.0, meterRegistry.get("flogin.search.index.documents").gauge().value());
+    }
+
+    @Test
+    @DisplayName("search: tên > mô tả, khớp nguyên term > prefix, cùng điểm thì tên ngắn rồi id nhỏ; tối đa limit")
+    void search_ShouldRankAndLimitResults() {
+        rebuildFrom(
+                product(1, "Ốp lưng", "Phụ kiện cho laptop"),
+                product(2, "Laptop Gaming Pro", null),
+                product(3, "Laptops refurbished", null),
+                product(4, "Laptop Dell", null),
+                product(5, "Balo laptop", null));
+
+        // Tên khớp nguyên term: 4 (tên ngắn nhất), 5, 2 -> tên khớp prefix: 3 -> mô tả: 1
+        assertEquals(List.of(4L, 5L, 2L, 3L, 1L), ids("laptop", 10));
+        assertEquals(List.of(4L, 5L), ids("laptop", 2));
+    }
+
+    @Test
+    @DisplayName("onProductChange: create / update / delete cập nhật index và autocomplete ngay, không cần rebuild")
+    void onProductChange_ShouldUpdateIndexIncrementally() {
+        rebuildFrom(product(1, "Bàn phím cơ", null));
+        StockLevel previous = new StockLevel(Category.ELECTRONICS, 10_000L, 1);
+
+        index.onProductChange(ProductChangeEvent.created(product(2, "Chuột không dây", null)));
+        assertEquals(List.of(2L), ids("chuot", 10));
+
+        index.onProductChange(ProductChangeEvent.updated(product(1, "Bàn phím giả cơ", null), previous));
+        assertEquals(List.of(1L), ids("gia", 10));
+        assertEquals(List.of(1L), ids("ban phim", 10));
+
+        index.onProductChange(ProductChangeEvent.updated(product(1, "Bàn di chuột", null), previous));
+        assertEquals(List.of(), ids("phim", 10));
+        assertEquals(List.of(1L, 2L), ids("chuot", 10));
+
+        assertEquals(List.of(new ProductSuggestion(1L, "Bàn di chuột")), index.suggest("ban", 10));
+        assertEquals(List.of(), index.suggest("ban phim", 10));
+
+        index.onProductChange(ProductChangeEvent.deleted(2L, previous));
+        assertEquals(List.of(1L), ids("chuot", 10));
+        assertEquals(List.of(1L), index.suggest("chuot", 10).stream().map(ProductSuggestion::id).toList());
+        assertEquals(1.0, meterRegistry.get("flogin.search.index.documents").gauge().value());
+        assertEquals(3.0, meterRegistry.get("flogin.search.index.terms").gauge().value());
+    }
+
+    @Test
+    @DisplayName("rebuild: dựng từ database khi không dùng catalog trong bộ nhớ")
+    void rebuild_ShouldLoadFromRepositoryInDatabaseMode() {
+        Product entity = new Product();
+        when(inMemoryCatalog.getIfAvailable()).thenReturn(null);
+        when(productRepository.findAll()).thenReturn(List.of(entity));
+        when(productMapper.toResponse(entity)).thenReturn(product(7, "Sách lập trình Java", null));
+
+        index.rebuild();
+
+        assertEquals(List.of(7L), ids("lap trinh", 10));
+        verify(productRepository).findAll();
+    }
+}
@@ -0,0 +1,188 @@
+package com.flogin.unit.service.product;
+
+import com.flogin.catalog.InMemoryProductCatalog;
+import com.flogin.dto.product.CatalogAggregates;
+import com.flogin.dto.product.CatalogStatistics;
+import com.flogin.dto.product.CategoryAggregate;
+import com.flogin.dto.product.ProductResponse;
+import com.flogin.dto.product.StockLevel;
+import com.flogin.entity.product.Category;
+import com.flogin.event.ProductChangeEvent;
+import com.flogin.repository.product.ProductOutboxRepository;
+import com.flogin.repository.product.ProductRepository;
+import com.flogin.service.product.CatalogStatisticsService;
+import com.flogin.service.product.ProductOutbox;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit Tests cho CatalogStatisticsService
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Catalog Statistics Service Unit Tests")
+class CatalogStatisticsServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductOutboxRepository outboxRepository;
+
+    @Mock
+    private ProductOutbox outbox;
+
+    @Mock
+    private ObjectProvider<InMemoryProductCatalog> inMemoryCatalog;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CatalogStatisticsService catalogStatisticsService;
+
+    @BeforeEach
+    void setUp() {
+        catalogStatisticsService = new CatalogStatisticsService(productRepository, outboxRepository, outbox,
+                inMemoryCatalog, transactionManager);
+        when(productRepository.aggregateByCategory()).thenReturn(List.of(
+                new CategoryAggregate(Category.ELECTRONICS, 2, 15, new BigDecimal("1500.00")),
+                new CategoryAggregate(Category.BOOKS, 1, 4, new BigDecimal("40.00"))));
+        catalogStatisticsService.reconcile();
+    }
+
+    private static ProductResponse product(long id, String category, String price, int quantity) {
+        return ProductResponse.builder()
+                .id(id)
+                .category(category)
+                .price(new BigDecimal(price))
+                .quantity(quantity)
+                .build();
+    }
+
+    @Test
+    @DisplayName("reconcile: khởi tạo bộ đếm từ GROUP BY category")
+    void reconcile_ShouldLoadCountersFromAggregates() {
+        CatalogStatistics stats = catalogStatisticsService.getStatistics();
+
+        assertEquals(3, stats.totalProducts());
+        assertEquals(19, stats.totalUnits());
+        assertEquals(0, new BigDecimal("1540.00").compareTo(stats.totalStockValue()));
+        assertEquals(2, stats.categories().get("ELECTRONICS").count());
+        assertEquals(0, stats.categories().get("FOOD").count());
+        assertEquals(Category.values().length, stats.categories().size());
+        assertNotNull(stats.reconciledAt());
+    }
+
+    @Test
+    @DisplayName("create / update / delete: cập nhật tăng dần, không query database")
+    void onProductChange_ShouldApplyDeltasIncrementally() {
+        catalogStatisticsService.onProductChange(ProductChangeEvent.created(product(10, "FOOD", "5.00", 3)));
+        catalogStatisticsService.onProductChange(ProductChangeEvent.updated(
+                product(10, "BOOKS", "6.00", 2), new StockLevel(Category.FOOD, new BigDecimal("5.00"), 3)));
+        catalogStatisticsService.onProductChange(ProductChangeEvent.deleted(
+                1L, new StockLevel(Category.ELECTRONICS, new BigDecimal("100.00"), 5)));
+
+        CatalogStatistics stats = catalogStatisticsService.getStatistics();
+        assertEquals(3, stats.totalProducts());
+        assertEquals(16, stats.totalUnits());
+        assertEquals(0, new BigDecimal("1052.00").compareTo(stats.totalStockValue()));
+        assertEquals(0, stats.categories().get("FOOD").count());
+        assertEquals(2, stats.categories().get("BOOKS").count());
+        assertEquals(1, stats.categories().get("ELECTRONICS").count());
+        verify(productRepository, times(1)).aggregateByCategory();
+    }
+
+    @Test
+    @DisplayName("delete không có trạng thái trước: đối chiếu lại với database")
+    void onProductChange_WithoutPreviousState_ShouldReconcile() {
+        when(productRepository.aggregateByCategory()).thenReturn(List.of(
+                new CategoryAggregate(Category.ELECTRONICS, 1, 5, new BigDecimal("500.00"))));
+
+        catalogStatisticsService.onProductChange(ProductChangeEvent.deleted(2L, null));
+
+        assertEquals(1, catalogStatisticsService.getStatistics().totalProducts());
+        assertEquals(0, catalogStatisticsService.getStatistics().categories().get("BOOKS").count());
+        verify(productRepository, times(2)).aggregateByCategory();
+    }
+
+    @Test
+    @DisplayName("reconcile giữa commit và lúc relay phát lại: event đã nằm trong GROUP BY không bị cộng hai lần")
+    void reconcile_CommittedEventNotYetRelayed_ShouldNotDoubleCount() {
+        // Outbox id 5 (sản phẩm mới thuộc FOOD) đã commit, relay mới phát lại tới id 4
+        when(outbox.deliveredThrough()).thenReturn(4L);
+        when(outboxRepository.findIdsGreaterThan(4L)).thenReturn(List.of(5L));
+        when(productRepository.aggregateByCategory()).thenReturn(List.of(
+                new CategoryAggregate(Category.ELECTRONICS, 2, 15, new BigDecimal("1500.00")),
+                new CategoryAggregate(Category.BOOKS, 1, 4, new BigDecimal("40.00")),
+                new CategoryAggregate(Category.FOOD, 1, 3, new BigDecimal("15.00"))));
+        catalogStatisticsService.reconcile();
+
+        catalogStatisticsService.onProductChange(
+                ProductChangeEvent.created(product(10, "FOOD", "5.00", 3)).withSequence(5));
+        // Id 6 commit sau snapshot: chưa nằm trong GROUP BY
+        catalogStatisticsService.onProductChange(
+                ProductChangeEvent.created(product(11, "FOOD", "2.00", 1)).withSequence(6));
+
+        CatalogStatistics stats = catalogStatisticsService.getStatistics();
+        assertEquals(2, stats.categories().get("FOOD").count());
+        assertEquals(4, stats.categories().get("FOOD").units());
+        assertEquals(5, stats.totalProducts());
+        verify(transactionManager, times(2)).getTransaction(argThat(definition ->
+                definition.getIsolationLevel() == TransactionDefinition.ISOLATION_REPEATABLE_READ
+                        && definition.isReadOnly()));
+    }
+
+    @Test
+    @DisplayName("event được phát lại trong lúc reconcile đang query: áp dụng lại nếu chưa nằm trong snapshot")
+    void reconcile_EventAppliedDuringQuery_ShouldBeCountedOnce() {
+        ProductChangeEvent inSnapshot = ProductChangeEvent.created(product(10, "FOOD", "5.00", 3)).withSequence(1);
+        ProductChangeEvent afterSnapshot = ProductChangeEvent.created(product(11, "FOOD", "2.00", 1)).withSequence(2);
+        when(outboxRepository.findIdsGreaterThan(0L)).thenReturn(List.of(1L));
+        when(productRepository.aggregateByCategory()).thenAnswer(invocation -> {
+            // Relay phát lại cả hai event trong khi GROUP BY đang chạy
+            catalogStatisticsService.onProductChange(inSnapshot);
+            catalogStatisticsService.onProductChange(afterSnapshot);
+            return List.of(new CategoryAggregate(Category.FOOD, 1, 3, new BigDecimal("15.00")));
+        });
+
+        catalogStatisticsService.reconcile();
+
+        CatalogStatistics stats = catalogStatisticsService.getStatistics();
+        assertEquals(2, stats.totalProducts());
+        assertEquals(4, stats.totalUnits());
+        assertEquals(0, new BigDecimal("17.00").compareTo(stats.totalStockValue()));
+    }
+
+    @Test
+    @DisplayName("catalog mode memory: event có số thứ tự ghi đã được tính trong aggregate thì bỏ qua")
+    void reconcile_InMemoryCatalog_ShouldSkipEventsUpToWriteSequence() {
+        InMemoryProductCatalog catalog = mock(InMemoryProductCatalog.class);
+        when(inMemoryCatalog.getIfAvailable()).thenReturn(catalog);
+        when(catalog.aggregateByCategory()).thenReturn(new CatalogAggregates(List.of(
+                new CategoryAggregate(Category.FOOD, 1, 3, new BigDecimal("15.00"))), 7));
+        catalogStatisticsService.reconcile();
+
+        catalogStatisticsService.onProductChange(
+                ProductChangeEvent.created(product(10, "FOOD", "5.00", 3)).withSequence(7));
+        catalogStatisticsService.onProductChange(
+                ProductChangeEvent.created(product(11, "FOOD", "2.00", 1)).withSequence(8));
+
+        CatalogStatistics stats = catalogStatisticsService.getStatistics();
+        assertEquals(2, stats.totalProducts());
+        assertEquals(4, stats.totalUnits());
+        verify(productRepository, times(1)).aggregateByCategory();
+    }
+}
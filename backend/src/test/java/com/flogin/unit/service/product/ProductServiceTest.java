@@ -1,12 +1,21 @@
 package com.flogin.unit.service.product;
 
+import com.flogin.catalog.InMemoryProductCatalog;
+import com.flogin.dto.product.ProductField;
+import com.flogin.dto.product.ProductFilter;
 import com.flogin.dto.product.ProductMapper;
 import com.flogin.dto.product.ProductRequest;
 import com.flogin.dto.product.ProductResponse;
+import com.flogin.dto.product.ProductSuggestion;
+import com.flogin.dto.product.StockLevel;
 import com.flogin.entity.product.Category;
 import com.flogin.entity.product.Product;
+import com.flogin.event.ProductChangeEvent;
+import com.flogin.exception.BadRequestException;
 import com.flogin.exception.NotFoundException;
 import com.flogin.repository.product.ProductRepository;
+import com.flogin.search.ProductSearchIndex;
+import com.flogin.service.product.ProductOutbox;
 import com.flogin.service.product.ProductService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -15,13 +24,23 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 /**
@@ -37,6 +56,21 @@ class ProductServiceTest {
     @Mock
     private ProductMapper productMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ProductOutbox productOutbox;
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @Mock
+    private ObjectProvider<InMemoryProductCatalog> inMemoryCatalog;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private ProductService productService;
 
@@ -82,6 +116,54 @@ class ProductServiceTest {
         verify(productRepository).save(any(Product.class));
     }
 
+    @Test
+    @DisplayName("Filter Products: sắp xếp theo price desc, id làm tie-breaker")
+    @SuppressWarnings("unchecked")
+    void filterProducts_Success() {
+        when(productRepository.findAll(any(Specification.class), any(Sort.class))).thenReturn(List.of(product));
+        when(productMapper.toResponse(product)).thenReturn(productResponse);
+
+        List<ProductResponse> result = productService.filterProducts(
+                new ProductFilter("electronics", new BigDecimal("10"), null, true, "price", "DESC"));
+
+        assertEquals(1, result.size());
+        verify(productRepository).findAll(any(Specification.class),
+                eq(Sort.by(Sort.Direction.DESC, "price").and(Sort.by(Sort.Direction.DESC, "id"))));
+    }
+
+    @Test
+    @DisplayName("Filter Products: tham số không hợp lệ -> BadRequestException")
+    void filterProducts_InvalidCriteria() {
+        assertThrows(BadRequestException.class, () -> productService.filterProducts(
+                new ProductFilter("TOYS", null, null, null, null, null)));
+        assertThrows(BadRequestException.class, () -> productService.filterProducts(
+                new ProductFilter(null, new BigDecimal("50"), new BigDecimal("10"), null, null, null)));
+        assertThrows(BadRequestException.class, () -> productService.filterProducts(
+                new ProductFilter(null, null, null, null, "name", null)));
+        assertThrows(BadRequestException.class, () -> productService.filterProducts(
+                new ProductFilter(null, null, null, null, "price", "sideways")));
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    @DisplayName("Find Product Fields: truyền fieldset xuống projection query, không load entity")
+    @SuppressWarnings("unchecked")
+    void findProductFields_DelegatesToProjection() {
+        Set<ProductField> fields = EnumSet.of(ProductField.ID, ProductField.PRICE);
+        List<Map<String, Object>> rows = List.of(Map.of("id", 1L, "price", new BigDecimal("100.00")));
+        when(productRepository.findAllProjected(any(Specification.class), any(Sort.class), eq(fields)))
+                .thenReturn(rows);
+
+        List<Map<String, Object>> result = productService.findProductFields(
+                new ProductFilter(null, null, null, null, null, null), fields);
+
+        assertSame(rows, result);
+        verify(productRepository).findAllProjected(any(Specification.class),
+                eq(Sort.by(Sort.Direction.ASC, "id")), eq(fields));
+        verify(productRepository, never()).findAll(any(Specification.class), any(Sort.class));
+        verifyNoInteractions(productMapper);
+    }
+
     @Test
     @DisplayName("Get Product By ID: Success")
     void getProductById_Success() {
@@ -104,19 +186,131 @@ class ProductServiceTest {
     @Test
     @DisplayName("Delete Product: Success")
     void deleteProduct_Success() {
-        when(productRepository.existsById(1L)).thenReturn(true);
-        doNothing().when(productRepository).deleteById(1L);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
 
         assertDoesNotThrow(() -> productService.deleteProduct(1L));
-        verify(productRepository).deleteById(1L);
+        verify(productRepository).delete(product);
+        verify(productRepository, never()).existsById(anyLong());
+        verify(productOutbox).append(argThat(event -> event.type() == ProductChangeEvent.Type.DELETED
+                && StockLevel.of(product).equals(event.previous())));
     }
     
     @Test
     @DisplayName("Delete Product: Not Found")
     void deleteProduct_NotFound() {
-        when(productRepository.existsById(1L)).thenReturn(false);
+        when(productRepository.findById(1L)).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () -> productService.deleteProduct(1L));
-        verify(productRepository, never()).deleteById(anyLong());
+        verify(productRepository, never()).delete(any(Product.class));
+    }
+
+    @Test
+    @DisplayName("Catalog mode memory: create đi qua InMemoryProductCatalog và publish event của catalog")
+    void createProduct_InMemoryCatalog() {
+        InMemoryProductCatalog catalog = mock(InMemoryProductCatalog.class);
+        ProductChangeEvent event = ProductChangeEvent.created(productResponse);
+        when(inMemoryCatalog.getIfAvailable()).thenReturn(catalog);
+        when(catalog.create(productRequest)).thenReturn(event);
+
+        productRequest.setName("  Test Product  ");
+        ProductResponse result = productService.createProduct(productRequest);
+
+        assertSame(productResponse, result);
+        assertEquals("Test Product", productRequest.getName());
+        verify(eventPublisher).publishEvent(event);
+        verifyNoInteractions(productRepository, productMapper, transactionManager);
+    }
+
+    @Test
+    @DisplayName("Catalog mode memory: filter truyền category / sort đã kiểm tra cho catalog")
+    void filterProducts_InMemoryCatalog() {
+        InMemoryProductCatalog catalog = mock(InMemoryProductCatalog.class);
+        when(inMemoryCatalog.getIfAvailable()).thenReturn(catalog);
+        when(catalog.filter(Category.ELECTRONICS, new BigDecimal("10"), null, true,
+                Sort.by(Sort.Direction.DESC, "price").and(Sort.by(Sort.Direction.DESC, "id"))))
+                .thenReturn(List.of(productResponse));
+
+        List<ProductResponse> result = productService.filterProducts(
+                new ProductFilter("electronics", new BigDecimal("10"), null, true, "price", "DESC"));
+
+        assertEquals(List.of(productResponse), result);
+        verifyNoInteractions(productRepository, transactionManager);
+    }
+
+    @Test
+    @DisplayName("Catalog mode memory: đọc / sửa / xóa không mở transaction của product datasource")
+    void inMemoryCatalog_ShouldNotBeginTransactions() {
+        InMemoryProductCatalog catalog = mock(InMemoryProductCatalog.class);
+        when(inMemoryCatalog.getIfAvailable()).thenReturn(catalog);
+        when(catalog.findById(1L)).thenReturn(Optional.of(productResponse));
+        when(catalog.contains(1L)).thenReturn(true);
+        when(catalog.update(1L, productRequest)).thenReturn(ProductChangeEvent.updated(productResponse, null));
+        when(catalog.delete(1L)).thenReturn(ProductChangeEvent.deleted(1L, null));
+
+        productService.getAllProducts();
+        assertSame(productResponse, productService.getProductById(1L));
+        productService.getProductVersion(1L);
+        productService.getCatalogVersion();
+        productService.updateProduct(1L, productRequest);
+        productService.deleteProduct(1L);
+
+        verifyNoInteractions(productRepository, transactionManager);
+    }
+
+    @Test
+    @DisplayName("Catalog mode database: ghi chạy trong transaction của productTransactionManager")
+    void createProduct_Database_RunsInTransaction() {
+        when(productMapper.toEntity(productRequest)).thenReturn(product);
+        when(productRepository.save(product)).thenReturn(product);
+        when(productMapper.toResponse(product)).thenReturn(productResponse);
+
+        productService.createProduct(productRequest);
+
+        verify(transactionManager).getTransaction(any());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    @DisplayName("searchProducts: index đã dựng thì tìm qua index, không chạm repository")
+    void searchProducts_IndexReady_UsesIndex() {
+        when(productSearchIndex.isReady()).thenReturn(true);
+        when(productSearchIndex.search("lap", 5)).thenReturn(List.of(productResponse));
+
+        assertEquals(List.of(productResponse), productService.searchProducts("lap", 5));
+        verifyNoInteractions(productRepository, productMapper);
+    }
+
+    @Test
+    @DisplayName("searchProducts: index chưa dựng thì tìm tên chứa keyword, cắt theo limit; limit ngoài [1, 100] bị từ chối")
+    void searchProducts_IndexNotReady_FallsBackAndLimits() {
+        Product other = new Product();
+        when(productRepository.findByNameContainingIgnoreCase("Test")).thenReturn(List.of(product, other));
+        when(productMapper.toResponse(product)).thenReturn(productResponse);
+        when(productMapper.toResponse(other)).thenReturn(new ProductResponse());
+
+        assertEquals(List.of(productResponse), productService.searchProducts("Test", 1));
+        assertEquals(List.of(), productService.searchProducts("  ", 1));
+        assertThrows(BadRequestException.class, () -> productService.searchProducts("Test", 0));
+        assertThrows(BadRequestException.class,
+                () -> productService.searchProducts("Test", ProductService.MAX_SEARCH_LIMIT + 1));
+        verify(productSearchIndex, never()).search(anyString(), anyInt());
+    }
+
+    @Test
+    @DisplayName("suggestProductNames: index đã dựng thì gợi ý qua trie; chưa dựng thì lấy tên chứa prefix; limit ngoài [1, 10] bị từ chối")
+    void suggestProductNames_UsesIndexOrFallsBack() {
+        ProductSuggestion suggestion = new ProductSuggestion(1L, "Test Product");
+        when(productSearchIndex.isReady()).thenReturn(true, false);
+        when(productSearchIndex.suggest("te", 3)).thenReturn(List.of(suggestion));
+        when(productRepository.findByNameContainingIgnoreCase("te")).thenReturn(List.of(product));
+        when(productMapper.toResponse(product)).thenReturn(productResponse);
+
+        assertEquals(List.of(suggestion), productService.suggestProductNames("te", 3));
+        assertEquals(List.of(suggestion), productService.suggestProductNames("te", 3));
+        assertEquals(List.of(), productService.suggestProductNames(null, 3));
+        assertThrows(BadRequestException.class, () -> productService.suggestProductNames("te", 0));
+        assertThrows(BadRequestException.class,
+                () -> productService.suggestProductNames("te", ProductService.MAX_SUGGEST_LIMIT + 1));
+        verify(productSearchIndex).suggest("te", 3);
     }
-}
\ No newline at end of file
+}
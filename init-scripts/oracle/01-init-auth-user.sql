@@ -12,7 +12,7 @@ GRANT UNLIMITED TABLESPACE TO auth_user;
 -- Connect as auth_user and create tables
 ALTER SESSION SET CURRENT_SCHEMA = auth_user;
 
--- Users table will be created automatically by JPA/Hibernate
+-- Users table is created by the application (Flyway, backend/src/main/resources/db/migration/auth)
 -- This script just sets up the user and permissions
 
 EXIT;
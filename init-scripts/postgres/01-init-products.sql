@@ -4,7 +4,7 @@
 -- Grant all privileges to product_user (if needed)
 GRANT ALL PRIVILEGES ON DATABASE products TO product_user;
 
--- Products table will be created automatically by JPA/Hibernate
+-- Products table is created by the application (Flyway, backend/src/main/resources/db/migration/product)
 -- This script just ensures proper permissions
 
 -- Optional: Create extensions if needed
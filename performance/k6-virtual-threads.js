@@ -0,0 +1,104 @@
+/**
+ * Execution Mode Comparison - platform threads vs virtual threads
+ *
+ * Chạy cùng một tải (1,000+ concurrent clients) lên backend ở hai execution mode
+ * rồi so sánh throughput (http_reqs/s) và latency.
+ *
+ * Run:
+ *   # 1. Platform threads (Tomcat pool mặc định, 200 threads)
+ *   VIRTUAL_THREADS_ENABLED=false java -jar backend/target/backend-0.0.1-SNAPSHOT.jar
+ *   k6 run -e MODE=platform --summary-export=platform.json performance/k6-virtual-threads.js
+ *
+ *   # 2. Virtual threads
+ *   VIRTUAL_THREADS_ENABLED=true java -jar backend/target/backend-0.0.1-SNAPSHOT.jar
+ *   k6 run -e MODE=virtual --summary-export=virtual.json performance/k6-virtual-threads.js
+ *
+ * Tuỳ chọn: VUS (mặc định 1000), DURATION (mặc định 2m), BASE_URL.
+ * Giữ PRODUCT_DB_POOL_SIZE / AUTH_DB_POOL_SIZE giống nhau giữa hai lần chạy để kết quả so sánh được.
+ */
+
+import http from 'k6/http';
+import { check } from 'k6';
+import { Rate, Trend } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8081/api';
+const MODE = __ENV.MODE || 'unknown';
+const VUS = parseInt(__ENV.VUS || '1000', 10);
+const DURATION = __ENV.DURATION || '2m';
+
+const errorRate = new Rate('errors');
+const productReadDuration = new Trend('product_read_duration');
+const loginDuration = new Trend('login_duration');
+
+export const options = {
+  tags: { execution_mode: MODE },
+  scenarios: {
+    // Đọc sản phẩm - chủ yếu chờ JDBC (Postgres)
+    product_reads: {
+      executor: 'constant-vus',
+      vus: Math.floor(VUS * 0.9),
+      duration: DURATION,
+      exec: 'productReads',
+    },
+    // Đăng nhập - Oracle lookup + BCrypt (CPU-bound)
+    logins: {
+      executor: 'constant-vus',
+      vus: Math.ceil(VUS * 0.1),
+      duration: DURATION,
+      exec: 'logins',
+    },
+  },
+  thresholds: {
+    errors: ['rate<0.01'],
+    product_read_duration: ['p(95)<1000'],
+  },
+};
+
+export function setup() {
+  // Tạo sẵn user và vài sản phẩm để các VU có dữ liệu đọc
+  http.post(`${BASE_URL}/auth/register`, JSON.stringify({
+    username: 'vtloadtest',
+    email: 'vtloadtest@example.com',
+    password: 'Load123',
+    fullName: 'VT Load Test',
+  }), { headers: { 'Content-Type': 'application/json' } });
+
+  const ids = [];
+  for (let i = 0; i < 20; i++) {
+    const res = http.post(`${BASE_URL}/products`, JSON.stringify({
+      name: `VT Product ${i}`,
+      description: 'Virtual thread load test product',
+      price: 10 + i,
+      quantity: 100,
+      category: 'OTHER',
+    }), { headers: { 'Content-Type': 'application/json' } });
+    if (res.status === 201) {
+      ids.push(res.json('id'));
+    }
+  }
+  return { ids };
+}
+
+export function productReads(data) {
+  const useList = Math.random() < 0.3 || data.ids.length === 0;
+  const url = useList
+    ? `${BASE_URL}/products`
+    : `${BASE_URL}/products/${data.ids[Math.floor(Math.random() * data.ids.length)]}`;
+
+  const res = http.get(url);
+  productReadDuration.add(res.timings.duration);
+  errorRate.add(!check(res, { 'read status is 200': (r) => r.status === 200 }));
+}
+
+export function logins() {
+  const res = http.post(`${BASE_URL}/auth/login`, JSON.stringify({
+    username: 'vtloadtest',
+    password: 'Load123',
+  }), { headers: { 'Content-Type': 'application/json' } });
+  loginDuration.add(res.timings.duration);
+  errorRate.add(!check(res, { 'login status is 200': (r) => r.status === 200 }));
+}
+
+export function teardown(data) {
+  data.ids.forEach((id) => http.del(`${BASE_URL}/products/${id}`));
+}